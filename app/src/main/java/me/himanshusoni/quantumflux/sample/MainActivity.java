@@ -107,7 +107,7 @@ public class MainActivity extends AppCompatActivity {
         }
         dispatcher.release(true);
 
-        int count = Select.from(Book.class).queryAsCount();
+        long count = Select.from(Book.class).queryAsCount();
         Toast.makeText(this, "Total Books : " + count, Toast.LENGTH_LONG).show();
 
 
@@ -0,0 +1,86 @@
+package me.himanshusoni.quantumflux.compiler;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collection;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+
+/**
+ * Writes the source of the generated DomainRegistry implementation.
+ */
+class DomainRegistryWriter {
+
+    static final String REGISTRY_PACKAGE = "me.himanshusoni.quantumflux.generated";
+    static final String REGISTRY_CLASS = "QuantumFluxDomainRegistry";
+
+    private final ProcessingEnvironment mProcessingEnv;
+
+    DomainRegistryWriter(ProcessingEnvironment processingEnv) {
+        this.mProcessingEnv = processingEnv;
+    }
+
+    void write(Collection<TypeElement> tableClasses, Collection<TypeElement> tableViewClasses) throws IOException {
+        JavaFileObject sourceFile = mProcessingEnv.getFiler().createSourceFile(REGISTRY_PACKAGE + "." + REGISTRY_CLASS);
+
+        try (PrintWriter writer = new PrintWriter(sourceFile.openWriter())) {
+            writer.println("package " + REGISTRY_PACKAGE + ";");
+            writer.println();
+            writer.println("import java.util.ArrayList;");
+            writer.println("import java.util.List;");
+            writer.println();
+            writer.println("import me.himanshusoni.quantumflux.model.generate.DomainRegistry;");
+            writer.println();
+            writer.println("/**");
+            writer.println(" * Generated by " + QuantumFluxProcessor.class.getSimpleName() + ", do not edit.");
+            writer.println(" */");
+            writer.println("public final class " + REGISTRY_CLASS + " implements DomainRegistry {");
+            writer.println();
+            writeClassList(writer, "getTableClasses", tableClasses);
+            writer.println();
+            writeClassList(writer, "getTableViewClasses", tableViewClasses);
+            writer.println();
+            writer.println("    private static Class<?> findClass(String className) {");
+            writer.println("        try {");
+            writer.println("            return Class.forName(className);");
+            writer.println("        } catch (ClassNotFoundException e) {");
+            writer.println("            throw new IllegalStateException(\"Domain class not found: \" + className, e);");
+            writer.println("        }");
+            writer.println("    }");
+            writer.println("}");
+        }
+    }
+
+    private void writeClassList(PrintWriter writer, String methodName, Collection<TypeElement> classes) {
+        writer.println("    @Override");
+        writer.println("    public List<Class<?>> " + methodName + "() {");
+        writer.println("        List<Class<?>> classes = new ArrayList<Class<?>>(" + classes.size() + ");");
+        for (TypeElement typeElement : classes) {
+            writer.println("        classes.add(" + classReference(typeElement) + ");");
+        }
+        writer.println("        return classes;");
+        writer.println("    }");
+    }
+
+    /**
+     * Classes that are visible from the generated package are referenced directly, the rest are loaded by name
+     */
+    private String classReference(TypeElement typeElement) {
+        if (isAccessible(typeElement)) return typeElement.getQualifiedName() + ".class";
+        else return "findClass(\"" + mProcessingEnv.getElementUtils().getBinaryName(typeElement) + "\")";
+    }
+
+    private static boolean isAccessible(TypeElement typeElement) {
+        Element element = typeElement;
+        while (element.getKind().isClass() || element.getKind().isInterface()) {
+            if (!element.getModifiers().contains(Modifier.PUBLIC)) return false;
+            element = element.getEnclosingElement();
+        }
+        return element.getKind() == ElementKind.PACKAGE;
+    }
+}
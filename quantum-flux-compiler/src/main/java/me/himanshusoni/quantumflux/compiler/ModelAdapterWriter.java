@@ -0,0 +1,507 @@
+package me.himanshusoni.quantumflux.compiler;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.JavaFileObject;
+
+/**
+ * Writes the source of the generated ModelAdapter for a domain class.  The adapter is placed in the same package as the
+ * domain class, so that package private fields can be accessed directly.  Fields that are not accessible from that package
+ * are accessed through their getters and setters, and fields with neither are left to reflection.
+ */
+class ModelAdapterWriter {
+
+    private final ProcessingEnvironment mProcessingEnv;
+
+    ModelAdapterWriter(ProcessingEnvironment processingEnv) {
+        this.mProcessingEnv = processingEnv;
+    }
+
+    /**
+     * @return true if an adapter can be generated for the supplied class
+     */
+    boolean canWrite(TypeElement typeElement) {
+        Element element = typeElement;
+        while (element.getKind() != ElementKind.PACKAGE) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) return false;
+            if (element != typeElement && !element.getKind().isClass() && !element.getKind().isInterface())
+                return false;
+            if (element.getEnclosingElement().getKind() != ElementKind.PACKAGE && !element.getModifiers().contains(Modifier.STATIC))
+                return false;
+            element = element.getEnclosingElement();
+        }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(typeElement.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) return true;
+        }
+        return false;
+    }
+
+    void write(TypeElement typeElement) throws IOException {
+        PackageElement packageElement = mProcessingEnv.getElementUtils().getPackageOf(typeElement);
+        String packageName = packageElement.getQualifiedName().toString();
+        String binaryName = mProcessingEnv.getElementUtils().getBinaryName(typeElement).toString();
+        String adapterName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + "$$ModelAdapter";
+        String modelName = mProcessingEnv.getTypeUtils().erasure(typeElement.asType()).toString();
+
+        List<FieldAccess> fields = findFields(typeElement, packageElement);
+
+        JavaFileObject sourceFile = mProcessingEnv.getFiler().createSourceFile(
+                packageName.isEmpty() ? adapterName : packageName + "." + adapterName, typeElement);
+
+        try (PrintWriter writer = new PrintWriter(sourceFile.openWriter())) {
+            if (!packageName.isEmpty()) {
+                writer.println("package " + packageName + ";");
+                writer.println();
+            }
+            writer.println("import android.content.ContentValues;");
+            writer.println("import android.database.Cursor;");
+            writer.println("import android.database.DatabaseUtils;");
+            writer.println("import android.database.sqlite.SQLiteProgram;");
+            writer.println();
+            writer.println("import me.himanshusoni.quantumflux.model.generate.ModelAdapter;");
+            writer.println("import me.himanshusoni.quantumflux.model.map.SqlColumnMapping;");
+            writer.println();
+            writer.println("/**");
+            writer.println(" * Generated by " + QuantumFluxProcessor.class.getSimpleName() + ", do not edit.");
+            writer.println(" */");
+            writer.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+            writer.println("public final class " + adapterName + " implements ModelAdapter<" + modelName + "> {");
+            writer.println();
+
+            writer.println("    @Override");
+            writer.println("    public " + modelName + " newInstance() {");
+            writer.println("        return new " + modelName + "();");
+            writer.println("    }");
+            writer.println();
+
+            writer.println("    @Override");
+            writer.println("    public int findFieldIndex(String fieldName) {");
+            for (int i = 0; i < fields.size(); i++) {
+                writer.println("        if (\"" + fields.get(i).mName + "\".equals(fieldName)) return " + i + ";");
+            }
+            writer.println("        return -1;");
+            writer.println("    }");
+            writer.println();
+
+            writer.println("    @Override");
+            writer.println("    public void setFieldValue(int fieldIndex, " + modelName + " model, Cursor cursor, int columnIndex, SqlColumnMapping columnMapping) {");
+            writer.println("        switch (fieldIndex) {");
+            for (int i = 0; i < fields.size(); i++) {
+                FieldAccess field = fields.get(i);
+                writer.println("            case " + i + ":");
+                field.writeReadCursor(writer, "                ");
+                writer.println("                break;");
+            }
+            writer.println("            default:");
+            writer.println("                throw new IllegalArgumentException(\"Unknown field index \" + fieldIndex);");
+            writer.println("        }");
+            writer.println("    }");
+            writer.println();
+
+            writer.println("    @Override");
+            writer.println("    public Object getFieldValue(int fieldIndex, " + modelName + " model) {");
+            writer.println("        switch (fieldIndex) {");
+            for (int i = 0; i < fields.size(); i++) {
+                writer.println("            case " + i + ":");
+                writer.println("                return " + fields.get(i).read() + ";");
+            }
+            writer.println("            default:");
+            writer.println("                throw new IllegalArgumentException(\"Unknown field index \" + fieldIndex);");
+            writer.println("        }");
+            writer.println("    }");
+            writer.println();
+
+            writer.println("    @Override");
+            writer.println("    public void setContentValue(int fieldIndex, " + modelName + " model, ContentValues contentValues, String columnName, SqlColumnMapping columnMapping) {");
+            writer.println("        switch (fieldIndex) {");
+            for (int i = 0; i < fields.size(); i++) {
+                FieldAccess field = fields.get(i);
+                writer.println("            case " + i + ": {");
+                field.writeContentValue(writer, "                ");
+                writer.println("                break;");
+                writer.println("            }");
+            }
+            writer.println("            default:");
+            writer.println("                throw new IllegalArgumentException(\"Unknown field index \" + fieldIndex);");
+            writer.println("        }");
+            writer.println("    }");
+            writer.println();
+
+            writer.println("    @Override");
+            writer.println("    public void bindValue(int fieldIndex, " + modelName + " model, SQLiteProgram program, int bindIndex, SqlColumnMapping columnMapping) {");
+            writer.println("        switch (fieldIndex) {");
+            for (int i = 0; i < fields.size(); i++) {
+                FieldAccess field = fields.get(i);
+                writer.println("            case " + i + ": {");
+                field.writeBindValue(writer, "                ");
+                writer.println("                break;");
+                writer.println("            }");
+            }
+            writer.println("            default:");
+            writer.println("                throw new IllegalArgumentException(\"Unknown field index \" + fieldIndex);");
+            writer.println("        }");
+            writer.println("    }");
+            writer.println("}");
+        }
+    }
+
+    /**
+     * Finds all of the persisted fields of the class and its super classes that can be accessed from the adapter.
+     * Field names declared more than once in the hierarchy are left to reflection.
+     */
+    private List<FieldAccess> findFields(TypeElement typeElement, PackageElement adapterPackage) {
+        List<FieldAccess> fields = new ArrayList<>();
+        Set<String> fieldNames = new HashSet<>();
+        Set<String> duplicateNames = new HashSet<>();
+
+        TypeElement currentType = typeElement;
+        while (currentType != null) {
+            for (VariableElement field : ElementFilter.fieldsIn(currentType.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) continue;
+
+                String fieldName = field.getSimpleName().toString();
+                if (!fieldNames.add(fieldName)) {
+                    duplicateNames.add(fieldName);
+                    continue;
+                }
+
+                FieldAccess fieldAccess = createFieldAccess(typeElement, field, adapterPackage);
+                if (fieldAccess != null) fields.add(fieldAccess);
+            }
+
+            TypeMirror superclass = currentType.getSuperclass();
+            currentType = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+
+        List<FieldAccess> uniqueFields = new ArrayList<>(fields.size());
+        for (FieldAccess field : fields) {
+            if (!duplicateNames.contains(field.mName)) uniqueFields.add(field);
+        }
+        return uniqueFields;
+    }
+
+    private FieldAccess createFieldAccess(TypeElement modelType, VariableElement field, PackageElement adapterPackage) {
+        Types types = mProcessingEnv.getTypeUtils();
+        String fieldName = field.getSimpleName().toString();
+        TypeMirror fieldType = types.asMemberOf((DeclaredType) modelType.asType(), field);
+
+        if (isAccessible(field, adapterPackage)) {
+            return new FieldAccess(fieldName, types.erasure(fieldType), "model." + fieldName, "model." + fieldName + " = %s");
+        }
+
+        String capitalizedName = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        ExecutableElement setter = findMethod(modelType, adapterPackage, "set" + capitalizedName, fieldType);
+        ExecutableElement getter = findMethod(modelType, adapterPackage, "get" + capitalizedName, null);
+        if (getter == null && fieldType.getKind() == TypeKind.BOOLEAN) {
+            getter = findMethod(modelType, adapterPackage, "is" + capitalizedName, null);
+        }
+
+        if (setter == null || getter == null) return null;
+
+        TypeMirror getterType = ((ExecutableType) types.asMemberOf((DeclaredType) modelType.asType(), getter)).getReturnType();
+        if (!types.isSameType(types.erasure(getterType), types.erasure(fieldType))) return null;
+
+        return new FieldAccess(fieldName, types.erasure(fieldType), "model." + getter.getSimpleName() + "()", "model." + setter.getSimpleName() + "(%s)");
+    }
+
+    /**
+     * Finds a non static method accessible from the adapter package, with a single parameter of the supplied type,
+     * or with no parameters if the type is null.
+     */
+    private ExecutableElement findMethod(TypeElement modelType, PackageElement adapterPackage, String methodName, TypeMirror parameterType) {
+        Types types = mProcessingEnv.getTypeUtils();
+
+        for (ExecutableElement method : ElementFilter.methodsIn(mProcessingEnv.getElementUtils().getAllMembers(modelType))) {
+            if (!method.getSimpleName().contentEquals(methodName)) continue;
+            if (method.getModifiers().contains(Modifier.STATIC) || !isAccessible(method, adapterPackage)) continue;
+
+            List<? extends VariableElement> parameters = method.getParameters();
+            if (parameterType == null && parameters.isEmpty()) return method;
+            if (parameterType != null && parameters.size() == 1) {
+                ExecutableType methodType = (ExecutableType) types.asMemberOf((DeclaredType) modelType.asType(), method);
+                if (types.isSameType(types.erasure(methodType.getParameterTypes().get(0)), types.erasure(parameterType)))
+                    return method;
+            }
+        }
+        return null;
+    }
+
+    private boolean isAccessible(Element member, PackageElement adapterPackage) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return isAccessible((TypeElement) member.getEnclosingElement(), adapterPackage);
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) return false;
+
+        //Package private and protected members are only accessible from the same package
+        return mProcessingEnv.getElementUtils().getPackageOf(member).equals(adapterPackage);
+    }
+
+    private boolean isAccessible(TypeElement typeElement, PackageElement adapterPackage) {
+        Element element = typeElement;
+        while (element.getKind() != ElementKind.PACKAGE) {
+            if (!element.getModifiers().contains(Modifier.PUBLIC)
+                    && !mProcessingEnv.getElementUtils().getPackageOf(element).equals(adapterPackage)) return false;
+            if (element.getModifiers().contains(Modifier.PRIVATE)) return false;
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * The generated code used to read and write a single field.  The types with a built in column mapping that maps directly
+     * onto a cursor getter, are read and written directly while the column uses that built in mapping.  All other types, and
+     * columns using a custom mapping registered for one of those types, go through the column mapping.
+     */
+    private static class FieldAccess {
+
+        private static final String MAPPING_PACKAGE = "me.himanshusoni.quantumflux.model.map.types.";
+
+        private final String mName;
+        private final TypeMirror mType;
+        private final String mReadExpression;
+        private final String mWriteFormat;
+
+        FieldAccess(String name, TypeMirror type, String readExpression, String writeFormat) {
+            this.mName = name;
+            this.mType = type;
+            this.mReadExpression = readExpression;
+            this.mWriteFormat = writeFormat;
+        }
+
+        String read() {
+            return mReadExpression;
+        }
+
+        String write(String valueExpression) {
+            return String.format(mWriteFormat, valueExpression);
+        }
+
+        void writeReadCursor(PrintWriter writer, String indent) {
+            String mappingRead = write("(" + castTypeName() + ") columnMapping.getColumnValue(cursor, columnIndex)") + ";";
+            String directRead = readCursor();
+
+            if (directRead == null) {
+                writer.println(indent + mappingRead);
+            } else {
+                writer.println(indent + "if (" + isBuiltInMapping() + ") " + write(directRead) + ";");
+                writer.println(indent + "else " + mappingRead);
+            }
+        }
+
+        void writeContentValue(PrintWriter writer, String indent) {
+            if (builtInMapping() == null) {
+                writeMappedContentValue(writer, indent);
+                return;
+            }
+
+            writer.println(indent + "if (" + isBuiltInMapping() + ") {");
+            writeDirectContentValue(writer, indent + "    ");
+            writer.println(indent + "} else {");
+            writeMappedContentValue(writer, indent + "    ");
+            writer.println(indent + "}");
+        }
+
+        void writeBindValue(PrintWriter writer, String indent) {
+            if (builtInMapping() == null) {
+                writeMappedBindValue(writer, indent);
+                return;
+            }
+
+            writer.println(indent + "if (" + isBuiltInMapping() + ") {");
+            writeDirectBindValue(writer, indent + "    ");
+            writer.println(indent + "} else {");
+            writeMappedBindValue(writer, indent + "    ");
+            writer.println(indent + "}");
+        }
+
+        /**
+         * @return The built in mapping of the field type, or null if the type is always read and written through its mapping
+         */
+        private String builtInMapping() {
+            switch (typeName()) {
+                case "long":
+                case "java.lang.Long":
+                    return "LongType";
+                case "int":
+                case "java.lang.Integer":
+                    return "IntegerType";
+                case "short":
+                case "java.lang.Short":
+                    return "ShortType";
+                case "double":
+                case "java.lang.Double":
+                    return "DoubleType";
+                case "float":
+                case "java.lang.Float":
+                    return "FloatType";
+                case "boolean":
+                case "java.lang.Boolean":
+                    return "BooleanType";
+                case "java.lang.String":
+                    return "StringType";
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * A subclass of a built in mapping is a custom mapping, so the class is compared exactly.  The mapping is fully qualified,
+         * since a domain class in the adapter package could have the same name
+         */
+        private String isBuiltInMapping() {
+            return "columnMapping.getClass() == " + MAPPING_PACKAGE + builtInMapping() + ".class";
+        }
+
+        private String readCursor() {
+            switch (typeName()) {
+                case "long":
+                case "java.lang.Long":
+                    return "cursor.getLong(columnIndex)";
+                case "int":
+                case "java.lang.Integer":
+                    return "cursor.getInt(columnIndex)";
+                case "short":
+                case "java.lang.Short":
+                    return "cursor.getShort(columnIndex)";
+                case "double":
+                case "java.lang.Double":
+                    return "cursor.getDouble(columnIndex)";
+                case "float":
+                case "java.lang.Float":
+                    return "cursor.getFloat(columnIndex)";
+                case "boolean":
+                case "java.lang.Boolean":
+                    return "cursor.getInt(columnIndex) != 0";
+                case "java.lang.String":
+                    return "cursor.getString(columnIndex)";
+                default:
+                    return null;
+            }
+        }
+
+        private void writeDirectContentValue(PrintWriter writer, String indent) {
+            switch (typeName()) {
+                case "long":
+                case "int":
+                case "short":
+                case "double":
+                case "float":
+                    writer.println(indent + "contentValues.put(columnName, " + mReadExpression + ");");
+                    return;
+                case "boolean":
+                    writer.println(indent + "contentValues.put(columnName, " + mReadExpression + " ? 1 : 0);");
+                    return;
+                case "java.lang.Boolean":
+                    writer.println(indent + "Boolean value = " + mReadExpression + ";");
+                    writer.println(indent + "if (value == null) contentValues.putNull(columnName);");
+                    writer.println(indent + "else contentValues.put(columnName, value ? 1 : 0);");
+                    return;
+                default:
+                    writer.println(indent + typeName() + " value = " + mReadExpression + ";");
+                    writer.println(indent + "if (value == null) contentValues.putNull(columnName);");
+                    writer.println(indent + "else contentValues.put(columnName, value);");
+            }
+        }
+
+        private void writeMappedContentValue(PrintWriter writer, String indent) {
+            writer.println(indent + "Object value = " + mReadExpression + ";");
+            writer.println(indent + "if (value == null) contentValues.putNull(columnName);");
+            writer.println(indent + "else columnMapping.setColumnValue(contentValues, columnName, value);");
+        }
+
+        private void writeDirectBindValue(PrintWriter writer, String indent) {
+            switch (typeName()) {
+                case "long":
+                case "int":
+                case "short":
+                    writer.println(indent + "program.bindLong(bindIndex, " + mReadExpression + ");");
+                    return;
+                case "double":
+                case "float":
+                    writer.println(indent + "program.bindDouble(bindIndex, " + mReadExpression + ");");
+                    return;
+                case "boolean":
+                    writer.println(indent + "program.bindLong(bindIndex, " + mReadExpression + " ? 1 : 0);");
+                    return;
+                case "java.lang.Long":
+                case "java.lang.Integer":
+                case "java.lang.Short":
+                    writeNullableBind(writer, indent, "program.bindLong(bindIndex, value)");
+                    return;
+                case "java.lang.Double":
+                case "java.lang.Float":
+                    writeNullableBind(writer, indent, "program.bindDouble(bindIndex, value)");
+                    return;
+                case "java.lang.Boolean":
+                    writeNullableBind(writer, indent, "program.bindLong(bindIndex, value ? 1 : 0)");
+                    return;
+                default:
+                    writeNullableBind(writer, indent, "program.bindString(bindIndex, value)");
+            }
+        }
+
+        private void writeMappedBindValue(PrintWriter writer, String indent) {
+            writer.println(indent + "Object value = " + mReadExpression + ";");
+            writer.println(indent + "if (value == null) program.bindNull(bindIndex);");
+            writer.println(indent + "else DatabaseUtils.bindObjectToProgram(program, bindIndex, columnMapping.toSqlType(value));");
+        }
+
+        private void writeNullableBind(PrintWriter writer, String indent, String bindStatement) {
+            writer.println(indent + typeName() + " value = " + mReadExpression + ";");
+            writer.println(indent + "if (value == null) program.bindNull(bindIndex);");
+            writer.println(indent + "else " + bindStatement + ";");
+        }
+
+        private String typeName() {
+            return mType.toString();
+        }
+
+        /**
+         * Primitives are cast through their wrapper type, the mapping returns objects
+         */
+        private String castTypeName() {
+            switch (mType.getKind()) {
+                case BYTE:
+                    return "Byte";
+                case CHAR:
+                    return "Character";
+                case LONG:
+                    return "Long";
+                case INT:
+                    return "Integer";
+                case SHORT:
+                    return "Short";
+                case DOUBLE:
+                    return "Double";
+                case FLOAT:
+                    return "Float";
+                case BOOLEAN:
+                    return "Boolean";
+                default:
+                    return typeName();
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package me.himanshusoni.quantumflux.compiler;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Finds all of the QuantumFlux domain classes at compile time, and generates a registry for them, so that
+ * the library does not have to scan the application dex file at start up to find them.  A model adapter is
+ * also generated for every domain class, so that model objects can be inflated and deflated without reflection.
+ * <br>
+ * The same rules as the runtime scanning are applied: A table is any concrete class annotated with Table or extending
+ * QuantumFluxRecord, and a table view is any concrete class implementing TableView.  The processor can not read the
+ * PACKAGE_NAME meta-data of the manifest, so the same package must be passed with the quantumflux.packageName option to only
+ * register the classes in that package, otherwise all of the domain classes of the compilation are registered.
+ * <br>
+ * The registry only contains the domain classes compiled together with it, and once it exists the dex file is no longer
+ * scanned.  The processor must therefore only be applied to the application module, and only if all of the domain classes
+ * are part of that module, domain classes of library modules would be missing from the registry.
+ */
+public class QuantumFluxProcessor extends AbstractProcessor {
+
+    static final String TABLE_ANNOTATION = "me.himanshusoni.quantumflux.model.annotation.Table";
+    static final String QUANTUM_FLUX_RECORD = "me.himanshusoni.quantumflux.model.QuantumFluxRecord";
+    static final String TABLE_VIEW = "me.himanshusoni.quantumflux.model.generate.TableView";
+    static final String OPTION_PACKAGE_NAME = "quantumflux.packageName";
+
+    private final TreeMap<String, TypeElement> mTableClasses = new TreeMap<>();
+    private final TreeMap<String, TypeElement> mTableViewClasses = new TreeMap<>();
+    private final Set<String> mAdapterClasses = new HashSet<>();
+    private boolean isRegistryGenerated;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        //Domain classes extending QuantumFluxRecord or implementing TableView need not be annotated, so all types are inspected
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_PACKAGE_NAME);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        boolean isDomainClassFound = false;
+        for (Element element : roundEnv.getRootElements()) {
+            isDomainClassFound |= inspectElement(element);
+        }
+
+        if (isRegistryGenerated) {
+            if (isDomainClassFound) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Domain classes were generated after the QuantumFlux domain registry was written");
+            }
+        } else if (!isDomainClassFound || roundEnv.processingOver()) {
+            //Written in the first round without new domain classes, the files created in the last round are not compiled
+            writeRegistry();
+        }
+
+        return false;
+    }
+
+    private void writeRegistry() {
+        isRegistryGenerated = true;
+        try {
+            new DomainRegistryWriter(processingEnv).write(mTableClasses.values(), mTableViewClasses.values());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate the QuantumFlux domain registry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return True if the element or one of its nested classes is a domain class
+     */
+    private boolean inspectElement(Element element) {
+        if (element.getKind() != ElementKind.CLASS) return false;
+
+        TypeElement typeElement = (TypeElement) element;
+        String className = typeElement.getQualifiedName().toString();
+
+        boolean isTable = isValidQuantumFluxTable(typeElement);
+        boolean isTableView = isValidQuantumFluxTableView(typeElement);
+        boolean isRegistered = isInPackage(className);
+
+        if (isTable && isRegistered) mTableClasses.put(className, typeElement);
+        if (isTableView && isRegistered) mTableViewClasses.put(className, typeElement);
+        if (isTable || isTableView) writeModelAdapter(typeElement);
+
+        boolean isDomainClassFound = isTable || isTableView;
+        for (Element enclosedElement : typeElement.getEnclosedElements()) {
+            isDomainClassFound |= inspectElement(enclosedElement);
+        }
+        return isDomainClassFound;
+    }
+
+    /**
+     * Applies the same filter as the PACKAGE_NAME meta-data when scanning, if the package was passed as an option
+     */
+    private boolean isInPackage(String className) {
+        String packageName = processingEnv.getOptions().get(OPTION_PACKAGE_NAME);
+        return packageName == null || className.startsWith(packageName);
+    }
+
+    private void writeModelAdapter(TypeElement typeElement) {
+        ModelAdapterWriter adapterWriter = new ModelAdapterWriter(processingEnv);
+        if (!adapterWriter.canWrite(typeElement) || !mAdapterClasses.add(typeElement.getQualifiedName().toString()))
+            return;
+
+        try {
+            adapterWriter.write(typeElement);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate the model adapter: " + e.getMessage(), typeElement);
+        }
+    }
+
+    private boolean isValidQuantumFluxTable(TypeElement typeElement) {
+        if (typeElement.getModifiers().contains(Modifier.ABSTRACT)) return false;
+
+        boolean isSubClassOfQuantumFluxRecord = isSubTypeOf(typeElement, QUANTUM_FLUX_RECORD);
+        boolean isItselfQuantumFluxRecord = typeElement.getQualifiedName().contentEquals(QUANTUM_FLUX_RECORD);
+
+        return (isSubClassOfQuantumFluxRecord && !isItselfQuantumFluxRecord) || isAnnotationPresent(typeElement, TABLE_ANNOTATION);
+    }
+
+    private boolean isValidQuantumFluxTableView(TypeElement typeElement) {
+        if (typeElement.getModifiers().contains(Modifier.ABSTRACT)) return false;
+
+        return isSubTypeOf(typeElement, TABLE_VIEW);
+    }
+
+    private boolean isSubTypeOf(TypeElement typeElement, String superTypeName) {
+        TypeElement superType = processingEnv.getElementUtils().getTypeElement(superTypeName);
+        if (superType == null) return false;
+
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror erasedType = types.erasure(typeElement.asType());
+        TypeMirror erasedSuperType = types.erasure(superType.asType());
+
+        return types.isAssignable(erasedType, erasedSuperType);
+    }
+
+    static boolean isAnnotationPresent(Element element, String annotationName) {
+        return findAnnotation(element, annotationName) != null;
+    }
+
+    static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            TypeElement annotationElement = (TypeElement) annotationMirror.getAnnotationType().asElement();
+            if (annotationElement.getQualifiedName().contentEquals(annotationName)) return annotationMirror;
+        }
+        return null;
+    }
+}
@@ -1,6 +1,7 @@
 package me.himanshusoni.quantumflux;
 
 import android.app.Application;
+import android.content.ContentProvider;
 import android.content.ContentProviderClient;
 import android.content.ContentProviderOperation;
 import android.content.ContentProviderResult;
@@ -10,33 +11,58 @@ import android.content.Context;
 import android.content.OperationApplicationException;
 import android.database.Cursor;
 import android.net.Uri;
+import android.os.Bundle;
 import android.os.RemoteException;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import me.himanshusoni.quantumflux.model.generate.TableDetails;
 import me.himanshusoni.quantumflux.model.map.SqlColumnMapping;
 import me.himanshusoni.quantumflux.model.map.SqlColumnMappingFactory;
+import me.himanshusoni.quantumflux.model.query.DataFilterCriterion;
+import me.himanshusoni.quantumflux.model.query.QueryBuilder;
 import me.himanshusoni.quantumflux.model.query.Select;
+import me.himanshusoni.quantumflux.model.util.ConflictPolicy;
 import me.himanshusoni.quantumflux.model.util.ContentResolverValues;
 import me.himanshusoni.quantumflux.model.util.CursorIterator;
 import me.himanshusoni.quantumflux.model.util.ManifestHelper;
 import me.himanshusoni.quantumflux.model.util.ModelInflater;
+import me.himanshusoni.quantumflux.model.util.PrimaryKeyCache;
 import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
+import me.himanshusoni.quantumflux.model.util.RowChangeEvent;
+import me.himanshusoni.quantumflux.model.util.RowChangeListener;
 import me.himanshusoni.quantumflux.model.util.TableDetailsCache;
+import me.himanshusoni.quantumflux.provider.QuantumFluxContentProvider;
+import me.himanshusoni.quantumflux.provider.util.BulkWriteHelper;
 import me.himanshusoni.quantumflux.provider.util.UriMatcherHelper;
 
 /**
  * Created by Himanshu on 8/4/2015.
  */
 public class QuantumFlux {
+    /**
+     * The amount of keys queried at a time by {@link #findAllByPrimaryKeys(Class, Collection)}, well below the sqlite limit of 999 variables
+     */
+    private static final int PRIMARY_KEY_BATCH_SIZE = 500;
+
     private static Context mApplicationContext;
     private static TableDetailsCache mTableDetailsCache;
     private static SqlColumnMappingFactory mMappingFactory;
     private static QuantumFluxDatabase mDatabase;
+    private static QuantumFluxContentProvider mLocalContentProvider;
+    private static boolean isLocalContentProviderResolved;
+    //Null until set, direct execution is then only used for the QuantumFluxContentProvider itself, not for subclasses
+    private static volatile Boolean isDirectExecutionEnabled;
+    private static volatile int mInListTableThreshold = 500;
+    private static volatile int mBatchYieldInterval = 0;
+    private static final Map<Class<?>, PrimaryKeyCache> mPrimaryKeyCaches = new HashMap<>();
+    private static final Map<Class<?>, List<RowChangeListener>> mRowChangeListeners = new HashMap<>();
 
     /**
      * This is an necessary initialize method that will be used to set the application context
@@ -88,6 +114,222 @@ public class QuantumFlux {
         return mDatabase;
     }
 
+    /**
+     * Finds the QuantumFlux content provider if it runs in the current process, in which case it can be
+     * called directly instead of going through the content resolver.
+     *
+     * @return The provider instance, or null if the provider runs in another process
+     */
+    public static synchronized QuantumFluxContentProvider getLocalContentProvider() {
+        if (!isLocalContentProviderResolved) {
+            Context context = getApplicationContext();
+            ContentProviderClient providerClient = context.getContentResolver().acquireContentProviderClient(ManifestHelper.getAuthority(context));
+
+            if (providerClient != null) {
+                ContentProvider contentProvider = providerClient.getLocalContentProvider();
+                if (contentProvider instanceof QuantumFluxContentProvider) mLocalContentProvider = (QuantumFluxContentProvider) contentProvider;
+                providerClient.release();
+            }
+            isLocalContentProviderResolved = true;
+        }
+        return mLocalContentProvider;
+    }
+
+    /**
+     * Direct execution runs the queries and changes straight against the database when the content provider is in the
+     * same process, skipping the content resolver and the uri matching of the provider.  The same change notifications
+     * are sent in both modes.
+     * <br>
+     * Direct execution calls the base provider implementation, skipping any query, insert, update or delete method a
+     * subclass of the provider overrides.  So by default it is only used when the provider is the
+     * {@link QuantumFluxContentProvider} itself.  Enabling it explicitly also uses it for subclasses, whose overrides are then
+     * only called by other processes.
+     *
+     * @param enabled True to enable direct execution for any provider, false to always go through the content resolver
+     */
+    public static void setDirectExecutionEnabled(boolean enabled) {
+        isDirectExecutionEnabled = enabled;
+    }
+
+    /**
+     * @return True if direct execution was enabled, or was not set and the provider is not a subclass
+     */
+    public static boolean isDirectExecutionEnabled() {
+        if (isDirectExecutionEnabled != null) return isDirectExecutionEnabled;
+
+        QuantumFluxContentProvider localContentProvider = getLocalContentProvider();
+        return localContentProvider == null || isDirectExecutionAllowed(localContentProvider);
+    }
+
+    private static boolean isDirectExecutionAllowed(ContentProvider contentProvider) {
+        if (isDirectExecutionEnabled != null) return isDirectExecutionEnabled;
+
+        return contentProvider.getClass() == QuantumFluxContentProvider.class;
+    }
+
+    /**
+     * IN and NOT IN criteria with more values than the threshold are not expanded into an argument per value.  Instead the
+     * values are loaded into a temp table by the content provider, and the criterion selects from that table.  This keeps
+     * the query below the sqlite limit of 999 arguments, and is faster to parse and plan for long lists.
+     * <br>
+     * The temp tables only exist on the writable connection, so these statements run in a transaction on that connection,
+     * waiting for the writes of other threads, and the results of a query are copied into memory in full instead of being
+     * read a window at a time.  Selects with such a list should only return a moderate amount of rows.
+     *
+     * @param threshold The maximum amount of values that are still expanded into arguments, 500 by default
+     */
+    public static void setInListTableThreshold(int threshold) {
+        mInListTableThreshold = threshold;
+    }
+
+    public static int getInListTableThreshold() {
+        return mInListTableThreshold;
+    }
+
+    /**
+     * Batches applied by the content provider run in a single transaction, see {@link QuantumFluxContentProvider#applyBatch(ArrayList)}.
+     * Every interval operations the transaction is yielded to other writers waiting for the database, in addition to the
+     * operations built with {@link ContentProviderOperation.Builder#withYieldAllowed(boolean)}.  This applies to the process
+     * hosting the content provider.
+     *
+     * @param interval The amount of operations between yields, 0 by default to only yield where the operations allow it
+     */
+    public static void setBatchYieldInterval(int interval) {
+        mBatchYieldInterval = interval;
+    }
+
+    public static int getBatchYieldInterval() {
+        return mBatchYieldInterval;
+    }
+
+    /**
+     * @return The local content provider if direct execution is enabled and possible, null otherwise
+     */
+    public static QuantumFluxContentProvider getDirectContentProvider() {
+        QuantumFluxContentProvider localContentProvider = getLocalContentProvider();
+        if (localContentProvider == null || !isDirectExecutionAllowed(localContentProvider)) return null;
+
+        return localContentProvider;
+    }
+
+    /**
+     * @param providerClient The provider client
+     * @return The QuantumFlux content provider behind the client to execute on directly, or null if the provider runs in
+     * another process or direct execution is not used for it, see {@link #setDirectExecutionEnabled(boolean)}
+     */
+    public static QuantumFluxContentProvider findLocalContentProvider(ContentProviderClient providerClient) {
+        ContentProvider contentProvider = providerClient.getLocalContentProvider();
+
+        if (contentProvider instanceof QuantumFluxContentProvider && isDirectExecutionAllowed(contentProvider))
+            return (QuantumFluxContentProvider) contentProvider;
+        else return null;
+    }
+
+    /**
+     * Sets the size of the primary key cache for the data model, overriding the {@link me.himanshusoni.quantumflux.model.annotation.Table#cacheSize()}.
+     * Cached objects are returned by {@link #findByPrimaryKey(Class, Object)} without querying the database, and are invalidated
+     * whenever the content provider notifies changes to the table.  The cache is only used when the content provider runs in
+     * the current process, since changes made in other processes can not be observed.
+     * <br>
+     * Cached objects are shared between callers, and changes made to the database without going through the content provider
+     * are not seen by the cache.
+     *
+     * @param dataModel The data model class
+     * @param cacheSize The amount of objects to cache, 0 to disable the cache
+     */
+    public static void setPrimaryKeyCacheSize(Class<?> dataModel, int cacheSize) {
+        synchronized (mPrimaryKeyCaches) {
+            mPrimaryKeyCaches.put(dataModel, cacheSize > 0 ? new PrimaryKeyCache(cacheSize) : null);
+        }
+    }
+
+    /**
+     * @param dataModel The data model class
+     * @return The primary key cache of the data model, containing the hit, miss and eviction statistics, or null if the data model is not cached
+     */
+    public static PrimaryKeyCache getPrimaryKeyCache(Class<?> dataModel) {
+        synchronized (mPrimaryKeyCaches) {
+            if (!mPrimaryKeyCaches.containsKey(dataModel)) {
+                int cacheSize = findTableDetails(dataModel).getCacheSize();
+                mPrimaryKeyCaches.put(dataModel, cacheSize > 0 ? new PrimaryKeyCache(cacheSize) : null);
+            }
+            return mPrimaryKeyCaches.get(dataModel);
+        }
+    }
+
+    /**
+     * Invalidates the primary key cache of the data model, called by the content provider when it notifies changes
+     *
+     * @param dataModel The data model class
+     * @param itemId    The primary key of the changed row, or null to invalidate the entire cache
+     */
+    public static void invalidatePrimaryKeyCache(Class<?> dataModel, String itemId) {
+        PrimaryKeyCache primaryKeyCache;
+        synchronized (mPrimaryKeyCaches) {
+            primaryKeyCache = mPrimaryKeyCaches.get(dataModel);
+        }
+        if (primaryKeyCache == null) return;
+
+        if (itemId == null) primaryKeyCache.invalidateAll();
+        else primaryKeyCache.invalidate(itemId);
+    }
+
+    /**
+     * Registers a listener for the rows of the data model changed by the content provider, with the primary keys of the
+     * changed rows.  Only changes made by the content provider running in this process are published.
+     *
+     * @param dataModel The data model class
+     * @param listener  The listener
+     */
+    public static void registerRowChangeListener(Class<?> dataModel, RowChangeListener listener) {
+        synchronized (mRowChangeListeners) {
+            List<RowChangeListener> listeners = mRowChangeListeners.get(dataModel);
+            //The list is replaced on every change, so it can be iterated without holding the lock
+            listeners = listeners == null ? new ArrayList<RowChangeListener>() : new ArrayList<>(listeners);
+            listeners.add(listener);
+            mRowChangeListeners.put(dataModel, listeners);
+        }
+    }
+
+    public static void unregisterRowChangeListener(Class<?> dataModel, RowChangeListener listener) {
+        synchronized (mRowChangeListeners) {
+            List<RowChangeListener> listeners = mRowChangeListeners.get(dataModel);
+            if (listeners == null) return;
+
+            listeners = new ArrayList<>(listeners);
+            listeners.remove(listener);
+            if (listeners.isEmpty()) mRowChangeListeners.remove(dataModel);
+            else mRowChangeListeners.put(dataModel, listeners);
+        }
+    }
+
+    /**
+     * @param dataModel The data model class
+     * @return True if any listener is registered for the data model, the content provider only collects the changed keys if there is
+     */
+    public static boolean hasRowChangeListeners(Class<?> dataModel) {
+        synchronized (mRowChangeListeners) {
+            return mRowChangeListeners.containsKey(dataModel);
+        }
+    }
+
+    /**
+     * Publishes the changed rows to the listeners of the table, called by the content provider after committing a write
+     *
+     * @param event The changed rows
+     */
+    public static void publishRowChanges(RowChangeEvent event) {
+        List<RowChangeListener> listeners;
+        synchronized (mRowChangeListeners) {
+            listeners = mRowChangeListeners.get(event.getTableClass());
+        }
+        if (listeners == null || event.isEmpty()) return;
+
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onRowsChanged(event);
+        }
+    }
+
     /**
      * Gets the initialized application context that can be used to perform querying.
      *
@@ -107,22 +349,151 @@ public class QuantumFlux {
     public static <T> Iterator<T> findAll(Class<T> dataModel) {
         TableDetails tableDetails = findTableDetails(dataModel);
         Uri itemUri = UriMatcherHelper.generateItemUriBuilder(tableDetails).build();
+
+        QuantumFluxContentProvider directContentProvider = getDirectContentProvider();
+        if (directContentProvider != null) {
+            Cursor cursor = directContentProvider.query(tableDetails, null, null, null, null, null, itemUri);
+            return new CursorIterator<T>(tableDetails, cursor);
+        }
+
         ContentResolver contentResolver = mApplicationContext.getContentResolver();
         Cursor cursor = contentResolver.query(itemUri, null, null, null, null);
 
         return new CursorIterator<T>(tableDetails, cursor);
     }
 
+    /**
+     * Streams all of the objects of the data model in chunks, only keeping a single chunk in memory and no cursor open
+     * while iterating, see {@link Select#queryAsChunkedIterator(int)}.
+     *
+     * @param dataModel The data model class
+     * @param chunkSize The amount of objects to fetch at a time
+     * @return The iterator over all of the objects
+     */
+    public static <T> Iterator<T> findAll(Class<T> dataModel, int chunkSize) {
+        return Select.from(dataModel).queryAsChunkedIterator(chunkSize);
+    }
+
+    @SuppressWarnings("unchecked")
     public static <T> T findByPrimaryKey(Class<T> dataModel, Object key) {
         TableDetails tableDetails = findTableDetails(dataModel);
         TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
         Object columnValue = primaryKeyColumn.getColumnTypeMapping().toSqlType(key);
-        Uri itemUri = UriMatcherHelper.generateItemUriBuilder(tableDetails, String.valueOf(columnValue)).build();
+        String itemId = String.valueOf(columnValue);
+
+        PrimaryKeyCache primaryKeyCache = getLocalContentProvider() != null ? getPrimaryKeyCache(dataModel) : null;
+        if (primaryKeyCache == null) return findSingleItem(tableDetails, itemId);
+
+        T item = (T) primaryKeyCache.get(itemId);
+        if (item == null) {
+            long generation = primaryKeyCache.getGeneration();
+            item = findSingleItem(tableDetails, itemId);
+            primaryKeyCache.put(itemId, item, generation);
+        }
+        return item;
+    }
+
+    /**
+     * Finds the objects for all of the keys, in the order of the keys, see {@link #findAllByPrimaryKeys(Class, Collection, boolean, Collection)}
+     *
+     * @param dataModel The data model class
+     * @param keys      The primary keys
+     * @return The objects found, keys without a row are left out
+     */
+    public static <T> List<T> findAllByPrimaryKeys(Class<T> dataModel, Collection<?> keys) {
+        return findAllByPrimaryKeys(dataModel, keys, true, null);
+    }
+
+    /**
+     * Finds the objects for all of the keys using an IN query per batch of keys, instead of a query per key.  The keys are
+     * converted using the column mapping of the primary key, the same way {@link #findByPrimaryKey(Class, Object)} does.
+     *
+     * @param dataModel     The data model class
+     * @param keys          The primary keys, null keys are ignored
+     * @param preserveOrder True to return the objects in the order of the keys, with an object for every occurrence of its key.
+     *                      False to return every object once, in the order the database returns them.
+     * @param missingKeys   If not null, the keys without a row are added to this collection
+     * @return The objects found
+     */
+    public static <T> List<T> findAllByPrimaryKeys(Class<T> dataModel, Collection<?> keys, boolean preserveOrder, Collection<Object> missingKeys) {
+        TableDetails tableDetails = findTableDetails(dataModel);
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        if (primaryKeyColumn == null) {
+            throw new QuantumFluxException("No primary key found on " + dataModel.getSimpleName());
+        }
+        SqlColumnMapping columnMapping = primaryKeyColumn.getColumnTypeMapping();
+
+        //The keys by the item id, which is the string value of the sql type, just like in the item uri
+        Map<String, Object> keysByItemId = new LinkedHashMap<>();
+        for (Object key : keys) {
+            if (key != null) keysByItemId.put(String.valueOf(columnMapping.toSqlType(key)), key);
+        }
+
+        Map<String, T> itemsByItemId = findAllByItemIds(dataModel, primaryKeyColumn, keysByItemId.values());
+
+        if (missingKeys != null) {
+            for (Map.Entry<String, Object> key : keysByItemId.entrySet()) {
+                if (!itemsByItemId.containsKey(key.getKey())) missingKeys.add(key.getValue());
+            }
+        }
+
+        if (!preserveOrder) return new ArrayList<>(itemsByItemId.values());
+
+        List<T> items = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            if (key == null) continue;
+
+            T item = itemsByItemId.get(String.valueOf(columnMapping.toSqlType(key)));
+            if (item != null) items.add(item);
+        }
+        return items;
+    }
+
+    private static <T> Map<String, T> findAllByItemIds(Class<T> dataModel, TableDetails.ColumnDetails primaryKeyColumn, Collection<Object> keys) {
+        SqlColumnMapping columnMapping = primaryKeyColumn.getColumnTypeMapping();
+        List<Object> sqlKeys = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            sqlKeys.add(columnMapping.toSqlType(key));
+        }
+
+        Map<String, T> itemsByItemId = new LinkedHashMap<>(sqlKeys.size());
+        try {
+            for (int start = 0; start < sqlKeys.size(); start += PRIMARY_KEY_BATCH_SIZE) {
+                List<Object> batch = sqlKeys.subList(start, Math.min(start + PRIMARY_KEY_BATCH_SIZE, sqlKeys.size()));
+                List<T> items = Select.from(dataModel)
+                        .where(new DataFilterCriterion(primaryKeyColumn.getColumnName(), DataFilterCriterion.DataFilterOperator.IN, batch))
+                        .queryAsList();
+
+                for (T item : items) {
+                    itemsByItemId.put(String.valueOf(columnMapping.toSqlType(primaryKeyColumn.getFieldValue(item))), item);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new QuantumFluxException("Could not access required field " + primaryKeyColumn.getColumnField().getName(), e);
+        }
+        return itemsByItemId;
+    }
+
+    private static <T> T findSingleItem(TableDetails tableDetails, String itemId) {
+        QuantumFluxContentProvider directContentProvider = getDirectContentProvider();
+        if (directContentProvider != null) {
+            return findSingleItem(directContentProvider, tableDetails, itemId);
+        }
+
+        Uri itemUri = UriMatcherHelper.generateItemUriBuilder(tableDetails, itemId).build();
 
         return findSingleItem(itemUri, tableDetails);
     }
 
 
+    /**
+     * Inserts all of the objects in a single transaction.  When the content provider runs in the current process, the
+     * generated row ids are assigned to the auto increment primary keys of the objects.  Through the content resolver only
+     * the amount of inserted rows is known, so the keys are left as they are.
+     *
+     * @param dataModelObjects The objects to insert, all of the same type
+     * @return The amount of rows inserted
+     */
     public static <T> int insertAll(List<T> dataModelObjects) {
         if (dataModelObjects == null || dataModelObjects.isEmpty())
             return 0;
@@ -130,15 +501,41 @@ public class QuantumFlux {
         TableDetails tableDetails = findTableDetails(dataModelObjects.get(0).getClass());
         Uri insertUri = UriMatcherHelper.generateItemUriBuilder(tableDetails).build();
 
+        QuantumFluxContentProvider directContentProvider = getDirectContentProvider();
+        if (directContentProvider != null) return directContentProvider.bulkInsert(insertUri, dataModelObjects);
+
         ContentValues[] values = new ContentValues[dataModelObjects.size()];
         for (int i = 0; i < dataModelObjects.size(); i++) {
-            values[i] = ModelInflater.deflate(tableDetails, dataModelObjects.get(i));
+            values[i] = ModelInflater.deflateForInsert(tableDetails, dataModelObjects.get(i));
         }
 
         ContentResolver contentResolver = mApplicationContext.getContentResolver();
         return contentResolver.bulkInsert(insertUri, values);
     }
 
+    /**
+     * Inserts all of the objects in a single transaction, resolving conflicts with existing rows using the conflict policy,
+     * instead of reading every row first to decide between an insert and an update.
+     *
+     * @param dataModelObjects The objects to upsert, all of the same type
+     * @param conflictPolicy   The conflict policy
+     * @return The amount of rows inserted or updated
+     */
+    public static <T> int upsertAll(List<T> dataModelObjects, ConflictPolicy conflictPolicy) {
+        if (dataModelObjects == null || dataModelObjects.isEmpty())
+            return 0;
+
+        TableDetails tableDetails = findTableDetails(dataModelObjects.get(0).getClass());
+        Uri upsertUri = conflictPolicy.appendTo(UriMatcherHelper.generateItemUriBuilder(tableDetails)).build();
+
+        QuantumFluxContentProvider directContentProvider = getDirectContentProvider();
+        if (directContentProvider != null) return directContentProvider.bulkInsert(upsertUri, dataModelObjects);
+
+        ContentValues[] values = ModelInflater.deflateAllForUpsert(tableDetails, dataModelObjects.toArray());
+        ContentResolver contentResolver = mApplicationContext.getContentResolver();
+        return contentResolver.bulkInsert(upsertUri, values);
+    }
+
     public static <T> int insertAll(ContentProviderClient providerClient, List<T> dataModelObjects) throws RemoteException {
         if (dataModelObjects == null || dataModelObjects.isEmpty())
             return 0;
@@ -146,30 +543,55 @@ public class QuantumFlux {
         TableDetails tableDetails = findTableDetails(dataModelObjects.get(0).getClass());
         Uri insertUri = UriMatcherHelper.generateItemUriBuilder(tableDetails).build();
 
+        QuantumFluxContentProvider localContentProvider = findLocalContentProvider(providerClient);
+        if (localContentProvider != null) return localContentProvider.bulkInsert(insertUri, dataModelObjects);
+
         ContentValues[] values = new ContentValues[dataModelObjects.size()];
         for (int i = 0; i < dataModelObjects.size(); i++) {
-            values[i] = ModelInflater.deflate(tableDetails, dataModelObjects.get(i));
+            values[i] = ModelInflater.deflateForInsert(tableDetails, dataModelObjects.get(i));
         }
 
         return providerClient.bulkInsert(insertUri, values);
     }
 
 
+    /**
+     * Inserts the object, and assigns the generated row id to its auto increment primary key
+     *
+     * @param dataModelObject The object to insert
+     */
     public static <T> void insert(T dataModelObject) {
         TableDetails tableDetails = findTableDetails(dataModelObject.getClass());
-        ContentValues contentValues = ModelInflater.deflate(tableDetails, dataModelObject);
+        ContentValues contentValues = ModelInflater.deflateForInsert(tableDetails, dataModelObject);
         Uri insertUri = UriMatcherHelper.generateItemUriBuilder(tableDetails).build();
 
+        QuantumFluxContentProvider directContentProvider = getDirectContentProvider();
+        if (directContentProvider != null) {
+            long insertId = directContentProvider.insert(tableDetails, contentValues, insertUri, true);
+            ModelInflater.setGeneratedKey(tableDetails, dataModelObject, insertId);
+            return;
+        }
+
         ContentResolver contentResolver = mApplicationContext.getContentResolver();
-        contentResolver.insert(insertUri, contentValues);
+        Uri itemUri = contentResolver.insert(insertUri, contentValues);
+        ModelInflater.setGeneratedKey(tableDetails, dataModelObject, itemUri);
     }
 
 
     public static <T> T insertAndReturn(T dataModelObject) {
         TableDetails tableDetails = findTableDetails(dataModelObject.getClass());
-        ContentValues contentValues = ModelInflater.deflate(tableDetails, dataModelObject);
+        ContentValues contentValues = ModelInflater.deflateForInsert(tableDetails, dataModelObject);
         Uri insertUri = UriMatcherHelper.generateItemUriBuilder(tableDetails).build();
 
+        QuantumFluxContentProvider directContentProvider = getDirectContentProvider();
+        if (directContentProvider != null) {
+            long insertId = directContentProvider.insert(tableDetails, contentValues, insertUri, true);
+            TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+            String itemId = primaryKeyColumn.isAutoIncrement() ? String.valueOf(insertId) : contentValues.getAsString(primaryKeyColumn.getColumnName());
+
+            return findSingleItem(directContentProvider, tableDetails, itemId);
+        }
+
         ContentResolver contentResolver = mApplicationContext.getContentResolver();
         Uri itemUri = contentResolver.insert(insertUri, contentValues);
 
@@ -179,7 +601,7 @@ public class QuantumFlux {
 
     public static <T> ContentProviderOperation prepareInsert(T dataModelObject) {
         TableDetails tableDetails = findTableDetails(dataModelObject.getClass());
-        ContentValues contentValues = ModelInflater.deflate(tableDetails, dataModelObject);
+        ContentValues contentValues = ModelInflater.deflateForInsert(tableDetails, dataModelObject);
         Uri insertUri = UriMatcherHelper.generateItemUriBuilder(tableDetails).build();
 
         return ContentProviderOperation.newInsert(insertUri)
@@ -195,8 +617,7 @@ public class QuantumFlux {
         Object columnValue = ModelInflater.deflateColumn(tableDetails, tableDetails.findPrimaryKeyColumn(), dataModelObject);
         Uri itemUri = UriMatcherHelper.generateItemUriBuilder(tableDetails, String.valueOf(columnValue)).build();
 
-        ContentResolver contentResolver = mApplicationContext.getContentResolver();
-        contentResolver.update(itemUri, contentValues, null, null);
+        update(tableDetails, itemUri, String.valueOf(columnValue), contentValues);
     }
 
     public static <T> void updateColumns(T dataModelObject, String... columns) {
@@ -219,8 +640,7 @@ public class QuantumFlux {
             }
         }
 
-        ContentResolver contentResolver = mApplicationContext.getContentResolver();
-        contentResolver.update(itemUri, contentValues, null, null);
+        update(tableDetails, itemUri, String.valueOf(columnValue), contentValues);
     }
 
     public static <T> void updateColumnsExcluding(T dataModelObject, String... columnsToExclude) {
@@ -233,11 +653,53 @@ public class QuantumFlux {
             contentValues.remove(columnToExclude);
         }
 
-        ContentResolver contentResolver = mApplicationContext.getContentResolver();
-        contentResolver.update(itemUri, contentValues, null, null);
+        update(tableDetails, itemUri, String.valueOf(columnValue), contentValues);
     }
 
 
+    /**
+     * Updates all of the objects in a single transaction, matched on their primary key, using one compiled update statement.
+     * A single change notification is sent for the table, instead of one for every object.
+     *
+     * @param dataModelObjects The objects to update, all of the same type
+     * @param columns          The columns to update for all of the objects, the same as {@link #updateColumns(Object, String...)},
+     *                         none to update all of the columns except the primary key
+     * @return The amount of rows updated, objects without a row are not counted
+     */
+    public static <T> int updateAll(List<T> dataModelObjects, String... columns) {
+        if (dataModelObjects == null || dataModelObjects.isEmpty())
+            return 0;
+
+        TableDetails tableDetails = findTableDetails(dataModelObjects.get(0).getClass());
+        Uri updateUri = UriMatcherHelper.generateItemUriBuilder(tableDetails).build();
+
+        QuantumFluxContentProvider directContentProvider = getDirectContentProvider();
+        if (directContentProvider != null) return directContentProvider.updateAll(updateUri, dataModelObjects, columns);
+
+        //The rows are sent with their primary key, which deflating leaves out for auto increment keys
+        List<TableDetails.ColumnDetails> updateColumns = BulkWriteHelper.findUpdateColumns(tableDetails, columns);
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        ContentValues[] values = new ContentValues[dataModelObjects.size()];
+
+        try {
+            for (int i = 0; i < values.length; i++) {
+                Object dataModelObject = dataModelObjects.get(i);
+                values[i] = new ContentValues(updateColumns.size() + 1);
+
+                for (TableDetails.ColumnDetails column : updateColumns) {
+                    column.setContentValue(values[i], dataModelObject);
+                }
+                primaryKeyColumn.setContentValue(values[i], dataModelObject);
+            }
+        } catch (IllegalAccessException e) {
+            throw new QuantumFluxException("Unable to access protected field, change the access level: " + tableDetails.getTableClass().getSimpleName(), e);
+        }
+
+        Bundle extras = new Bundle();
+        extras.putParcelableArray(QuantumFluxContentProvider.EXTRA_VALUES, values);
+        return call(updateUri, QuantumFluxContentProvider.METHOD_UPDATE_ALL, extras);
+    }
+
     public static <T> ContentProviderOperation prepareUpdate(T dataModelObject) {
         TableDetails tableDetails = findTableDetails(dataModelObject.getClass());
         ContentValues contentValues = ModelInflater.deflate(tableDetails, dataModelObject);
@@ -255,6 +717,13 @@ public class QuantumFlux {
         Object columnValue = ModelInflater.deflateColumn(tableDetails, tableDetails.findPrimaryKeyColumn(), dataModelObject);
         Uri itemUri = UriMatcherHelper.generateItemUriBuilder(tableDetails, String.valueOf(columnValue)).build();
 
+        QuantumFluxContentProvider directContentProvider = getDirectContentProvider();
+        if (directContentProvider != null) {
+            String where = tableDetails.findPrimaryKeyColumn().getColumnName() + " = ?";
+            directContentProvider.delete(tableDetails, where, new String[]{String.valueOf(columnValue)}, itemUri, true);
+            return;
+        }
+
         ContentResolver contentResolver = mApplicationContext.getContentResolver();
         contentResolver.delete(itemUri, null, null);
     }
@@ -262,6 +731,13 @@ public class QuantumFlux {
     public static <T> void delete(Select<T> select) {
         ContentResolverValues contentResolverValues = select.asContentResolverValue();
 
+        QuantumFluxContentProvider directContentProvider = getDirectContentProvider();
+        if (directContentProvider != null) {
+            QueryBuilder where = select.buildWhereClause(getColumnMappingFactory());
+            directContentProvider.delete(contentResolverValues.getTableDetails(), where.getQueryString(), where.getTypedQueryArgs(), contentResolverValues.getItemUri(), true);
+            return;
+        }
+
         ContentResolver contentResolver = mApplicationContext.getContentResolver();
         contentResolver.delete(contentResolverValues.getItemUri(), contentResolverValues.getWhere(), contentResolverValues.getWhereArgs());
     }
@@ -288,11 +764,58 @@ public class QuantumFlux {
         TableDetails tableDetails = findTableDetails(dataModel);
         Uri itemUri = UriMatcherHelper.generateItemUriBuilder(tableDetails).build();
 
+        QuantumFluxContentProvider directContentProvider = getDirectContentProvider();
+        if (directContentProvider != null) {
+            directContentProvider.delete(tableDetails, null, null, itemUri, true);
+            return;
+        }
+
         ContentResolver contentResolver = getApplicationContext().getContentResolver();
         contentResolver.delete(itemUri, null, null);
     }
 
 
+    /**
+     * Deletes the rows with the primary keys in a single transaction, using one compiled delete statement, and sends a single
+     * change notification for the table.
+     *
+     * @param dataModel The data model class
+     * @param keys      The primary key values
+     * @return The amount of rows deleted
+     */
+    public static <T> int deleteAll(Class<T> dataModel, Collection<?> keys) {
+        if (keys == null || keys.isEmpty())
+            return 0;
+
+        TableDetails tableDetails = findTableDetails(dataModel);
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        if (primaryKeyColumn == null) {
+            throw new QuantumFluxException("No primary key found on " + dataModel.getSimpleName());
+        }
+
+        SqlColumnMapping columnMapping = primaryKeyColumn.getColumnTypeMapping();
+        Uri deleteUri = UriMatcherHelper.generateItemUriBuilder(tableDetails).build();
+
+        Object[] sqlKeys = new Object[keys.size()];
+        int index = 0;
+        for (Object key : keys) {
+            sqlKeys[index++] = columnMapping.toSqlType(key);
+        }
+
+        QuantumFluxContentProvider directContentProvider = getDirectContentProvider();
+        if (directContentProvider != null) return directContentProvider.deleteAll(deleteUri, sqlKeys);
+
+        //The keys are sent the same way as in item uri's, the column affinity converts them back
+        String[] itemIds = new String[sqlKeys.length];
+        for (int i = 0; i < sqlKeys.length; i++) {
+            itemIds[i] = String.valueOf(sqlKeys[i]);
+        }
+
+        Bundle extras = new Bundle();
+        extras.putStringArray(QuantumFluxContentProvider.EXTRA_KEYS, itemIds);
+        return call(deleteUri, QuantumFluxContentProvider.METHOD_DELETE_ALL, extras);
+    }
+
     public static ContentProviderResult[] applyPreparedOperations(Collection<ContentProviderOperation> operations) throws RemoteException, OperationApplicationException {
         return getApplicationContext().getContentResolver()
                 .applyBatch(ManifestHelper.getAuthority(getApplicationContext()), new ArrayList<>(operations));
@@ -304,6 +827,49 @@ public class QuantumFlux {
         return UriMatcherHelper.generateItemUriBuilder(tableDetails).build();
     }
 
+    /**
+     * Calls a bulk method of the content provider, see {@link QuantumFluxContentProvider#call(String, String, Bundle)}
+     *
+     * @return The amount of changed rows
+     */
+    private static int call(Uri tableUri, String method, Bundle extras) {
+        ContentResolver contentResolver = mApplicationContext.getContentResolver();
+        Bundle result = contentResolver.call(tableUri, method, tableUri.toString(), extras);
+        if (result == null) {
+            throw new QuantumFluxException("The content provider of " + tableUri + " does not support " + method);
+        }
+        return result.getInt(QuantumFluxContentProvider.EXTRA_COUNT);
+    }
+
+    private static void update(TableDetails tableDetails, Uri itemUri, String itemId, ContentValues contentValues) {
+        QuantumFluxContentProvider directContentProvider = getDirectContentProvider();
+        if (directContentProvider != null) {
+            String where = tableDetails.findPrimaryKeyColumn().getColumnName() + " = ?";
+            directContentProvider.update(tableDetails, contentValues, where, new String[]{itemId}, itemUri, true);
+            return;
+        }
+
+        ContentResolver contentResolver = mApplicationContext.getContentResolver();
+        contentResolver.update(itemUri, contentValues, null, null);
+    }
+
+    private static <T> T findSingleItem(QuantumFluxContentProvider directContentProvider, TableDetails tableDetails, String itemId) {
+        String where = tableDetails.findPrimaryKeyColumn().getColumnName() + " = ?";
+
+        Cursor cursor = null;
+        try {
+            cursor = directContentProvider.query(tableDetails, tableDetails.getColumnNames(), where, new String[]{itemId}, null, null, null);
+
+            if (cursor.moveToFirst()) {
+                return ModelInflater.inflate(cursor, tableDetails);
+            } else {
+                throw new QuantumFluxException("No row found with the key " + itemId);
+            }
+        } finally {
+            if (cursor != null) cursor.close();
+        }
+    }
+
     protected static <T> T findSingleItem(Uri itemUri, TableDetails tableDetails) {
         ContentResolver contentResolver = mApplicationContext.getContentResolver();
 
@@ -6,7 +6,10 @@ import android.content.Context;
 import android.net.Uri;
 import android.os.RemoteException;
 
+import java.util.Arrays;
+
 import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.model.util.ConflictPolicy;
 import me.himanshusoni.quantumflux.model.util.ModelInflater;
 import me.himanshusoni.quantumflux.provider.QuantumFluxContentProvider;
 import me.himanshusoni.quantumflux.provider.util.UriMatcherHelper;
@@ -21,26 +24,57 @@ public class QuantumFluxSyncHelper {
         if (dataModelObjects.length == 1) {
             T modelObject = dataModelObjects[0];
             TableDetails tableDetails = QuantumFlux.findTableDetails(modelObject.getClass());
-            ContentValues contentValues = ModelInflater.deflate(tableDetails, modelObject);
+            ContentValues contentValues = ModelInflater.deflateForInsert(tableDetails, modelObject);
             Uri insertUri = UriMatcherHelper.generateItemUriBuilder(tableDetails)
                     .appendQueryParameter(QuantumFluxContentProvider.PARAMETER_SYNC, "false").build();
 
-            provider.insert(insertUri, contentValues);
+            Uri itemUri = provider.insert(insertUri, contentValues);
+            ModelInflater.setGeneratedKey(tableDetails, modelObject, itemUri);
         } else {
             TableDetails tableDetails = QuantumFlux.findTableDetails(dataModelObjects[0].getClass());
-            ContentValues[] insertObjects = ModelInflater.deflateAll(tableDetails, dataModelObjects);
 
             if (tableDetails != null) {
                 Uri insertUri = UriMatcherHelper.generateItemUriBuilder(tableDetails)
                         .appendQueryParameter(QuantumFluxContentProvider.PARAMETER_SYNC, "false").build();
-                provider.bulkInsert(insertUri, insertObjects);
+
+                QuantumFluxContentProvider localContentProvider = QuantumFlux.findLocalContentProvider(provider);
+                if (localContentProvider != null) {
+                    localContentProvider.bulkInsert(insertUri, Arrays.asList(dataModelObjects));
+                } else {
+                    ContentValues[] insertObjects = ModelInflater.deflateAllForInsert(tableDetails, dataModelObjects);
+                    provider.bulkInsert(insertUri, insertObjects);
+                }
             }
         }
     }
 
+    /**
+     * Upserts the objects in a single transaction without notifying the sync adapter, see {@link QuantumFlux#upsertAll(java.util.List, ConflictPolicy)}
+     *
+     * @param provider         The provider client
+     * @param conflictPolicy   The conflict policy
+     * @param dataModelObjects The objects to upsert, all of the same type
+     * @return The amount of rows inserted or updated
+     */
+    @SafeVarargs
+    public static <T> int upsert(ContentProviderClient provider, ConflictPolicy conflictPolicy, T... dataModelObjects) throws RemoteException {
+        if (dataModelObjects.length == 0) return 0;
+
+        TableDetails tableDetails = QuantumFlux.findTableDetails(dataModelObjects[0].getClass());
+        Uri upsertUri = conflictPolicy.appendTo(UriMatcherHelper.generateItemUriBuilder(tableDetails))
+                .appendQueryParameter(QuantumFluxContentProvider.PARAMETER_SYNC, "false").build();
+
+        QuantumFluxContentProvider localContentProvider = QuantumFlux.findLocalContentProvider(provider);
+        if (localContentProvider != null) {
+            return localContentProvider.bulkInsert(upsertUri, Arrays.asList(dataModelObjects));
+        } else {
+            return provider.bulkInsert(upsertUri, ModelInflater.deflateAllForUpsert(tableDetails, dataModelObjects));
+        }
+    }
+
     public static <T> T insertAndReturn(ContentProviderClient provider, T dataModelObject) throws RemoteException {
         TableDetails tableDetails = QuantumFlux.findTableDetails(dataModelObject.getClass());
-        ContentValues contentValues = ModelInflater.deflate(tableDetails, dataModelObject);
+        ContentValues contentValues = ModelInflater.deflateForInsert(tableDetails, dataModelObject);
         Uri insertUri = UriMatcherHelper.generateItemUriBuilder(tableDetails)
                 .appendQueryParameter(QuantumFluxContentProvider.PARAMETER_SYNC, "false").build();
 
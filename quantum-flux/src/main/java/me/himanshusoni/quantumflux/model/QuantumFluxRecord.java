@@ -48,7 +48,7 @@ public abstract class QuantumFluxRecord<T> extends QuantumFluxBaseRecord<T> impl
      */
     public void save(Context context) {
         if (_id == null) {
-            _id = QuantumFlux.insertAndReturn(this)._id;
+            QuantumFlux.insert(this);
         } else {
             QuantumFlux.update(this);
         }
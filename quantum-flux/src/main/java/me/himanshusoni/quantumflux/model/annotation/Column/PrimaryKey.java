@@ -14,4 +14,40 @@ public @interface PrimaryKey {
 
     /**If this field should be auto incremented. Default is true.  Requires that the field type is long*/
     boolean autoIncrement() default true;
+
+    /**
+     * How the key is generated, overrides {@link #autoIncrement()} when set.  Default is {@link KeyStrategy#DEFAULT}
+     */
+    KeyStrategy strategy() default KeyStrategy.DEFAULT;
+
+    enum KeyStrategy {
+        /**
+         * Uses {@link #AUTO_INCREMENT} if {@link PrimaryKey#autoIncrement()} is true, {@link #ASSIGNED} otherwise
+         */
+        DEFAULT,
+        /**
+         * The key is set on the object before it is inserted
+         */
+        ASSIGNED,
+        /**
+         * INTEGER PRIMARY KEY AUTOINCREMENT, the database assigns the key and never reuses it.  Every insert also reads
+         * and writes the sqlite_sequence table.  Requires a long or int field.
+         */
+        AUTO_INCREMENT,
+        /**
+         * INTEGER PRIMARY KEY without AUTOINCREMENT, the key is an alias for the rowid assigned by the database.
+         * Keys of deleted rows at the end of the table may be reused.  Requires a long or int field.
+         */
+        ROWID,
+        /**
+         * A 64 bit key ordered by creation time, assigned to the object before it is inserted if the key is not set yet.
+         * Requires a long field.
+         */
+        TIME_ORDERED_ID,
+        /**
+         * A UUID ordered by creation time, assigned to the object before it is inserted if the key is not set yet.
+         * Requires a String field.
+         */
+        TIME_ORDERED_UUID
+    }
 }
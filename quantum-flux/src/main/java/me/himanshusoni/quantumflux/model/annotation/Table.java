@@ -21,4 +21,10 @@ public @interface Table {
      * Any additional constraints that should be added for the table.  Todo: Not implemented yet
      */
     TableConstraint[] constraints() default {};
+
+    /**
+     * The amount of objects to keep in the primary key cache used by {@link me.himanshusoni.quantumflux.QuantumFlux#findByPrimaryKey(Class, Object)}.
+     * The default of 0 disables the cache, it can also be configured at runtime using {@link me.himanshusoni.quantumflux.QuantumFlux#setPrimaryKeyCacheSize(Class, int)}
+     */
+    int cacheSize() default 0;
 }
@@ -0,0 +1,32 @@
+package me.himanshusoni.quantumflux.model.generate;
+
+import java.util.List;
+
+/**
+ * A registry of all the domain classes known to the application.  An implementation of this interface is generated
+ * at compile time by the quantum-flux-compiler annotation processor, so that the domain classes do not have to be
+ * discovered by scanning the application dex file at start up.
+ * <br>
+ * When the registry exists the dex file is not scanned at all, so it must list every domain class of the application.  The
+ * processor only sees the classes of the module it is applied to, so it should not be used when domain classes are part of
+ * library modules.
+ */
+public interface DomainRegistry {
+
+    /**
+     * The fully qualified name of the registry generated by the annotation processor
+     */
+    String GENERATED_CLASS_NAME = "me.himanshusoni.quantumflux.generated.QuantumFluxDomainRegistry";
+
+    /**
+     * All of the classes that should be treated as tables, either annotated with
+     * {@link me.himanshusoni.quantumflux.model.annotation.Table} or extending
+     * {@link me.himanshusoni.quantumflux.model.QuantumFluxRecord}
+     */
+    List<Class<?>> getTableClasses();
+
+    /**
+     * All of the classes implementing {@link TableView}
+     */
+    List<Class<?>> getTableViewClasses();
+}
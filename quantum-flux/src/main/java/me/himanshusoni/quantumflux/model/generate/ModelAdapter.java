@@ -0,0 +1,79 @@
+package me.himanshusoni.quantumflux.model.generate;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
+
+import me.himanshusoni.quantumflux.model.map.SqlColumnMapping;
+
+/**
+ * Provides direct access to the fields of a model object, so that inflating and deflating objects does not
+ * have to go through reflection.  An implementation of this interface is generated for every domain class
+ * by the quantum-flux-compiler annotation processor.
+ * <br>
+ * Fields are addressed by an index obtained from {@link #findFieldIndex(String)}.  Fields for which no direct access
+ * could be generated (for instance a private field without getters and setters) are not handled by the adapter, and
+ * the {@link TableDetails.ColumnDetails} will fall back to reflection for them.
+ *
+ * @param <T> The model type
+ */
+public interface ModelAdapter<T> {
+
+    /**
+     * The suffix appended to the model class name to get the name of the generated adapter
+     */
+    String GENERATED_CLASS_SUFFIX = "$$ModelAdapter";
+
+    /**
+     * @return A new instance of the model object
+     */
+    T newInstance();
+
+    /**
+     * Finds the index of the supplied field, to be used in the other adapter methods
+     *
+     * @param fieldName The java field name
+     * @return The index of the field, or -1 if this adapter does not handle the field
+     */
+    int findFieldIndex(String fieldName);
+
+    /**
+     * Reads the value from the cursor and sets it on the field of the model object
+     *
+     * @param fieldIndex    The index of the field as returned by {@link #findFieldIndex(String)}
+     * @param model         The model object to populate
+     * @param cursor        The cursor to read from
+     * @param columnIndex   The column index in the cursor
+     * @param columnMapping The column mapping, used for types that can not be read from the cursor directly
+     */
+    void setFieldValue(int fieldIndex, T model, Cursor cursor, int columnIndex, SqlColumnMapping columnMapping);
+
+    /**
+     * @param fieldIndex The index of the field as returned by {@link #findFieldIndex(String)}
+     * @param model      The model object to read from
+     * @return The value of the field
+     */
+    Object getFieldValue(int fieldIndex, T model);
+
+    /**
+     * Reads the field of the model object and puts it into the content values
+     *
+     * @param fieldIndex    The index of the field as returned by {@link #findFieldIndex(String)}
+     * @param model         The model object to read from
+     * @param contentValues The content values to populate
+     * @param columnName    The key to use in the content values
+     * @param columnMapping The column mapping, used for types that can not be put into the content values directly
+     */
+    void setContentValue(int fieldIndex, T model, ContentValues contentValues, String columnName, SqlColumnMapping columnMapping);
+
+    /**
+     * Reads the field of the model object and binds it onto the compiled statement
+     *
+     * @param fieldIndex    The index of the field as returned by {@link #findFieldIndex(String)}
+     * @param model         The model object to read from
+     * @param program       The compiled statement to bind to
+     * @param bindIndex     The 1-based index of the statement argument
+     * @param columnMapping The column mapping, used for types that can not be bound directly
+     */
+    void bindValue(int fieldIndex, T model, SQLiteProgram program, int bindIndex, SqlColumnMapping columnMapping);
+}
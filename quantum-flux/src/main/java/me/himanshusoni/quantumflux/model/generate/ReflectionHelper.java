@@ -14,9 +14,11 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Enumeration;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import dalvik.system.DexFile;
 import me.himanshusoni.quantumflux.QuantumFlux;
@@ -41,6 +43,8 @@ import me.himanshusoni.quantumflux.model.util.NamingUtils;
  */
 public class ReflectionHelper {
 
+    private static final Map<TableType, List<Class<?>>> mDomainClasses = new EnumMap<TableType, List<Class<?>>>(TableType.class);
+
     /**
      * Creates a {@link TableDetails} object containing the reflection information retrieved from
      * the supplied java object.
@@ -62,14 +66,19 @@ public class ReflectionHelper {
         String authorityName = authority == null ? ManifestHelper.getAuthority(context) : authority.value();
 
         TableDetails tableDetails = new TableDetails(tableName, authorityName, dataModelObject);
+        if (table != null) tableDetails.setCacheSize(table.cacheSize());
         SqlColumnMappingFactory columnMappingFactory = QuantumFlux.getColumnMappingFactory();
 
         for (Field field : getAllObjectFields(dataModelObject)) {
             if (!isValidField(field)) continue;
 
-            boolean autoIncrement = false;
+            PrimaryKey.KeyStrategy keyStrategy = PrimaryKey.KeyStrategy.ASSIGNED;
             if (field.isAnnotationPresent(PrimaryKey.class)) {
-                autoIncrement = field.getAnnotation(PrimaryKey.class).autoIncrement();
+                PrimaryKey primaryKeyAnnotation = field.getAnnotation(PrimaryKey.class);
+                keyStrategy = primaryKeyAnnotation.strategy();
+                if (keyStrategy == PrimaryKey.KeyStrategy.DEFAULT) {
+                    keyStrategy = primaryKeyAnnotation.autoIncrement() ? PrimaryKey.KeyStrategy.AUTO_INCREMENT : PrimaryKey.KeyStrategy.ASSIGNED;
+                }
             }
 
             Column column = null;
@@ -110,8 +119,9 @@ public class ReflectionHelper {
                             primaryKey,
                             unique,
                             required | primaryKey,
-                            autoIncrement,
-                            notifyChanges
+                            keyStrategy,
+                            notifyChanges,
+                            tableDetails.getModelAdapter()
                     ));
 
         }
@@ -191,25 +201,69 @@ public class ReflectionHelper {
         return annotations;
     }
 
-    public static List<Class<?>> getDomainClasses(Context context, TableType type) {
-        List<Class<?>> domainClasses = new ArrayList<Class<?>>();
-        try {
-            for (String className : getAllClasses(context)) {
-                Class domainClass =
-                        type == TableType.TABLE_VIEW
-                                ?
-                                getTableViewClass(className, context)
-                                :
-                                getTableClass(className, context);
-                if (domainClass != null) {
-                    domainClasses.add(domainClass);
-                }
+    /**
+     * Finds all of the domain classes of the supplied type.  The classes are read from the {@link DomainRegistry} generated
+     * at compile time, if it is not available the application dex file is scanned instead.  The registry is not merged with
+     * the scanned classes, see {@link DomainRegistry}.  Either way the lookup is only done once, and the results are kept for
+     * subsequent calls.
+     *
+     * @param context The context that can be used to get meta information
+     * @param type    The type of domain classes to find
+     * @return The domain classes found
+     */
+    public static synchronized List<Class<?>> getDomainClasses(Context context, TableType type) {
+        if (mDomainClasses.isEmpty()) {
+            DomainRegistry domainRegistry = findDomainRegistry(context);
+
+            if (domainRegistry != null) {
+                mDomainClasses.put(TableType.TABLE, Collections.unmodifiableList(domainRegistry.getTableClasses()));
+                mDomainClasses.put(TableType.TABLE_VIEW, Collections.unmodifiableList(domainRegistry.getTableViewClasses()));
+            } else {
+                List<String> classNames = findAllClasses(context);
+                mDomainClasses.put(TableType.TABLE, Collections.unmodifiableList(scanDomainClasses(context, classNames, TableType.TABLE)));
+                mDomainClasses.put(TableType.TABLE_VIEW, Collections.unmodifiableList(scanDomainClasses(context, classNames, TableType.TABLE_VIEW)));
             }
+        }
+
+        return mDomainClasses.get(type);
+    }
+
+    private static DomainRegistry findDomainRegistry(Context context) {
+        try {
+            Class<?> registryClass = Class.forName(DomainRegistry.GENERATED_CLASS_NAME, true, context.getClass().getClassLoader());
+            return (DomainRegistry) registryClass.newInstance();
+        } catch (ClassNotFoundException e) {
+            Log.i("QuantumFlux", "No generated domain registry found, scanning for domain classes");
+        } catch (Exception e) {
+            Log.e("QuantumFlux", "Failed to load generated domain registry, scanning for domain classes", e);
+        }
+        return null;
+    }
+
+    private static List<String> findAllClasses(Context context) {
+        try {
+            return getAllClasses(context);
         } catch (IOException e) {
             Log.e("QuantumFlux", e.getMessage());
         } catch (PackageManager.NameNotFoundException e) {
             Log.e("QuantumFlux", e.getMessage());
         }
+        return Collections.emptyList();
+    }
+
+    private static List<Class<?>> scanDomainClasses(Context context, List<String> classNames, TableType type) {
+        List<Class<?>> domainClasses = new ArrayList<Class<?>>();
+        for (String className : classNames) {
+            Class domainClass =
+                    type == TableType.TABLE_VIEW
+                            ?
+                            getTableViewClass(className, context)
+                            :
+                            getTableClass(className, context);
+            if (domainClass != null) {
+                domainClasses.add(domainClass);
+            }
+        }
 
         return domainClasses;
     }
@@ -2,6 +2,8 @@ package me.himanshusoni.quantumflux.model.generate;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteProgram;
 import android.text.TextUtils;
 
 import java.lang.reflect.Constructor;
@@ -12,9 +14,12 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
+import me.himanshusoni.quantumflux.model.annotation.Column.PrimaryKey;
 import me.himanshusoni.quantumflux.model.annotation.Index;
 import me.himanshusoni.quantumflux.model.annotation.TableConstraint;
+import me.himanshusoni.quantumflux.model.map.PrimitiveColumnMapping;
 import me.himanshusoni.quantumflux.model.map.SqlColumnMapping;
+import me.himanshusoni.quantumflux.model.util.KeyGenerator;
 import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
 
 /**
@@ -28,10 +33,12 @@ public class TableDetails {
     private final String mAuthority;
     private final Class mTableClass;
     private final Constructor mTableClassConstructor;
+    private final ModelAdapter mModelAdapter;
     private final List<ColumnDetails> mColumns = new LinkedList<>();
     private final List<Index> mIndices = new LinkedList<>();
     private final List<TableConstraint> mConstraints = new LinkedList<>();
     private final List<Class<?>> mChangeListener = new LinkedList<>();
+    private int mCacheSize;
 
     public TableDetails(String tableName, String authority, Class tableClass) {
         this.mTableName = tableName;
@@ -43,6 +50,24 @@ public class TableDetails {
         } catch (Exception ex) {
             throw new QuantumFluxException("Could not create a new instance of data model object: " + tableName);
         }
+        mModelAdapter = findModelAdapter(tableClass);
+    }
+
+    /**
+     * Finds the {@link ModelAdapter} generated for the table class
+     *
+     * @param tableClass The table class
+     * @return The generated adapter, or null if none was generated
+     */
+    private static ModelAdapter findModelAdapter(Class tableClass) {
+        try {
+            Class<?> adapterClass = Class.forName(tableClass.getName() + ModelAdapter.GENERATED_CLASS_SUFFIX, true, tableClass.getClassLoader());
+            return (ModelAdapter) adapterClass.newInstance();
+        } catch (ClassNotFoundException ex) {
+            return null;
+        } catch (Exception ex) {
+            throw new QuantumFluxException("Could not create the model adapter for data model object: " + tableClass.getSimpleName(), ex);
+        }
     }
 
     public String getTableName() {
@@ -57,7 +82,26 @@ public class TableDetails {
         return mTableClass;
     }
 
+    /**
+     * @return The adapter generated for the table class, or null if there is none and reflection should be used instead
+     */
+    public ModelAdapter getModelAdapter() {
+        return mModelAdapter;
+    }
+
+    /**
+     * @return The size of the primary key cache, 0 if the table should not be cached
+     */
+    public int getCacheSize() {
+        return mCacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.mCacheSize = cacheSize;
+    }
+
     public Object createNewModelInstance() throws IllegalAccessException, InvocationTargetException, InstantiationException {
+        if (mModelAdapter != null) return mModelAdapter.newInstance();
         return mTableClassConstructor.newInstance();
     }
 
@@ -138,21 +182,51 @@ public class TableDetails {
         private final boolean isPrimaryKey;
         private final boolean isUnique;
         private final boolean isRequired;
-        private final boolean isAutoIncrement;
+        private final PrimaryKey.KeyStrategy mKeyStrategy;
         private final boolean mNotifyChanges;
+        private final ModelAdapter mModelAdapter;
+        private final int mAdapterFieldIndex;
+        private final PrimitiveColumnMapping mPrimitiveMapping;
+        private final PrimitiveType mPrimitiveType;
 
         public ColumnDetails(String columnName, Field columnField, SqlColumnMapping columnTypeMapping,
                              // Class<?> references,
                              boolean primaryKey, boolean unique, boolean required, boolean autoIncrement,
                              boolean notifyChanges) {
+            this(columnName, columnField, columnTypeMapping, primaryKey, unique, required, autoIncrement, notifyChanges, null);
+        }
+
+        /**
+         * @param modelAdapter The generated adapter for the table, if the adapter handles the column field it will be used
+         *                     instead of reflection.  Can be null.
+         */
+        public ColumnDetails(String columnName, Field columnField, SqlColumnMapping columnTypeMapping,
+                             boolean primaryKey, boolean unique, boolean required, boolean autoIncrement,
+                             boolean notifyChanges, ModelAdapter modelAdapter) {
+            this(columnName, columnField, columnTypeMapping, primaryKey, unique, required,
+                    autoIncrement ? PrimaryKey.KeyStrategy.AUTO_INCREMENT : PrimaryKey.KeyStrategy.ASSIGNED, notifyChanges, modelAdapter);
+        }
+
+        /**
+         * @param keyStrategy  How the primary key is generated, {@link PrimaryKey.KeyStrategy#ASSIGNED} for columns that are not generated
+         * @param modelAdapter The generated adapter for the table, if the adapter handles the column field it will be used
+         *                     instead of reflection.  Can be null.
+         */
+        public ColumnDetails(String columnName, Field columnField, SqlColumnMapping columnTypeMapping,
+                             boolean primaryKey, boolean unique, boolean required, PrimaryKey.KeyStrategy keyStrategy,
+                             boolean notifyChanges, ModelAdapter modelAdapter) {
+            if (keyStrategy == null || keyStrategy == PrimaryKey.KeyStrategy.DEFAULT) {
+                throw new QuantumFluxException("A key strategy must be resolved before creating the column: " + columnName);
+            }
+
             this.mColumnName = columnName;
             this.mColumnField = columnField;
             this.mColumnMapping = columnTypeMapping;
 //            this.mReference = references;
-            this.isPrimaryKey = primaryKey || autoIncrement;
+            this.mKeyStrategy = keyStrategy;
+            this.isPrimaryKey = primaryKey || keyStrategy != PrimaryKey.KeyStrategy.ASSIGNED;
             this.isUnique = unique;
             this.isRequired = required;
-            this.isAutoIncrement = autoIncrement;
             this.mNotifyChanges = notifyChanges;
 
             if (primaryKey && !required) {
@@ -163,7 +237,16 @@ public class TableDetails {
                 throw new QuantumFluxException("A valid column name needs to be provided");
             }
 
+            validateKeyStrategy(columnField.getType());
+
             columnField.setAccessible(true);
+
+            int adapterFieldIndex = modelAdapter == null ? -1 : modelAdapter.findFieldIndex(columnField.getName());
+            this.mModelAdapter = adapterFieldIndex < 0 ? null : modelAdapter;
+            this.mAdapterFieldIndex = adapterFieldIndex;
+
+            this.mPrimitiveType = PrimitiveType.of(columnField.getType());
+            this.mPrimitiveMapping = mPrimitiveType != null && columnTypeMapping instanceof PrimitiveColumnMapping ? (PrimitiveColumnMapping) columnTypeMapping : null;
         }
 
         public String getColumnName() {
@@ -190,8 +273,63 @@ public class TableDetails {
             return isRequired;
         }
 
+        /**
+         * @return True if the database assigns the key, for both {@link PrimaryKey.KeyStrategy#AUTO_INCREMENT} and {@link PrimaryKey.KeyStrategy#ROWID}
+         */
         public boolean isAutoIncrement() {
-            return isAutoIncrement;
+            return mKeyStrategy == PrimaryKey.KeyStrategy.AUTO_INCREMENT || mKeyStrategy == PrimaryKey.KeyStrategy.ROWID;
+        }
+
+        public PrimaryKey.KeyStrategy getKeyStrategy() {
+            return mKeyStrategy;
+        }
+
+        private void validateKeyStrategy(Class<?> fieldType) {
+            boolean valid;
+            switch (mKeyStrategy) {
+                case AUTO_INCREMENT:
+                case ROWID:
+                    valid = long.class.equals(fieldType) || Long.class.equals(fieldType) || int.class.equals(fieldType) || Integer.class.equals(fieldType);
+                    break;
+                case TIME_ORDERED_ID:
+                    valid = long.class.equals(fieldType) || Long.class.equals(fieldType);
+                    break;
+                case TIME_ORDERED_UUID:
+                    valid = String.class.equals(fieldType);
+                    break;
+                default:
+                    valid = true;
+            }
+
+            if (!valid) {
+                throw new QuantumFluxException("Key strategy " + mKeyStrategy + " is not supported for fields of type " + fieldType.getSimpleName() + ": " + mColumnName);
+            }
+        }
+
+        /**
+         * Assigns a client side generated key to the object if the column uses a time ordered key strategy and the key is
+         * not set yet, so the object has its key before it is written.  Only called when inserting, an object that is
+         * updated without a key must not get a new one.
+         *
+         * @param dataModelObject The object about to be inserted
+         */
+        public void assignClientKey(Object dataModelObject) throws IllegalAccessException {
+            if (mKeyStrategy == PrimaryKey.KeyStrategy.TIME_ORDERED_ID) {
+                Object key = mColumnField.get(dataModelObject);
+                if (key == null || ((Long) key) == 0) mColumnField.set(dataModelObject, KeyGenerator.nextTimeOrderedId());
+            } else if (mKeyStrategy == PrimaryKey.KeyStrategy.TIME_ORDERED_UUID) {
+                if (mColumnField.get(dataModelObject) == null) mColumnField.set(dataModelObject, KeyGenerator.nextTimeOrderedUuid());
+            }
+        }
+
+        /**
+         * @param dataModelObject The object to check
+         * @return True if the key of the object is set, a numeric key is not set while it is null or 0
+         */
+        public boolean isKeySet(Object dataModelObject) throws IllegalAccessException {
+            Object key = getFieldValue(dataModelObject);
+            if (key == null) return false;
+            return !(key instanceof Number) || ((Number) key).longValue() != 0;
         }
 
         public boolean notifyChanges() {
@@ -200,10 +338,71 @@ public class TableDetails {
 
 
         public void setFieldValue(Cursor cursor, int columnIndex, Object dataModelObject) throws IllegalAccessException {
+            if (mModelAdapter != null) {
+                mModelAdapter.setFieldValue(mAdapterFieldIndex, dataModelObject, cursor, columnIndex, mColumnMapping);
+                return;
+            }
+            if (mPrimitiveMapping != null) {
+                setPrimitiveFieldValue(cursor, columnIndex, dataModelObject);
+                return;
+            }
             mColumnField.set(dataModelObject, mColumnMapping.getColumnValue(cursor, columnIndex));
         }
 
+        /**
+         * Sets primitive fields using the typed field setters, so that the values do not have to be boxed
+         */
+        private void setPrimitiveFieldValue(Cursor cursor, int columnIndex, Object dataModelObject) throws IllegalAccessException {
+            switch (mPrimitiveType) {
+                case LONG:
+                    mColumnField.setLong(dataModelObject, mPrimitiveMapping.readLong(cursor, columnIndex));
+                    break;
+                case INT:
+                    mColumnField.setInt(dataModelObject, mPrimitiveMapping.readInt(cursor, columnIndex));
+                    break;
+                case SHORT:
+                    mColumnField.setShort(dataModelObject, (short) mPrimitiveMapping.readInt(cursor, columnIndex));
+                    break;
+                case DOUBLE:
+                    mColumnField.setDouble(dataModelObject, mPrimitiveMapping.readDouble(cursor, columnIndex));
+                    break;
+                case FLOAT:
+                    mColumnField.setFloat(dataModelObject, (float) mPrimitiveMapping.readDouble(cursor, columnIndex));
+                    break;
+                case BOOLEAN:
+                    mColumnField.setBoolean(dataModelObject, mPrimitiveMapping.readInt(cursor, columnIndex) != 0);
+                    break;
+            }
+        }
+
+        /**
+         * Sets the row id the database generated for an auto increment column on the model object
+         *
+         * @param dataModelObject The inserted object
+         * @param rowId           The generated row id
+         */
+        public void setGeneratedKey(Object dataModelObject, long rowId) throws IllegalAccessException {
+            //Only long and int fields pass validateKeyStrategy for the generated key strategies
+            if (mPrimitiveType == PrimitiveType.LONG) mColumnField.setLong(dataModelObject, rowId);
+            else if (mPrimitiveType == PrimitiveType.INT) mColumnField.setInt(dataModelObject, (int) rowId);
+            else if (Long.class.equals(mColumnField.getType())) mColumnField.set(dataModelObject, rowId);
+            else mColumnField.set(dataModelObject, (int) rowId);
+        }
+
+        public Object getFieldValue(Object dataModelObject) throws IllegalAccessException {
+            if (mModelAdapter != null) return mModelAdapter.getFieldValue(mAdapterFieldIndex, dataModelObject);
+            return mColumnField.get(dataModelObject);
+        }
+
         public void setContentValue(ContentValues contentValues, Object dataModelObject) throws IllegalAccessException {
+            if (mModelAdapter != null) {
+                mModelAdapter.setContentValue(mAdapterFieldIndex, dataModelObject, contentValues, mColumnName, mColumnMapping);
+                return;
+            }
+            if (mPrimitiveMapping != null) {
+                setPrimitiveContentValue(contentValues, dataModelObject);
+                return;
+            }
 
             Object value = mColumnField.get(dataModelObject);
 
@@ -211,8 +410,96 @@ public class TableDetails {
             else mColumnMapping.setColumnValue(contentValues, mColumnName, value);
         }
 
+        private void setPrimitiveContentValue(ContentValues contentValues, Object dataModelObject) throws IllegalAccessException {
+            switch (mPrimitiveType) {
+                case LONG:
+                    contentValues.put(mColumnName, mColumnField.getLong(dataModelObject));
+                    break;
+                case INT:
+                    contentValues.put(mColumnName, mColumnField.getInt(dataModelObject));
+                    break;
+                case SHORT:
+                    contentValues.put(mColumnName, mColumnField.getShort(dataModelObject));
+                    break;
+                case DOUBLE:
+                    contentValues.put(mColumnName, mColumnField.getDouble(dataModelObject));
+                    break;
+                case FLOAT:
+                    contentValues.put(mColumnName, mColumnField.getFloat(dataModelObject));
+                    break;
+                case BOOLEAN:
+                    contentValues.put(mColumnName, mColumnField.getBoolean(dataModelObject) ? 1 : 0);
+                    break;
+            }
+        }
+
+        /**
+         * Binds the field value of the model object onto a compiled statement, without going through content values.
+         * Primitive fields are bound without being boxed.
+         *
+         * @param program         The compiled statement
+         * @param bindIndex       The 1-based index of the statement argument
+         * @param dataModelObject The object to read the value from
+         */
+        public void bindValue(SQLiteProgram program, int bindIndex, Object dataModelObject) throws IllegalAccessException {
+            if (mModelAdapter != null) {
+                mModelAdapter.bindValue(mAdapterFieldIndex, dataModelObject, program, bindIndex, mColumnMapping);
+                return;
+            }
+            if (mPrimitiveMapping != null) {
+                bindPrimitiveValue(program, bindIndex, dataModelObject);
+                return;
+            }
+
+            Object value = mColumnField.get(dataModelObject);
+
+            if (value == null) program.bindNull(bindIndex);
+            else DatabaseUtils.bindObjectToProgram(program, bindIndex, mColumnMapping.toSqlType(value));
+        }
+
+        private void bindPrimitiveValue(SQLiteProgram program, int bindIndex, Object dataModelObject) throws IllegalAccessException {
+            switch (mPrimitiveType) {
+                case LONG:
+                    program.bindLong(bindIndex, mColumnField.getLong(dataModelObject));
+                    break;
+                case INT:
+                    program.bindLong(bindIndex, mColumnField.getInt(dataModelObject));
+                    break;
+                case SHORT:
+                    program.bindLong(bindIndex, mColumnField.getShort(dataModelObject));
+                    break;
+                case DOUBLE:
+                    program.bindDouble(bindIndex, mColumnField.getDouble(dataModelObject));
+                    break;
+                case FLOAT:
+                    program.bindDouble(bindIndex, mColumnField.getFloat(dataModelObject));
+                    break;
+                case BOOLEAN:
+                    program.bindLong(bindIndex, mColumnField.getBoolean(dataModelObject) ? 1 : 0);
+                    break;
+            }
+        }
+
 //        public Class<?> getReference() {
 //            return mReference;
 //        }
     }
+
+    /**
+     * The primitive field types that are read from the cursor and bound to statements without boxing.  Content values only
+     * hold objects, so writing them into content values still boxes the value.
+     */
+    enum PrimitiveType {
+        LONG, INT, SHORT, DOUBLE, FLOAT, BOOLEAN;
+
+        static PrimitiveType of(Class<?> fieldType) {
+            if (long.class.equals(fieldType)) return LONG;
+            if (int.class.equals(fieldType)) return INT;
+            if (short.class.equals(fieldType)) return SHORT;
+            if (double.class.equals(fieldType)) return DOUBLE;
+            if (float.class.equals(fieldType)) return FLOAT;
+            if (boolean.class.equals(fieldType)) return BOOLEAN;
+            return null;
+        }
+    }
 }
@@ -4,6 +4,7 @@ package me.himanshusoni.quantumflux.model.generate;
 import java.util.Arrays;
 import java.util.Iterator;
 
+import me.himanshusoni.quantumflux.model.annotation.Column.PrimaryKey;
 import me.himanshusoni.quantumflux.model.annotation.Index;
 import me.himanshusoni.quantumflux.model.annotation.TableConstraint;
 import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
@@ -101,7 +102,8 @@ public class TableGenerator {
 
         if (columnDetails.isPrimaryKey()) {
             columnDefinition.append(" PRIMARY KEY");
-            if (columnDetails.isAutoIncrement()) columnDefinition.append(" AUTOINCREMENT");
+            //A rowid alias only needs the INTEGER PRIMARY KEY, AUTOINCREMENT adds the sqlite_sequence bookkeeping
+            if (columnDetails.getKeyStrategy() == PrimaryKey.KeyStrategy.AUTO_INCREMENT) columnDefinition.append(" AUTOINCREMENT");
         } else if (columnDetails.isUnique()) columnDefinition.append(" UNIQUE");
         else if (columnDetails.isRequired()) columnDefinition.append(" NOT NULL");
 
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.support.v4.content.CursorLoader;
 
 import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.model.query.CompiledSelect;
 import me.himanshusoni.quantumflux.model.query.Select;
 import me.himanshusoni.quantumflux.model.util.ContentResolverValues;
 import me.himanshusoni.quantumflux.model.util.QuantumFluxCursor;
@@ -24,14 +25,23 @@ public class QuantumFluxLoader<T> extends CursorLoader {
     public QuantumFluxLoader(Context context, Select<T> select) {
         super(context);
 
-        ContentResolverValues resolverValues = select.asContentResolverValue();
-        setUri(resolverValues.getItemUri());
-        setProjection(resolverValues.getProjection());
-        setSelection(resolverValues.getWhere());
-        setSelectionArgs(resolverValues.getWhereArgs());
-        setSortOrder(resolverValues.getSortOrder());
+        setResolverValues(select.asContentResolverValue());
+    }
 
-        mTableDetails = resolverValues.getTableDetails();
+    /**
+     * Creates a new mCursor loader using the compiled select and its bind values.  The default implementation
+     * will enable the cache of the mCursor to improve view performance, use {@link #enableCursorCache(int)} to change it.
+     * Like every loader, the query goes through the content resolver, not the direct provider path, the compiled select
+     * only saves building the select.
+     *
+     * @param context        The context that will be used to create the mCursor.
+     * @param compiledSelect The compiled select that will be used to retrieve the data.
+     * @param bindValues     The values bound to the compiled select.
+     */
+    public QuantumFluxLoader(Context context, CompiledSelect<T> compiledSelect, Object... bindValues) {
+        super(context);
+
+        setResolverValues(compiledSelect.asContentResolverValue(bindValues));
     }
 
     /**
@@ -48,6 +58,16 @@ public class QuantumFluxLoader<T> extends CursorLoader {
         enableCursorCache(cacheSize);
     }
 
+    private void setResolverValues(ContentResolverValues resolverValues) {
+        setUri(resolverValues.getItemUri());
+        setProjection(resolverValues.getProjection());
+        setSelection(resolverValues.getWhere());
+        setSelectionArgs(resolverValues.getWhereArgs());
+        setSortOrder(resolverValues.getSortOrder());
+
+        mTableDetails = resolverValues.getTableDetails();
+    }
+
     public void enableCursorCache(int size) {
         mCacheSize = size;
     }
@@ -0,0 +1,25 @@
+package me.himanshusoni.quantumflux.model.map;
+
+import android.database.Cursor;
+
+/**
+ * Base class for the column mappings of types stored as plain SQL numbers, reading the primitive values straight from the
+ * cursor.  Sub classes only implement the object based methods of {@link SqlColumnMapping}.
+ */
+public abstract class NumericColumnMapping implements PrimitiveColumnMapping {
+
+    @Override
+    public long readLong(Cursor cursor, int columnIndex) {
+        return cursor.getLong(columnIndex);
+    }
+
+    @Override
+    public int readInt(Cursor cursor, int columnIndex) {
+        return cursor.getInt(columnIndex);
+    }
+
+    @Override
+    public double readDouble(Cursor cursor, int columnIndex) {
+        return cursor.getDouble(columnIndex);
+    }
+}
@@ -0,0 +1,20 @@
+package me.himanshusoni.quantumflux.model.map;
+
+import android.database.Cursor;
+
+/**
+ * A column mapping for types stored as plain SQL numbers.  Next to the object based methods of {@link SqlColumnMapping},
+ * it allows the values to be read as primitives, so that primitive fields can be populated without boxing every value.
+ * Custom mappings can extend {@link NumericColumnMapping}, which implements the reads for values stored as numbers.
+ */
+public interface PrimitiveColumnMapping extends SqlColumnMapping {
+
+    /** Reads the column value as a long, without boxing it */
+    long readLong(Cursor cursor, int columnIndex);
+
+    /** Reads the column value as an int, without boxing it */
+    int readInt(Cursor cursor, int columnIndex);
+
+    /** Reads the column value as a double, without boxing it */
+    double readDouble(Cursor cursor, int columnIndex);
+}
@@ -3,9 +3,9 @@ package me.himanshusoni.quantumflux.model.map.types;
 import android.content.ContentValues;
 import android.database.Cursor;
 
-import me.himanshusoni.quantumflux.model.map.SqlColumnMapping;
+import me.himanshusoni.quantumflux.model.map.NumericColumnMapping;
 
-public class BooleanType implements SqlColumnMapping {
+public class BooleanType extends NumericColumnMapping {
     @Override
     public Class<?> getJavaType() {
         return Boolean.class;
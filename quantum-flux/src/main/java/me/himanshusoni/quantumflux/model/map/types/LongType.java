@@ -3,9 +3,9 @@ package me.himanshusoni.quantumflux.model.map.types;
 import android.content.ContentValues;
 import android.database.Cursor;
 
-import me.himanshusoni.quantumflux.model.map.SqlColumnMapping;
+import me.himanshusoni.quantumflux.model.map.NumericColumnMapping;
 
-public class LongType implements SqlColumnMapping {
+public class LongType extends NumericColumnMapping {
     @Override
     public Class<?> getJavaType() {
         return Long.class;
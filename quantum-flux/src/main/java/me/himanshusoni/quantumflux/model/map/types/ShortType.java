@@ -3,9 +3,9 @@ package me.himanshusoni.quantumflux.model.map.types;
 import android.content.ContentValues;
 import android.database.Cursor;
 
-import me.himanshusoni.quantumflux.model.map.SqlColumnMapping;
+import me.himanshusoni.quantumflux.model.map.NumericColumnMapping;
 
-public class ShortType implements SqlColumnMapping {
+public class ShortType extends NumericColumnMapping {
     @Override
     public Class<?> getJavaType() {
         return Short.class;
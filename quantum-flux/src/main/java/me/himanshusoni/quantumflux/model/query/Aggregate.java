@@ -0,0 +1,149 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import java.util.Locale;
+
+/**
+ * An aggregate function over a column, used in the projection of aggregate selects, see {@link Select#queryAsAggregates(Aggregate...)}.
+ * Every aggregate is returned under an alias, which defaults to the function and column name, for instance sum_price.
+ * <br>
+ * The {@link #getSqlRepresentation()} can also be used as the column of a having criterion.
+ */
+public class Aggregate {
+
+    private final AggregateFunction mFunction;
+    private final String mColumn;
+    private String mAlias;
+
+    private Aggregate(AggregateFunction function, String column) {
+        this.mFunction = function;
+        this.mColumn = column;
+    }
+
+    /**
+     * @return Counts all of the rows
+     */
+    public static Aggregate count() {
+        return new Aggregate(AggregateFunction.COUNT, null);
+    }
+
+    /**
+     * @param column The column to count
+     * @return Counts the rows where the column is not null
+     */
+    public static Aggregate count(String column) {
+        return new Aggregate(AggregateFunction.COUNT, column);
+    }
+
+    /**
+     * @param column The column to count
+     * @return Counts the distinct non null values of the column
+     */
+    public static Aggregate countDistinct(String column) {
+        return new Aggregate(AggregateFunction.COUNT_DISTINCT, column);
+    }
+
+    /**
+     * @param column The column to sum
+     * @return The sum of the column, which is null if there are no non null values
+     */
+    public static Aggregate sum(String column) {
+        return new Aggregate(AggregateFunction.SUM, column);
+    }
+
+    /**
+     * @param column The column to sum
+     * @return The sum of the column as a floating point value, which is 0 if there are no non null values
+     */
+    public static Aggregate total(String column) {
+        return new Aggregate(AggregateFunction.TOTAL, column);
+    }
+
+    /**
+     * @param column The column to average
+     * @return The average of the column
+     */
+    public static Aggregate avg(String column) {
+        return new Aggregate(AggregateFunction.AVG, column);
+    }
+
+    /**
+     * @param column The column
+     * @return The smallest value of the column
+     */
+    public static Aggregate min(String column) {
+        return new Aggregate(AggregateFunction.MIN, column);
+    }
+
+    /**
+     * @param column The column
+     * @return The largest value of the column
+     */
+    public static Aggregate max(String column) {
+        return new Aggregate(AggregateFunction.MAX, column);
+    }
+
+    /**
+     * Sets the name the aggregate value will be returned under
+     *
+     * @param alias The alias
+     * @return The current aggregate instance
+     */
+    public Aggregate as(String alias) {
+        this.mAlias = alias;
+        return this;
+    }
+
+    public AggregateFunction getFunction() {
+        return mFunction;
+    }
+
+    public String getColumn() {
+        return mColumn;
+    }
+
+    public String getAlias() {
+        if (mAlias != null) return mAlias;
+
+        String functionName = mFunction.name().toLowerCase(Locale.US);
+        return mColumn == null ? functionName : functionName + "_" + mColumn;
+    }
+
+    /**
+     * @return The aggregate function as it is used in sql, for instance SUM(price)
+     */
+    public String getSqlRepresentation() {
+        return mFunction.getSqlRepresentation(mColumn);
+    }
+
+    /**
+     * @return The aggregate function with its alias, as it is used in the projection
+     */
+    public String getProjection() {
+        return getSqlRepresentation() + " AS " + getAlias();
+    }
+
+    @Override
+    public String toString() {
+        return getProjection();
+    }
+
+    public enum AggregateFunction {
+        COUNT("COUNT("),
+        COUNT_DISTINCT("COUNT(DISTINCT "),
+        SUM("SUM("),
+        TOTAL("TOTAL("),
+        AVG("AVG("),
+        MIN("MIN("),
+        MAX("MAX(");
+
+        private final String mSqlPrefix;
+
+        AggregateFunction(String sqlPrefix) {
+            this.mSqlPrefix = sqlPrefix;
+        }
+
+        public String getSqlRepresentation(String column) {
+            return mSqlPrefix + (column == null ? "*" : column) + ")";
+        }
+    }
+}
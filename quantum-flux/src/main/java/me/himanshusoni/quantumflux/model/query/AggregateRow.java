@@ -0,0 +1,135 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import android.database.Cursor;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
+
+/**
+ * A single row of an aggregate select, containing the group by columns and the aggregate values by their alias.
+ * Values of columns belonging to the table are converted to their java type using the column mapping, aggregate
+ * values are returned as the type sqlite returned them in (Long, Double, String or byte[]).
+ */
+public class AggregateRow {
+
+    private final Map<String, Object> mValues;
+
+    AggregateRow(Map<String, Object> values) {
+        this.mValues = values;
+    }
+
+    /**
+     * Reads the current row of the cursor
+     *
+     * @param cursor       The cursor positioned on the row
+     * @param tableDetails The table details used to convert the group by columns
+     * @return The aggregate row
+     */
+    static AggregateRow inflate(Cursor cursor, TableDetails tableDetails) {
+        Map<String, Object> values = new LinkedHashMap<>(cursor.getColumnCount());
+
+        for (int i = 0; i < cursor.getColumnCount(); i++) {
+            String columnName = cursor.getColumnName(i);
+            TableDetails.ColumnDetails columnDetails = tableDetails.findColumn(columnName);
+
+            if (cursor.isNull(i)) {
+                values.put(columnName, null);
+            } else if (columnDetails != null) {
+                values.put(columnName, columnDetails.getColumnTypeMapping().getColumnValue(cursor, i));
+            } else {
+                values.put(columnName, readValue(cursor, i));
+            }
+        }
+
+        return new AggregateRow(values);
+    }
+
+    static Object readValue(Cursor cursor, int columnIndex) {
+        switch (cursor.getType(columnIndex)) {
+            case Cursor.FIELD_TYPE_INTEGER:
+                return cursor.getLong(columnIndex);
+            case Cursor.FIELD_TYPE_FLOAT:
+                return cursor.getDouble(columnIndex);
+            case Cursor.FIELD_TYPE_STRING:
+                return cursor.getString(columnIndex);
+            case Cursor.FIELD_TYPE_BLOB:
+                return cursor.getBlob(columnIndex);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return The group by column names and aggregate aliases, in projection order
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(mValues.keySet());
+    }
+
+    public boolean isNull(String name) {
+        return getValue(name) == null;
+    }
+
+    /**
+     * @param name The group by column name or aggregate alias
+     * @param <V>  The expected type
+     * @return The value
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V getValue(String name) {
+        if (!mValues.containsKey(name)) {
+            throw new QuantumFluxException("The aggregate row does not contain " + name);
+        }
+        return (V) mValues.get(name);
+    }
+
+    /**
+     * @param name The group by column name or aggregate alias
+     * @return The value as a long, or 0 if the value is null
+     */
+    public long getLong(String name) {
+        Object value = getValue(name);
+        if (value == null) return 0;
+        if (value instanceof Number) return ((Number) value).longValue();
+        return Long.parseLong(String.valueOf(value));
+    }
+
+    /**
+     * @param name The group by column name or aggregate alias
+     * @return The value as a double, or 0 if the value is null
+     */
+    public double getDouble(String name) {
+        Object value = getValue(name);
+        if (value == null) return 0;
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        return Double.parseDouble(String.valueOf(value));
+    }
+
+    /**
+     * @param name The group by column name or aggregate alias
+     * @return The value as a string, or null if the value is null
+     */
+    public String getString(String name) {
+        Object value = getValue(name);
+        return value == null ? null : String.valueOf(value);
+    }
+
+    /**
+     * @param aggregate The aggregate
+     * @param <V>       The expected type
+     * @return The value of the aggregate
+     */
+    public <V> V getValue(Aggregate aggregate) {
+        return getValue(aggregate.getAlias());
+    }
+
+    @Override
+    public String toString() {
+        return mValues.toString();
+    }
+}
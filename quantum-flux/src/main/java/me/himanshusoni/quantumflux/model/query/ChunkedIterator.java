@@ -0,0 +1,66 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the results of a select by fetching fixed size keyset paginated chunks, see {@link Select#queryAsChunkedIterator(int)}.
+ * The next chunk is only fetched once the current one has been consumed, and no cursor is kept open in between,
+ * so unlike the {@link me.himanshusoni.quantumflux.model.util.CursorIterator} this iterator does not need to be closed.
+ *
+ * @param <T> The model type
+ */
+public class ChunkedIterator<T> implements Iterator<T> {
+
+    private final Select<T> mSelect;
+    private final int mChunkSize;
+    private KeysetPage<T> mChunk;
+    private int mChunkIndex;
+    private int mChunkCount;
+
+    ChunkedIterator(Select<T> select, int chunkSize) {
+        this.mSelect = select;
+        this.mChunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (mChunk == null) {
+            mChunk = mSelect.queryAsPage(mChunkSize);
+            mChunkCount++;
+        }
+
+        while (mChunkIndex >= mChunk.getItems().size()) {
+            if (!mChunk.hasNextPage()) return false;
+
+            mChunk = mChunk.queryNextPage();
+            mChunkIndex = 0;
+            mChunkCount++;
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+
+        List<T> items = mChunk.getItems();
+        T item = items.get(mChunkIndex);
+        //Release the reference so consumed objects can be collected before the chunk is done
+        items.set(mChunkIndex++, null);
+        return item;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Remove is not supported, use QuantumFlux.delete instead");
+    }
+
+    /**
+     * @return The amount of chunks fetched so far
+     */
+    public int getChunkCount() {
+        return mChunkCount;
+    }
+}
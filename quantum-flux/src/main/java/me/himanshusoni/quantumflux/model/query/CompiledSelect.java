@@ -0,0 +1,225 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import me.himanshusoni.quantumflux.QuantumFlux;
+import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.model.map.SqlColumnMappingFactory;
+import me.himanshusoni.quantumflux.model.util.ContentResolverValues;
+import me.himanshusoni.quantumflux.model.util.CursorIterator;
+import me.himanshusoni.quantumflux.model.util.QuantumFluxCursor;
+import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
+import me.himanshusoni.quantumflux.provider.QuantumFluxContentProvider;
+import me.himanshusoni.quantumflux.provider.util.UriMatcherHelper;
+
+/**
+ * A select that has been frozen into its sql, projection and argument slots, see {@link Select#compile()}.  Executing a compiled
+ * select only converts the bind values, the where clause, sort order, projection and uri are not rebuilt, making it suited
+ * for query shapes that are run over and over again with different values.
+ * <br>
+ * The bind values are supplied in the same order as the filter values of the select they replace, and are converted the same
+ * way, so the like operators still get their sql %.  Compiled selects are immutable and can be shared between threads.
+ * <br>
+ * Compiled selects are kept in a LRU cache keyed by the shape of the select, which is derived from the structure of the
+ * select without building its sql, see {@link Select#getShapeKey()}.  Compiling a select with the same shape again returns
+ * the same compiled select, so only the shape key is built on a cache hit.  Offset and limit are part of the shape.
+ * <br>
+ * The amount of values of an IN list is part of the shape, every value takes an argument slot.  This also applies to the lists
+ * above the {@link QuantumFlux#setInListTableThreshold(int) in list table threshold}.
+ *
+ * @param <T> The model type
+ */
+public class CompiledSelect<T> {
+
+    private static final int CACHE_SIZE = 32;
+    private static final LruCache<String, CompiledSelect<?>> mCompiledSelects = new LruCache<>(CACHE_SIZE);
+
+    private final TableDetails mTableDetails;
+    private final String[] mProjection;
+    private final String mWhere;
+    private final DataFilterCriterion.DataFilterOperator[] mArgOperators;
+    private final String mSortOrder;
+    private final String mLimit;
+    private final Uri mItemUri;
+    private final Uri mNotificationUri;
+
+    private CompiledSelect(TableDetails tableDetails, String[] projection, String where, List<DataFilterCriterion.DataFilterOperator> argOperators, String sortOrder, Integer offset, Integer limit) {
+        this.mTableDetails = tableDetails;
+        this.mProjection = projection;
+        this.mWhere = where;
+        this.mArgOperators = argOperators.toArray(new DataFilterCriterion.DataFilterOperator[argOperators.size()]);
+        this.mSortOrder = sortOrder;
+        this.mLimit = QuantumFluxContentProvider.constructLimit(offset, limit);
+        this.mNotificationUri = UriMatcherHelper.generateItemUriBuilder(tableDetails).build();
+
+        Uri.Builder itemUri = mNotificationUri.buildUpon();
+        if (offset != null)
+            itemUri.appendQueryParameter(QuantumFluxContentProvider.PARAMETER_OFFSET, offset.toString());
+        if (limit != null)
+            itemUri.appendQueryParameter(QuantumFluxContentProvider.PARAMETER_LIMIT, limit.toString());
+        this.mItemUri = itemUri.build();
+    }
+
+    /**
+     * @param shapeKey The shape key of the select, or null if the select can not be cached
+     * @return The compiled select cached for the shape, or null if it has to be compiled
+     */
+    @SuppressWarnings("unchecked")
+    static <T> CompiledSelect<T> findCached(String shapeKey) {
+        if (shapeKey == null) return null;
+        return (CompiledSelect<T>) mCompiledSelects.get(shapeKey);
+    }
+
+    /**
+     * Compiles the select and caches it for the shape
+     *
+     * @param shapeKey The shape key of the select, or null if the select can not be cached
+     */
+    static <T> CompiledSelect<T> compile(String shapeKey, TableDetails tableDetails, String[] projection, QueryBuilder where, String sortOrder, Integer offset, Integer limit) {
+        CompiledSelect<T> compiledSelect = new CompiledSelect<>(tableDetails, projection, where.getQueryString(), where.getArgOperators(), sortOrder, offset, limit);
+        if (shapeKey != null) mCompiledSelects.put(shapeKey, compiledSelect);
+        return compiledSelect;
+    }
+
+    /**
+     * @return The amount of times a compiled select was found in the cache
+     */
+    public static int getCacheHitCount() {
+        return mCompiledSelects.hitCount();
+    }
+
+    /**
+     * @return The amount of times a select with a cacheable shape had to be compiled
+     */
+    public static int getCacheMissCount() {
+        return mCompiledSelects.missCount();
+    }
+
+    public static void clearCache() {
+        mCompiledSelects.evictAll();
+    }
+
+    public TableDetails getTableDetails() {
+        return mTableDetails;
+    }
+
+    /**
+     * @return The amount of values that must be bound on every execution
+     */
+    public int getArgumentCount() {
+        return mArgOperators.length;
+    }
+
+    /**
+     * Converts the bind values to the arguments for the compiled where clause
+     *
+     * @param bindValues The values, one for every argument slot
+     * @return The arguments in their native sql type
+     */
+    public Object[] bindArguments(Object... bindValues) {
+        Object[] args = convertBindValues(bindValues);
+
+        for (int i = 0; i < args.length; i++) {
+            args[i] = QueryBuilder.toTypedArgument(args[i]);
+        }
+        return args;
+    }
+
+    /**
+     * Converts the bind values the same way the filter values of a select are converted, see {@link DataFilterCriterion}
+     */
+    private Object[] convertBindValues(Object[] bindValues) {
+        if (bindValues.length != mArgOperators.length) {
+            throw new QuantumFluxException("Expected " + mArgOperators.length + " bind values, but got " + bindValues.length);
+        }
+
+        SqlColumnMappingFactory columnMappingFactory = QuantumFlux.getColumnMappingFactory();
+        Object[] values = new Object[bindValues.length];
+
+        for (int i = 0; i < bindValues.length; i++) {
+            if (bindValues[i] == null) {
+                throw new QuantumFluxException("Bind value " + i + " can not be null, use an is null criterion instead");
+            }
+            values[i] = DataFilterCriterion.convertToSQLFormat(columnMappingFactory, mArgOperators[i], bindValues[i]);
+        }
+        return values;
+    }
+
+    /**
+     * Executes the compiled select with the bind values, see {@link Select#queryAsCursor()}
+     *
+     * @param bindValues The values, one for every argument slot
+     * @return The {@link QuantumFluxCursor} containing the results
+     */
+    public QuantumFluxCursor<T> queryAsCursor(Object... bindValues) {
+        Cursor cursor;
+
+        QuantumFluxContentProvider directContentProvider = QuantumFlux.getDirectContentProvider();
+        if (directContentProvider != null) {
+            cursor = directContentProvider.query(mTableDetails, mProjection, mWhere, bindArguments(bindValues), mSortOrder, mLimit, mNotificationUri);
+        } else {
+            ContentResolver contentResolver = QuantumFlux.getApplicationContext().getContentResolver();
+            cursor = contentResolver.query(mItemUri, mProjection, mWhere, QueryBuilder.toStringArguments(convertBindValues(bindValues)), mSortOrder);
+        }
+
+        return new QuantumFluxCursor<>(mTableDetails, cursor);
+    }
+
+    /**
+     * Executes the compiled select with the bind values, see {@link Select#queryAsIterator()}
+     *
+     * @param bindValues The values, one for every argument slot
+     * @return The iterator containing the results
+     */
+    public CursorIterator<T> queryAsIterator(Object... bindValues) {
+        return new CursorIterator<>(mTableDetails, queryAsCursor(bindValues));
+    }
+
+    /**
+     * Executes the compiled select with the bind values, see {@link Select#queryAsList()}
+     *
+     * @param bindValues The values, one for every argument slot
+     * @return The list containing the results
+     */
+    public List<T> queryAsList(Object... bindValues) {
+        QuantumFluxCursor<T> cursor = queryAsCursor(bindValues);
+
+        try {
+            List<T> resultList = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                resultList.add(cursor.inflate());
+            }
+            return resultList;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Packages the compiled select with the bind values, see {@link Select#asContentResolverValue()}
+     *
+     * @param bindValues The values, one for every argument slot
+     * @return The {@link ContentResolverValues} containing the arguments needed by the content resolver query method
+     */
+    public ContentResolverValues asContentResolverValue(Object... bindValues) {
+        return new ContentResolverValues(mTableDetails, mItemUri, mProjection, mWhere, QueryBuilder.toStringArguments(convertBindValues(bindValues)), mSortOrder);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder select = new StringBuilder();
+        select.append("SELECT ").append(TextUtils.join(", ", mProjection));
+        select.append(" FROM ").append(mTableDetails.getTableName());
+        if (!TextUtils.isEmpty(mWhere)) select.append(" WHERE ").append(mWhere);
+        if (!TextUtils.isEmpty(mSortOrder)) select.append(" ORDER BY ").append(mSortOrder);
+        if (mLimit != null) select.append(" LIMIT ").append(mLimit);
+        return select.toString();
+    }
+}
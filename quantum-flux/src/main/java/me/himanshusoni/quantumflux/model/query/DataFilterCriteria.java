@@ -45,6 +45,15 @@ public class DataFilterCriteria implements DataFilterClause<DataFilterCriteria>
         return this;
     }
 
+    /**
+     * @return A new criteria with the same clauses, clauses added to either of them afterwards are not added to the other
+     */
+    DataFilterCriteria copy() {
+        DataFilterCriteria criteria = new DataFilterCriteria();
+        criteria.mFilterClauses.putAll(mFilterClauses);
+        return criteria;
+    }
+
     @Override
     public QueryBuilder buildWhereClause(SqlColumnMappingFactory columnMappingFactory) {
         QueryBuilder builder = new QueryBuilder();
@@ -102,6 +111,13 @@ public class DataFilterCriteria implements DataFilterClause<DataFilterCriteria>
         return builder.toString();
     }
 
+    /**
+     * @return The clauses in order, each with the conjunction that joins it to the previous clause
+     */
+    Map<DataFilterClause, DataFilterConjunction> getFilterClauses() {
+        return mFilterClauses;
+    }
+
     @Override
     public boolean hasFilterValue() {
         boolean hasFilterValue = false;
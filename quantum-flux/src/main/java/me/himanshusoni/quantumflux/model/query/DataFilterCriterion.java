@@ -5,8 +5,10 @@ import android.text.TextUtils;
 import java.util.Collection;
 import java.util.Iterator;
 
+import me.himanshusoni.quantumflux.QuantumFlux;
 import me.himanshusoni.quantumflux.model.map.SqlColumnMappingFactory;
 import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
+import me.himanshusoni.quantumflux.provider.util.InListTableHelper;
 
 /**
  * A filter mCriterion is single SQL condition.  The filter column, operator, and filter value must be supplied
@@ -46,12 +48,18 @@ public class DataFilterCriterion implements DataFilterClause<DataFilterCriterion
         builder.append(mFilterOperator.getSqlRepresentation());
 
         if (mFilterValue != null) {
-            if (mFilterValue instanceof Collection) {
+            if (mFilterValue instanceof Collection && ((Collection) mFilterValue).size() > QuantumFlux.getInListTableThreshold()) {
+                //The values are passed in place of the table, the provider loads them into the temp table
+                builder.append(" (SELECT value FROM " + InListTableHelper.createTableReference(((Collection) mFilterValue).size()) + ")");
+                for (Object value : (Collection) mFilterValue) {
+                    builder.appendArgument("", convertToSQLFormat(columnMappingFactory, value), mFilterOperator);
+                }
+            } else if (mFilterValue instanceof Collection) {
                 Iterator collectionIterator = ((Collection) mFilterValue).iterator();
                 builder.append(" (");
 
                 while (collectionIterator.hasNext()) {
-                    builder.append("?", convertToSQLFormat(columnMappingFactory, collectionIterator.next()));
+                    builder.appendArgument("?", convertToSQLFormat(columnMappingFactory, collectionIterator.next()), mFilterOperator);
                     if (collectionIterator.hasNext()) builder.append(", ");
                 }
                 builder.append(")");
@@ -63,7 +71,7 @@ public class DataFilterCriterion implements DataFilterClause<DataFilterCriterion
                 builder.append(" (");
                 builder.append((innerSelect).getSelectQuery());
                 builder.append(")");
-            } else builder.append(" ?", convertToSQLFormat(columnMappingFactory, mFilterValue));
+            } else builder.appendArgument(" ?", convertToSQLFormat(columnMappingFactory, mFilterValue), mFilterOperator);
         }
 
         return builder;
@@ -112,10 +120,22 @@ public class DataFilterCriterion implements DataFilterClause<DataFilterCriterion
     }
 
     private Object convertToSQLFormat(SqlColumnMappingFactory columnMappingFactory, Object object) {
-        if (mFilterOperator == DataFilterOperator.LIKE || mFilterOperator == DataFilterOperator.NOT_LIKE)
+        return convertToSQLFormat(columnMappingFactory, mFilterOperator, object);
+    }
+
+    /**
+     * Converts the filter value to the format it is compared in, adding the sql % for the like operators
+     *
+     * @param columnMappingFactory The column mapping factory used to convert the value
+     * @param filterOperator       The operator the value is compared with
+     * @param object               The filter value
+     * @return The converted value
+     */
+    static Object convertToSQLFormat(SqlColumnMappingFactory columnMappingFactory, DataFilterOperator filterOperator, Object object) {
+        if (filterOperator == DataFilterOperator.LIKE || filterOperator == DataFilterOperator.NOT_LIKE)
             return "%" + object + "%";
-        else if (mFilterOperator == DataFilterOperator.BEGINS_WITH) return object + "%";
-        else if (mFilterOperator == DataFilterOperator.ENDS_WITH) return "%" + object;
+        else if (filterOperator == DataFilterOperator.BEGINS_WITH) return object + "%";
+        else if (filterOperator == DataFilterOperator.ENDS_WITH) return "%" + object;
         else return columnMappingFactory.findColumnMapping(object.getClass()).toSqlType(object);
     }
 
@@ -200,6 +220,10 @@ public class DataFilterCriterion implements DataFilterClause<DataFilterCriterion
             return value(value);
         }
 
+        /**
+         * Lists with more values than {@link QuantumFlux#getInListTableThreshold()} are loaded into a temp table instead of
+         * being expanded into arguments, see {@link QuantumFlux#setInListTableThreshold(int)}
+         */
         public T in(String column, Collection value) {
             column(column);
             mCriterion.setFilterOperator(DataFilterOperator.IN);
@@ -212,6 +236,10 @@ public class DataFilterCriterion implements DataFilterClause<DataFilterCriterion
             return value(value);
         }
 
+        /**
+         * Lists with more values than {@link QuantumFlux#getInListTableThreshold()} are loaded into a temp table instead of
+         * being expanded into arguments, see {@link QuantumFlux#setInListTableThreshold(int)}
+         */
         public T notIn(String column, Collection value) {
             column(column);
             mCriterion.setFilterOperator(DataFilterOperator.NOT_IN);
@@ -0,0 +1,72 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import java.util.List;
+
+/**
+ * A single page of a keyset paginated select, see {@link Select#queryAsPage(int)}.  Along with the items, the page holds the
+ * sort key values of its last item, which is where the next page continues from.  Seeking past the last key instead of
+ * using an offset means every page is equally fast to query, no matter how deep into the results it is.
+ * <br>
+ * The next page can be queried directly, or the select for the next page can be passed on, for instance to a loader.
+ *
+ * @param <T> The model type
+ */
+public class KeysetPage<T> {
+
+    private final Select<T> mSelect;
+    private final List<T> mItems;
+    private final int mPageSize;
+    private final Object[] mNextPageKeys;
+
+    KeysetPage(Select<T> select, List<T> items, int pageSize, Object[] nextPageKeys) {
+        this.mSelect = select;
+        this.mItems = items;
+        this.mPageSize = pageSize;
+        this.mNextPageKeys = nextPageKeys;
+    }
+
+    /**
+     * @return The items on this page
+     */
+    public List<T> getItems() {
+        return mItems;
+    }
+
+    public int getPageSize() {
+        return mPageSize;
+    }
+
+    public boolean hasNextPage() {
+        return mNextPageKeys != null;
+    }
+
+    /**
+     * @return The sort key values of the last item on this page, in sort order with the primary key last.  Null if this is the last page.
+     */
+    public Object[] getNextPageKeys() {
+        return mNextPageKeys;
+    }
+
+    /**
+     * Creates a copy of the select this page was queried from, moved to the next page and limited to the page size.  The returned
+     * select can be used with a loader to load the next page.  Every call returns a new select, this page is not changed.
+     *
+     * @return The select for the next page, or null if this is the last page
+     */
+    public Select<T> getNextPageSelect() {
+        if (!hasNextPage()) return null;
+
+        return mSelect.copy().seekAfter(mNextPageKeys).limit(mPageSize);
+    }
+
+    /**
+     * Queries the next page, using a copy of the select this page was queried from.
+     *
+     * @return The next page, or null if this is the last page
+     */
+    public KeysetPage<T> queryNextPage() {
+        if (!hasNextPage()) return null;
+
+        return mSelect.copy().seekAfter(mNextPageKeys).queryAsPage(mPageSize);
+    }
+}
@@ -0,0 +1,370 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import me.himanshusoni.quantumflux.QuantumFlux;
+import me.himanshusoni.quantumflux.logger.QuantumFluxLog;
+import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
+import me.himanshusoni.quantumflux.model.util.RowChangeEvent;
+import me.himanshusoni.quantumflux.model.util.RowChangeListener;
+
+/**
+ * Keeps the results of a select in memory, sorted, and applies the changes of the written rows to them instead of running
+ * the entire select again.  Only the changed rows are queried with the filter of the select, each of them is then removed,
+ * inserted at its sorted position, moved or changed, and the listeners receive those changes, see {@link Change}.
+ * <br>
+ * The changes are received from {@link QuantumFlux#registerRowChangeListener(Class, RowChangeListener)}, so only writes
+ * made in the process of the content provider are seen, not the tables notified through
+ * {@link me.himanshusoni.quantumflux.model.annotation.ChangeListeners}.  Selects with an
+ * offset, limit, seek or grouping can not be kept live, since a changed row can move other rows in or out of the results.
+ * The projection must contain the primary key and the sort columns.
+ * <br>
+ * The rows are queried on a background thread, the results are updated and the listeners called on the main thread.
+ *
+ * @param <T> The model type
+ */
+public class LiveSelect<T> implements RowChangeListener {
+
+    private static final ExecutorService mQueryExecutor = Executors.newSingleThreadExecutor();
+
+    /**
+     * Receives the changes of the results of a live select, on the main thread
+     */
+    public interface Listener<T> {
+
+        /**
+         * @param liveSelect The live select, already containing the changes
+         * @param changes    The changes in the order they were applied, the positions of a change account for the changes before it
+         */
+        void onChanged(LiveSelect<T> liveSelect, List<Change<T>> changes);
+    }
+
+    /**
+     * A single change of the results of a live select
+     */
+    public static class Change<T> {
+
+        public enum Type {
+            /**
+             * The item was inserted at the position
+             */
+            INSERT,
+            /**
+             * The item was removed from the position
+             */
+            REMOVE,
+            /**
+             * The item was moved from the previous position to the position, and may have changed as well
+             */
+            MOVE,
+            /**
+             * The item at the position was replaced by its changed version
+             */
+            CHANGE
+        }
+
+        private final Type mType;
+        private final int mFromPosition;
+        private final int mPosition;
+        private final T mItem;
+
+        Change(Type type, int fromPosition, int position, T item) {
+            this.mType = type;
+            this.mFromPosition = fromPosition;
+            this.mPosition = position;
+            this.mItem = item;
+        }
+
+        public Type getType() {
+            return mType;
+        }
+
+        /**
+         * @return The previous position of a moved item, otherwise the same as {@link #getPosition()}
+         */
+        public int getFromPosition() {
+            return mFromPosition;
+        }
+
+        public int getPosition() {
+            return mPosition;
+        }
+
+        /**
+         * @return The inserted, moved or changed item, or the removed item
+         */
+        public T getItem() {
+            return mItem;
+        }
+
+        @Override
+        public String toString() {
+            return mType + (mType == Type.MOVE ? "[" + mFromPosition + " -> " + mPosition + "]" : "[" + mPosition + "]");
+        }
+    }
+
+    private final Select<T> mSelect;
+    private final TableDetails mTableDetails;
+    private final TableDetails.ColumnDetails mPrimaryKeyColumn;
+    private final Comparator<T> mComparator;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final List<T> mItems = new ArrayList<>();
+    private final Map<String, T> mItemsByKey = new HashMap<>();
+    private final List<Listener<T>> mListeners = new ArrayList<>();
+    private volatile boolean isStarted;
+    private volatile int mInflatedCount;
+
+    public LiveSelect(Select<T> select) {
+        this(select, QuantumFlux.findTableDetails(select.getDataObjectClass()));
+    }
+
+    LiveSelect(Select<T> select, TableDetails tableDetails) {
+        if (select.isPartial()) {
+            throw new QuantumFluxException("Selects with an offset, limit, seek or grouping can not be kept live");
+        }
+
+        this.mSelect = select;
+        this.mTableDetails = tableDetails;
+        this.mPrimaryKeyColumn = mTableDetails.findPrimaryKeyColumn();
+        if (mPrimaryKeyColumn == null) {
+            throw new QuantumFluxException("The table " + mTableDetails.getTableName() + " has no primary key, which is needed to keep it live");
+        }
+        this.mComparator = createComparator(select.getSortColumns());
+    }
+
+    public void addListener(Listener<T> listener) {
+        mListeners.add(listener);
+    }
+
+    public void removeListener(Listener<T> listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * Starts listening to the row changes and loads the results, which are reported as inserts
+     */
+    public void start() {
+        if (isStarted) return;
+
+        isStarted = true;
+        QuantumFlux.registerRowChangeListener(mTableDetails.getTableClass(), this);
+        queueQuery(null);
+    }
+
+    /**
+     * Stops listening to the row changes, the results are kept but no longer updated
+     */
+    public void stop() {
+        if (!isStarted) return;
+
+        isStarted = false;
+        QuantumFlux.unregisterRowChangeListener(mTableDetails.getTableClass(), this);
+    }
+
+    public boolean isStarted() {
+        return isStarted;
+    }
+
+    /**
+     * @return The current results in sort order, only to be used on the main thread
+     */
+    public List<T> getItems() {
+        return Collections.unmodifiableList(mItems);
+    }
+
+    public int size() {
+        return mItems.size();
+    }
+
+    public T get(int position) {
+        return mItems.get(position);
+    }
+
+    /**
+     * @return The amount of rows inflated since the live select was created, including the initial load
+     */
+    public int getInflatedCount() {
+        return mInflatedCount;
+    }
+
+    @Override
+    public void onRowsChanged(RowChangeEvent event) {
+        if (!isStarted || event.isEmpty()) return;
+
+        queueQuery(event.isTableChanged() ? null : new LinkedHashSet<>(event.getPrimaryKeys()));
+    }
+
+    /**
+     * Queries the rows on the background thread and applies them on the main thread
+     *
+     * @param changedKeys The primary keys of the changed rows, or null to query all of the rows
+     */
+    private void queueQuery(final Collection<String> changedKeys) {
+        mQueryExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!isStarted) return;
+
+                final Map<String, T> rows;
+                try {
+                    rows = queryRows(changedKeys);
+                } catch (RuntimeException e) {
+                    QuantumFluxLog.e("Unable to query the changed rows of " + mTableDetails.getTableName(), e);
+                    return;
+                }
+
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (isStarted) applyRows(changedKeys, rows);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @return The rows matching the filter of the select, by their primary key
+     */
+    private Map<String, T> queryRows(Collection<String> keys) {
+        Select<T> select = mSelect.copyFilter();
+        if (keys != null) {
+            select.and(new DataFilterCriterion(mPrimaryKeyColumn.getColumnName(), DataFilterCriterion.DataFilterOperator.IN, keys));
+        }
+
+        List<T> items = select.queryAsList();
+        mInflatedCount += items.size();
+
+        Map<String, T> rows = new LinkedHashMap<>(items.size());
+        for (T item : items) {
+            rows.put(getKey(item), item);
+        }
+        return rows;
+    }
+
+    /**
+     * Applies the queried rows to the results, a changed key without a row no longer matches the filter or was deleted
+     *
+     * @param changedKeys The keys that were queried, or null if all of the rows were queried
+     * @param rows        The queried rows
+     */
+    void applyRows(Collection<String> changedKeys, Map<String, T> rows) {
+        Collection<String> keys = changedKeys;
+        if (keys == null) {
+            keys = new LinkedHashSet<>(mItemsByKey.keySet());
+            keys.addAll(rows.keySet());
+        }
+
+        List<Change<T>> changes = new ArrayList<>();
+        for (String key : keys) {
+            T oldItem = mItemsByKey.get(key);
+            T newItem = rows.get(key);
+
+            if (oldItem == null && newItem == null) continue;
+
+            if (newItem == null) {
+                int position = indexOf(oldItem);
+                mItems.remove(position);
+                mItemsByKey.remove(key);
+                changes.add(new Change<>(Change.Type.REMOVE, position, position, oldItem));
+            } else if (oldItem == null) {
+                int position = insertionPoint(newItem);
+                mItems.add(position, newItem);
+                mItemsByKey.put(key, newItem);
+                changes.add(new Change<>(Change.Type.INSERT, position, position, newItem));
+            } else {
+                int fromPosition = indexOf(oldItem);
+                mItems.remove(fromPosition);
+                int position = insertionPoint(newItem);
+                mItems.add(position, newItem);
+                mItemsByKey.put(key, newItem);
+                changes.add(new Change<>(fromPosition == position ? Change.Type.CHANGE : Change.Type.MOVE, fromPosition, position, newItem));
+            }
+        }
+
+        if (changes.isEmpty()) return;
+
+        List<Change<T>> appliedChanges = Collections.unmodifiableList(changes);
+        for (Listener<T> listener : new ArrayList<>(mListeners)) {
+            listener.onChanged(this, appliedChanges);
+        }
+    }
+
+    private int indexOf(T item) {
+        int position = Collections.binarySearch(mItems, item, mComparator);
+        if (position >= 0 && mItems.get(position) == item) return position;
+
+        //The item was changed in place after it was added, so its sort position can no longer be trusted
+        for (int i = 0; i < mItems.size(); i++) {
+            if (mItems.get(i) == item) return i;
+        }
+        throw new QuantumFluxException("The item " + item + " is not part of the results");
+    }
+
+    private int insertionPoint(T item) {
+        int position = Collections.binarySearch(mItems, item, mComparator);
+        return position < 0 ? -position - 1 : position;
+    }
+
+    private String getKey(T item) {
+        return String.valueOf(getSqlValue(mPrimaryKeyColumn, item));
+    }
+
+    private static Object getSqlValue(TableDetails.ColumnDetails column, Object item) {
+        try {
+            Object value = column.getFieldValue(item);
+            return value == null ? null : column.getColumnTypeMapping().toSqlType(value);
+        } catch (IllegalAccessException e) {
+            throw new QuantumFluxException("Unable to read the column " + column.getColumnName(), e);
+        }
+    }
+
+    /**
+     * Orders the items the way sqlite orders the rows, with the primary key to break ties so every item has one position
+     */
+    private Comparator<T> createComparator(List<String[]> sortColumns) {
+        final List<TableDetails.ColumnDetails> columns = new ArrayList<>(sortColumns.size() + 1);
+        final List<Boolean> descending = new ArrayList<>(sortColumns.size() + 1);
+
+        for (String[] sortColumn : sortColumns) {
+            TableDetails.ColumnDetails column = mTableDetails.findColumn(sortColumn[0]);
+            if (column == null) {
+                throw new QuantumFluxException("The sort column " + sortColumn[0] + " is not a column of " + mTableDetails.getTableName());
+            }
+            columns.add(column);
+            descending.add("DESC".equalsIgnoreCase(sortColumn[1]));
+        }
+        columns.add(mPrimaryKeyColumn);
+        descending.add(false);
+
+        return new Comparator<T>() {
+            @Override
+            public int compare(T lhs, T rhs) {
+                for (int i = 0; i < columns.size(); i++) {
+                    int result = SqlValueComparator.compareValues(getSqlValue(columns.get(i), lhs), getSqlValue(columns.get(i), rhs));
+                    if (result != 0) return descending.get(i) ? -result : result;
+                }
+                return 0;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "LiveSelect[" + mTableDetails.getTableName() + ", items=" + mItems.size() + ", inflated=" + mInflatedCount + ", started=" + isStarted + "]";
+    }
+}
@@ -0,0 +1,15 @@
+package me.himanshusoni.quantumflux.model.query;
+
+/**
+ * Decides if a model object matches a condition, see {@link PredicateCompiler}
+ *
+ * @param <T> The model type
+ */
+public interface Predicate<T> {
+
+    /**
+     * @param item The model object
+     * @return True if the object matches
+     */
+    boolean apply(T item);
+}
@@ -0,0 +1,437 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import me.himanshusoni.quantumflux.QuantumFlux;
+import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.model.map.SqlColumnMappingFactory;
+import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
+
+/**
+ * Compiles a filter into a {@link Predicate} that checks model objects in memory, giving the same answer as the where
+ * clause of the filter would give for the row of the object.  The filter is compiled once, checking an object only reads
+ * the filtered fields through {@link TableDetails.ColumnDetails}.
+ * <br>
+ * The sqlite semantics are followed: AND binds stronger than OR, a comparison with NULL is unknown and does not match,
+ * the affinity of the column is applied to the field and, as sqlite does for comparisons, to the filter value, values of
+ * different storage classes are ordered NULL, numbers, text, blobs, see {@link SqlValueComparator}, and LIKE ignores the
+ * case of ascii characters only.
+ * <br>
+ * Only filters on the columns of the table can be compiled, columns in expressions or IN with an inner select can not be
+ * evaluated without the database.
+ */
+public class PredicateCompiler {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Pattern NUMBER = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+
+    private static final int AFFINITY_TEXT = 0;
+    private static final int AFFINITY_NUMERIC = 1;
+    private static final int AFFINITY_INTEGER = 2;
+    private static final int AFFINITY_REAL = 3;
+    private static final int AFFINITY_BLOB = 4;
+
+    /**
+     * @param select The select to compile the filter of
+     * @return The predicate matching the objects the select would return, ignoring the paging
+     */
+    public static <T> Predicate<T> compile(Select<T> select) {
+        return compile(select.getDataObjectClass(), select.getFilterCriteria());
+    }
+
+    /**
+     * @param dataModel The model type
+     * @param clause    The filter to compile
+     * @return The predicate matching the objects of the filtered rows
+     */
+    public static <T> Predicate<T> compile(Class<T> dataModel, DataFilterClause clause) {
+        TableDetails tableDetails = QuantumFlux.findTableDetails(dataModel);
+        final Condition condition = compileClause(tableDetails, QuantumFlux.getColumnMappingFactory(), clause);
+
+        return new Predicate<T>() {
+            @Override
+            public boolean apply(T item) {
+                return condition == null || Boolean.TRUE.equals(condition.evaluate(item));
+            }
+        };
+    }
+
+    /**
+     * @return The condition, or null if the clause has no filter value and matches everything
+     */
+    private static Condition compileClause(TableDetails tableDetails, SqlColumnMappingFactory columnMappingFactory, DataFilterClause clause) {
+        if (!clause.hasFilterValue()) return null;
+
+        if (clause instanceof Select) {
+            return compileClause(tableDetails, columnMappingFactory, ((Select) clause).getFilterCriteria());
+        } else if (clause instanceof DataFilterCriteria) {
+            return compileCriteria(tableDetails, columnMappingFactory, (DataFilterCriteria) clause);
+        } else if (clause instanceof DataFilterCriterion) {
+            return compileCriterion(tableDetails, columnMappingFactory, (DataFilterCriterion) clause);
+        }
+        throw new QuantumFluxException("The filter clause " + clause.getClass().getSimpleName() + " can not be evaluated in memory");
+    }
+
+    /**
+     * The clauses are split on OR into groups of clauses joined by AND, since AND binds stronger
+     */
+    private static Condition compileCriteria(TableDetails tableDetails, SqlColumnMappingFactory columnMappingFactory, DataFilterCriteria criteria) {
+        List<Condition> orConditions = new ArrayList<>();
+        List<Condition> andConditions = new ArrayList<>();
+        boolean isFirst = true;
+
+        for (Map.Entry<DataFilterClause, DataFilterClause.DataFilterConjunction> entry : criteria.getFilterClauses().entrySet()) {
+            Condition condition = compileClause(tableDetails, columnMappingFactory, entry.getKey());
+            if (condition == null) continue;
+
+            if (!isFirst && entry.getValue() == DataFilterClause.DataFilterConjunction.OR) {
+                orConditions.add(new AndCondition(andConditions));
+                andConditions = new ArrayList<>();
+            }
+            andConditions.add(condition);
+            isFirst = false;
+        }
+        orConditions.add(new AndCondition(andConditions));
+
+        return orConditions.size() == 1 ? orConditions.get(0) : new OrCondition(orConditions);
+    }
+
+    private static Condition compileCriterion(TableDetails tableDetails, SqlColumnMappingFactory columnMappingFactory, DataFilterCriterion criterion) {
+        TableDetails.ColumnDetails column = tableDetails.findColumn(criterion.mFilterColumn);
+        if (column == null) {
+            throw new QuantumFluxException("The filter column " + criterion.mFilterColumn + " is not a column of " + tableDetails.getTableName() + " and can not be evaluated in memory");
+        }
+
+        DataFilterCriterion.DataFilterOperator operator = criterion.mFilterOperator;
+        int affinity = findAffinity(column.getColumnTypeMapping().getSqlColumnTypeName());
+
+        switch (operator) {
+            case IS_NULL:
+            case IS_NOT_NULL:
+                return new NullCondition(column, operator == DataFilterCriterion.DataFilterOperator.IS_NULL);
+            case IN:
+            case NOT_IN:
+                if (!(criterion.mFilterValue instanceof Collection)) {
+                    throw new QuantumFluxException("Only IN with a collection can be evaluated in memory, not with an inner select");
+                }
+
+                Collection<?> values = (Collection<?>) criterion.mFilterValue;
+                List<Object> sqlValues = new ArrayList<>(values.size());
+                for (Object value : values) {
+                    sqlValues.add(value == null ? null : applyComparisonAffinity(affinity, DataFilterCriterion.convertToSQLFormat(columnMappingFactory, operator, value)));
+                }
+                return new InCondition(column, affinity, sqlValues, operator == DataFilterCriterion.DataFilterOperator.NOT_IN);
+            default:
+                if (criterion.mFilterValue == null || criterion.mFilterValue instanceof Collection || criterion.mFilterValue instanceof Select) {
+                    throw new QuantumFluxException("The operator " + operator + " on " + criterion.mFilterColumn + " needs a single filter value to be evaluated in memory");
+                }
+
+                Object sqlValue = DataFilterCriterion.convertToSQLFormat(columnMappingFactory, operator, criterion.mFilterValue);
+                if (operator == DataFilterCriterion.DataFilterOperator.LIKE || operator == DataFilterCriterion.DataFilterOperator.NOT_LIKE
+                        || operator == DataFilterCriterion.DataFilterOperator.BEGINS_WITH || operator == DataFilterCriterion.DataFilterOperator.ENDS_WITH) {
+                    return new LikeCondition(column, affinity, (String) sqlValue, operator == DataFilterCriterion.DataFilterOperator.NOT_LIKE);
+                }
+                return new CompareCondition(column, affinity, operator, applyComparisonAffinity(affinity, sqlValue));
+        }
+    }
+
+    /**
+     * Determines the affinity of a column type the way sqlite does
+     */
+    static int findAffinity(String columnType) {
+        String type = columnType == null ? "" : columnType.toUpperCase();
+
+        if (type.contains("INT")) return AFFINITY_INTEGER;
+        if (type.contains("CHAR") || type.contains("CLOB") || type.contains("TEXT")) return AFFINITY_TEXT;
+        if (type.isEmpty() || type.contains("BLOB")) return AFFINITY_BLOB;
+        if (type.contains("REAL") || type.contains("FLOA") || type.contains("DOUB")) return AFFINITY_REAL;
+        return AFFINITY_NUMERIC;
+    }
+
+    /**
+     * Converts the value the way sqlite converts it before storing it in, or comparing it with, a column of the affinity
+     */
+    static Object applyAffinity(int affinity, Object value) {
+        if (value == null || affinity == AFFINITY_BLOB) return value;
+
+        if (affinity == AFFINITY_TEXT) {
+            return value instanceof Number ? toText(value) : value;
+        }
+
+        Object numericValue = value;
+        if (value instanceof String) {
+            String text = ((String) value).trim();
+            if (!NUMBER.matcher(text).matches()) return value;
+            numericValue = parseNumber(text);
+        } else if (!(value instanceof Number)) {
+            return value;
+        }
+
+        Number number = (Number) numericValue;
+        if (affinity == AFFINITY_REAL) return number.doubleValue();
+        if (!SqlValueComparator.isIntegral(number)) {
+            double real = number.doubleValue();
+            if (real == Math.rint(real) && Math.abs(real) < 9.2e18) return (long) real;
+        }
+        return number;
+    }
+
+    /**
+     * Converts a filter value the way sqlite does before comparing it with a column of the affinity.  Unlike storing the
+     * value, numbers are compared as they are with the numeric affinities, an integer is not rounded to a real.
+     */
+    static Object applyComparisonAffinity(int affinity, Object value) {
+        if (value instanceof Number && affinity != AFFINITY_TEXT) return value;
+        return applyAffinity(affinity, value);
+    }
+
+    private static Number parseNumber(String text) {
+        if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+            try {
+                return Long.parseLong(text.startsWith("+") ? text.substring(1) : text);
+            } catch (NumberFormatException e) {
+                //Too large for an integer, sqlite uses a real
+            }
+        }
+        return Double.parseDouble(text);
+    }
+
+    /**
+     * Converts a value to text the way sqlite does for LIKE and text affinity, reals use 15 significant digits
+     */
+    private static String toText(Object value) {
+        if (value instanceof byte[]) return new String((byte[]) value, UTF_8);
+        if (!(value instanceof Number) || SqlValueComparator.isIntegral((Number) value)) return value.toString();
+
+        double real = ((Number) value).doubleValue();
+        if (Double.isInfinite(real)) return real > 0 ? "Inf" : "-Inf";
+        if (Double.isNaN(real)) return value.toString();
+        if (real == 0) return "0.0";
+
+        BigDecimal decimal = new BigDecimal(real).round(new MathContext(15)).stripTrailingZeros();
+        int exponent = decimal.precision() - decimal.scale() - 1;
+
+        if (exponent < -4 || exponent >= 15) {
+            String digits = decimal.unscaledValue().abs().toString();
+            String mantissa = digits.charAt(0) + "." + (digits.length() > 1 ? digits.substring(1) : "0");
+            int absExponent = Math.abs(exponent);
+            return (decimal.signum() < 0 ? "-" : "") + mantissa + "e" + (exponent < 0 ? "-" : "+") + (absExponent < 10 ? "0" : "") + absExponent;
+        }
+
+        String plain = decimal.toPlainString();
+        return plain.indexOf('.') < 0 ? plain + ".0" : plain;
+    }
+
+    private static Object getFieldValue(TableDetails.ColumnDetails column, int affinity, Object item) {
+        try {
+            Object value = column.getFieldValue(item);
+            return value == null ? null : applyAffinity(affinity, column.getColumnTypeMapping().toSqlType(value));
+        } catch (IllegalAccessException e) {
+            throw new QuantumFluxException("Unable to read the column " + column.getColumnName(), e);
+        }
+    }
+
+    /**
+     * Matches the text to the pattern like the sqlite LIKE operator, % matches any sequence, _ a single character and
+     * ascii characters are compared ignoring their case
+     */
+    static boolean like(String pattern, String text) {
+        int patternIndex = 0;
+        int textIndex = 0;
+        int wildcardIndex = -1;
+        int wildcardTextIndex = 0;
+
+        while (textIndex < text.length()) {
+            int textCodePoint = text.codePointAt(textIndex);
+
+            if (patternIndex < pattern.length() && pattern.charAt(patternIndex) == '%') {
+                wildcardIndex = patternIndex++;
+                wildcardTextIndex = textIndex;
+            } else if (patternIndex < pattern.length() && (pattern.charAt(patternIndex) == '_' || equalsIgnoreAsciiCase(pattern.codePointAt(patternIndex), textCodePoint))) {
+                patternIndex += pattern.charAt(patternIndex) == '_' ? 1 : Character.charCount(pattern.codePointAt(patternIndex));
+                textIndex += Character.charCount(textCodePoint);
+            } else if (wildcardIndex >= 0) {
+                //Let the last % match one more character and retry
+                patternIndex = wildcardIndex + 1;
+                wildcardTextIndex += Character.charCount(text.codePointAt(wildcardTextIndex));
+                textIndex = wildcardTextIndex;
+            } else {
+                return false;
+            }
+        }
+
+        while (patternIndex < pattern.length() && pattern.charAt(patternIndex) == '%') patternIndex++;
+        return patternIndex == pattern.length();
+    }
+
+    private static boolean equalsIgnoreAsciiCase(int lhs, int rhs) {
+        if (lhs == rhs) return true;
+        if (lhs >= 'A' && lhs <= 'Z') lhs += 'a' - 'A';
+        if (rhs >= 'A' && rhs <= 'Z') rhs += 'a' - 'A';
+        return lhs == rhs;
+    }
+
+    /**
+     * A condition evaluated with the three valued logic of sql, null meaning unknown
+     */
+    private interface Condition {
+        Boolean evaluate(Object item);
+    }
+
+    private static class AndCondition implements Condition {
+
+        private final Condition[] mConditions;
+
+        AndCondition(List<Condition> conditions) {
+            this.mConditions = conditions.toArray(new Condition[conditions.size()]);
+        }
+
+        @Override
+        public Boolean evaluate(Object item) {
+            boolean isUnknown = false;
+            for (Condition condition : mConditions) {
+                Boolean result = condition.evaluate(item);
+                if (result == null) isUnknown = true;
+                else if (!result) return false;
+            }
+            return isUnknown ? null : Boolean.TRUE;
+        }
+    }
+
+    private static class OrCondition implements Condition {
+
+        private final Condition[] mConditions;
+
+        OrCondition(List<Condition> conditions) {
+            this.mConditions = conditions.toArray(new Condition[conditions.size()]);
+        }
+
+        @Override
+        public Boolean evaluate(Object item) {
+            boolean isUnknown = false;
+            for (Condition condition : mConditions) {
+                Boolean result = condition.evaluate(item);
+                if (result == null) isUnknown = true;
+                else if (result) return true;
+            }
+            return isUnknown ? null : Boolean.FALSE;
+        }
+    }
+
+    private static class NullCondition implements Condition {
+
+        private final TableDetails.ColumnDetails mColumn;
+        private final boolean isNull;
+
+        NullCondition(TableDetails.ColumnDetails column, boolean isNull) {
+            this.mColumn = column;
+            this.isNull = isNull;
+        }
+
+        @Override
+        public Boolean evaluate(Object item) {
+            return (getFieldValue(mColumn, AFFINITY_BLOB, item) == null) == isNull;
+        }
+    }
+
+    private static class CompareCondition implements Condition {
+
+        private final TableDetails.ColumnDetails mColumn;
+        private final int mAffinity;
+        private final DataFilterCriterion.DataFilterOperator mOperator;
+        private final Object mValue;
+
+        CompareCondition(TableDetails.ColumnDetails column, int affinity, DataFilterCriterion.DataFilterOperator operator, Object value) {
+            this.mColumn = column;
+            this.mAffinity = affinity;
+            this.mOperator = operator;
+            this.mValue = value;
+        }
+
+        @Override
+        public Boolean evaluate(Object item) {
+            Object fieldValue = getFieldValue(mColumn, mAffinity, item);
+            if (fieldValue == null) return null;
+
+            int result = SqlValueComparator.compareValues(fieldValue, mValue);
+            switch (mOperator) {
+                case EQUAL:
+                    return result == 0;
+                case NOT_EQUAL:
+                    return result != 0;
+                case GREATER_OR_EQUAL:
+                    return result >= 0;
+                case SMALLER_OR_EQUAL:
+                    return result <= 0;
+                case GREATER_THAN:
+                    return result > 0;
+                case SMALLER_THAN:
+                    return result < 0;
+                default:
+                    throw new QuantumFluxException("The operator " + mOperator + " is not a comparison");
+            }
+        }
+    }
+
+    private static class LikeCondition implements Condition {
+
+        private final TableDetails.ColumnDetails mColumn;
+        private final int mAffinity;
+        private final String mPattern;
+        private final boolean isNegated;
+
+        LikeCondition(TableDetails.ColumnDetails column, int affinity, String pattern, boolean isNegated) {
+            this.mColumn = column;
+            this.mAffinity = affinity;
+            this.mPattern = pattern;
+            this.isNegated = isNegated;
+        }
+
+        @Override
+        public Boolean evaluate(Object item) {
+            Object fieldValue = getFieldValue(mColumn, mAffinity, item);
+            if (fieldValue == null) return null;
+
+            boolean isMatch = like(mPattern, toText(fieldValue));
+            return isMatch != isNegated;
+        }
+    }
+
+    private static class InCondition implements Condition {
+
+        private final TableDetails.ColumnDetails mColumn;
+        private final int mAffinity;
+        private final Object[] mValues;
+        private final boolean hasNullValue;
+        private final boolean isNegated;
+
+        InCondition(TableDetails.ColumnDetails column, int affinity, List<Object> values, boolean isNegated) {
+            this.mColumn = column;
+            this.mAffinity = affinity;
+            this.mValues = values.toArray();
+            this.hasNullValue = values.contains(null);
+            this.isNegated = isNegated;
+        }
+
+        @Override
+        public Boolean evaluate(Object item) {
+            //Nothing is part of an empty list, not even null
+            if (mValues.length == 0) return isNegated;
+
+            Object fieldValue = getFieldValue(mColumn, mAffinity, item);
+            if (fieldValue == null) return null;
+
+            for (Object value : mValues) {
+                if (value != null && SqlValueComparator.compareValues(fieldValue, value) == 0) return !isNegated;
+            }
+            return hasNullValue ? null : isNegated;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package me.himanshusoni.quantumflux.model.query;
 
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -10,32 +9,57 @@ import java.util.List;
 /**
  * This class will keep track of the query and its supplied arguments , so that when multiple
  * queries are appended, the query and arguments will always match up.
+ * <br>
+ * Arguments are kept as supplied.  When the query is executed directly they are bound in their native sql type (Long, Double,
+ * String, byte[] or null), see {@link #getTypedQueryArgs()}.  The content resolver only accepts string arguments, those are
+ * available through {@link #getQueryArgsAsArray()} and are the plain string values of the supplied arguments, so a Boolean
+ * argument is still passed as true or false.
  */
 public class QueryBuilder implements Serializable {
 
     private final StringBuilder mQueryBuffer;
     private final List<Object> mArgsStore;
+    private final List<DataFilterCriterion.DataFilterOperator> mArgOperators;
 
     public QueryBuilder() {
         mQueryBuffer = new StringBuilder();
         mArgsStore = new LinkedList<>();
+        mArgOperators = new LinkedList<>();
     }
 
     public QueryBuilder(String init, Object... args) {
         mQueryBuffer = new StringBuilder(init);
-        mArgsStore = new LinkedList<>(Arrays.asList(args));
+        mArgsStore = new LinkedList<>();
+        Collections.addAll(mArgsStore, args);
+        mArgOperators = new LinkedList<>(Collections.<DataFilterCriterion.DataFilterOperator>nCopies(args.length, null));
     }
 
     public void append(String query, Object... args) {
         mQueryBuffer.append(query);
         for (Object arg : args) {
-            mArgsStore.add(String.valueOf(arg));
+            mArgsStore.add(arg);
+            mArgOperators.add(null);
         }
     }
 
+    /**
+     * Appends a query containing a single argument, keeping track of the operator the argument was converted for.
+     * The operator is used by {@link CompiledSelect} to convert the values bound to the same argument later on.
+     *
+     * @param query    The query containing the argument
+     * @param arg      The converted argument
+     * @param operator The operator the argument is compared with
+     */
+    public void appendArgument(String query, Object arg, DataFilterCriterion.DataFilterOperator operator) {
+        mQueryBuffer.append(query);
+        mArgsStore.add(arg);
+        mArgOperators.add(operator);
+    }
+
     public void append(QueryBuilder queryBuilder) {
         mQueryBuffer.append(queryBuilder.getQueryString());
         mArgsStore.addAll(queryBuilder.getQueryArgs());
+        mArgOperators.addAll(queryBuilder.mArgOperators);
     }
 
     public String getQueryString() {
@@ -49,15 +73,90 @@ public class QueryBuilder implements Serializable {
         return Collections.unmodifiableCollection(queryArgs);
     }
 
-    public String[] getQueryArgsAsArray() {
-        String[] args = new String[mArgsStore.size()];
+    /**
+     * @return The operator of every argument, null for arguments that were not appended for an operator
+     */
+    List<DataFilterCriterion.DataFilterOperator> getArgOperators() {
+        return Collections.unmodifiableList(mArgOperators);
+    }
 
-        for (int i = 0; i < mArgsStore.size(); i++) {
-            args[i] = String.valueOf(mArgsStore.get(i));
+    /**
+     * @return The arguments in their native sql type, to be bound with their type
+     */
+    public Object[] getTypedQueryArgs() {
+        Object[] args = new Object[mArgsStore.size()];
+
+        int i = 0;
+        for (Object arg : mArgsStore) {
+            args[i++] = toTypedArgument(arg);
         }
         return args;
     }
 
+    public String[] getQueryArgsAsArray() {
+        return toStringArguments(mArgsStore.toArray());
+    }
+
+    /**
+     * @param args The arguments as supplied, not converted by {@link #toTypedArgument(Object)}
+     * @return The arguments converted to strings, as accepted by the content resolver
+     */
+    public static String[] toStringArguments(Object[] args) {
+        String[] stringArgs = new String[args.length];
+
+        for (int i = 0; i < args.length; i++) {
+            stringArgs[i] = String.valueOf(args[i]);
+        }
+        return stringArgs;
+    }
+
+    /**
+     * The content resolver passes every argument as text, which keeps its numeric meaning when compared with a column that
+     * has numeric affinity, but not when compared with an expression such as an aggregate.  The placeholders of numeric
+     * arguments are wrapped in a cast, so the text is compared as a number again.
+     *
+     * @param clause The clause containing the placeholders, string literals are skipped
+     * @param args   The typed arguments of the clause
+     * @return The clause with the numeric placeholders cast to NUMERIC
+     */
+    public static String castNumericArguments(String clause, Object[] args) {
+        StringBuilder castClause = new StringBuilder(clause.length());
+        boolean isLiteral = false;
+        int argIndex = 0;
+
+        for (int i = 0; i < clause.length(); i++) {
+            char c = clause.charAt(i);
+            if (c == '\'') isLiteral = !isLiteral;
+
+            if (c == '?' && !isLiteral) {
+                Object arg = argIndex < args.length ? args[argIndex] : null;
+                argIndex++;
+
+                if (arg instanceof Number) {
+                    castClause.append("CAST(? AS NUMERIC)");
+                    continue;
+                }
+            }
+            castClause.append(c);
+        }
+        return castClause.toString();
+    }
+
+    /**
+     * Converts the argument to the type it will be bound as, whole numbers and booleans become a Long, decimal numbers a Double
+     *
+     * @param arg The argument
+     * @return The typed argument
+     */
+    public static Object toTypedArgument(Object arg) {
+        if (arg == null || arg instanceof String || arg instanceof Long || arg instanceof Double || arg instanceof byte[])
+            return arg;
+        if (arg instanceof Integer || arg instanceof Short || arg instanceof Byte) return ((Number) arg).longValue();
+        if (arg instanceof Float) return ((Float) arg).doubleValue();
+        if (arg instanceof Boolean) return ((Boolean) arg) ? 1L : 0L;
+        return String.valueOf(arg);
+    }
+
     @Override
     public String toString() {
         return getQueryString();
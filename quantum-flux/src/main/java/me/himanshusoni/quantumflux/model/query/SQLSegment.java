@@ -30,6 +30,13 @@ public class SQLSegment implements DataFilterClause {
         return mSqlSegment;
     }
 
+    /**
+     * @return The amount of arguments of the segment
+     */
+    int getArgumentCount() {
+        return mArgs.length;
+    }
+
     @Override
     public SQLSegment addClause(DataFilterClause clause, DataFilterConjunction conjunction) {
         throw new QuantumFluxException("Clauses cannot be added to a data filter criterion");
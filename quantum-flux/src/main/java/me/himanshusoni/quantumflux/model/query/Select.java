@@ -3,13 +3,16 @@ package me.himanshusoni.quantumflux.model.query;
 import android.content.ContentResolver;
 import android.database.Cursor;
 import android.net.Uri;
+import android.text.TextUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import me.himanshusoni.quantumflux.QuantumFlux;
 import me.himanshusoni.quantumflux.model.generate.TableDetails;
@@ -19,6 +22,7 @@ import me.himanshusoni.quantumflux.model.util.CursorIterator;
 import me.himanshusoni.quantumflux.model.util.QuantumFluxCursor;
 import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
 import me.himanshusoni.quantumflux.provider.QuantumFluxContentProvider;
+import me.himanshusoni.quantumflux.provider.util.InListTableHelper;
 import me.himanshusoni.quantumflux.provider.util.UriMatcherHelper;
 
 /**
@@ -27,6 +31,10 @@ import me.himanshusoni.quantumflux.provider.util.UriMatcherHelper;
  */
 public class Select<T> implements DataFilterClause<Select<T>> {
 
+    private static final String COUNT_PROJECTION = "COUNT(*)";
+    private static final String SORT_ASC = "ASC";
+    private static final String SORT_DESC = "DESC";
+
     private final Class<T> mDataObjectClass;
     private DataFilterCriteria mFilterCriteria;
     private List<String> mSortingOrderList;
@@ -34,7 +42,10 @@ public class Select<T> implements DataFilterClause<Select<T>> {
     private List<String> mExcludedColumns;
     private Integer mOffset;
     private Integer mLimit;
-    private String mGroupBy;
+    private List<String> mGroupByColumns;
+    private DataFilterCriteria mHavingCriteria;
+    private Object[] mSeekValues;
+    private boolean isKeysetOrdered;
 
     private Select(Class<T> dataObjectClass) {
         this.mDataObjectClass = dataObjectClass;
@@ -42,6 +53,8 @@ public class Select<T> implements DataFilterClause<Select<T>> {
         this.mFilterCriteria = new DataFilterCriteria();
         this.mIncludedColumns = new ArrayList<>();
         this.mExcludedColumns = new ArrayList<>();
+        this.mGroupByColumns = new ArrayList<>();
+        this.mHavingCriteria = new DataFilterCriteria();
     }
 
     /**
@@ -168,7 +181,7 @@ public class Select<T> implements DataFilterClause<Select<T>> {
      */
     public Select<T> sortDesc(String... columns) {
         for (String column : columns) {
-            mSortingOrderList.add(column + " DESC");
+            mSortingOrderList.add(column + " " + SORT_DESC);
         }
         return this;
     }
@@ -181,7 +194,7 @@ public class Select<T> implements DataFilterClause<Select<T>> {
      */
     public Select<T> sortAsc(String... columns) {
         for (String column : columns) {
-            mSortingOrderList.add(column + " ASC");
+            mSortingOrderList.add(column + " " + SORT_ASC);
         }
         return this;
     }
@@ -215,10 +228,45 @@ public class Select<T> implements DataFilterClause<Select<T>> {
     }
 
 
-//    public Select<T> groupBy(String column) {
-//        this.mGroupBy = column;
-//        return this;
-//    }
+    /**
+     * Continues a keyset paginated select after the supplied sort key values.  Instead of skipping rows with an offset,
+     * a predicate is added that only matches the rows after the supplied keys in the sort order.
+     * <br>
+     * The values must be supplied in the same order as the sort columns, followed by the primary key value, unless the
+     * primary key is already one of the sort columns.  The primary key is added as a tie-breaker to the sorting, in the
+     * same direction as the last sort column.  Keys can not be null.  Calling this again replaces the previous keys.
+     *
+     * @param sortKeyValues The sort key values of the last item seen
+     * @return The current select instance
+     */
+    public Select<T> seekAfter(Object... sortKeyValues) {
+        this.mSeekValues = sortKeyValues;
+        this.isKeysetOrdered = true;
+        return this;
+    }
+
+    /**
+     * Groups the rows by the specified columns, used with {@link #queryAsAggregates(Aggregate...)}.
+     *
+     * @param columns The columns to group by
+     * @return The current select instance
+     */
+    public Select<T> groupBy(String... columns) {
+        Collections.addAll(mGroupByColumns, columns);
+        return this;
+    }
+
+    /**
+     * Filters the groups of an aggregate select, each clause will be added with an AND conjunction.  The column of the
+     * criterion can be an aggregate, using {@link Aggregate#getSqlRepresentation()}, or an aggregate alias.
+     *
+     * @param havingClause The filter clause to add
+     * @return The current select instance
+     */
+    public Select<T> having(DataFilterClause havingClause) {
+        this.mHavingCriteria.addClause(havingClause, DataFilterConjunction.AND);
+        return this;
+    }
 
     /**
      * Columns to retrieve, if not specified all columns will be retrieved.  Remember, the inflated object will only contain valid values for the selected columns.
@@ -244,6 +292,42 @@ public class Select<T> implements DataFilterClause<Select<T>> {
         return this;
     }
 
+    /**
+     * Queries a single page of a keyset paginated select, starting after the keys supplied to {@link #seekAfter(Object...)},
+     * or from the start if none were supplied.  The sort columns must be part of the projection.  The offset should not be
+     * used together with keyset pagination.  The page is queried with a copy, this select is not changed.
+     *
+     * @param pageSize The amount of items on a page
+     * @return The page, which can be used to query the following page
+     */
+    public KeysetPage<T> queryAsPage(int pageSize) {
+        if (pageSize < 1) {
+            throw new QuantumFluxException("Page size must be larger than 0");
+        }
+
+        Select<T> pageSelect = copy();
+        pageSelect.isKeysetOrdered = true;
+        //Query one extra item to find out if there is a next page
+        pageSelect.limit(pageSize + 1);
+
+        QuantumFluxCursor<T> cursor = pageSelect.queryAsCursor();
+        try {
+            List<T> items = new ArrayList<>(Math.min(cursor.getCount(), pageSize));
+            while (items.size() < pageSize && cursor.moveToNext()) {
+                items.add(cursor.inflate());
+            }
+
+            Object[] nextPageKeys = null;
+            if (cursor.getCount() > pageSize) {
+                nextPageKeys = findSortKeyValues(cursor.getTableDetails(), items.get(items.size() - 1));
+            }
+
+            return new KeysetPage<>(pageSelect, items, pageSize, nextPageKeys);
+        } finally {
+            cursor.close();
+        }
+    }
+
     /**
      * Executes the query and returns the results as a cursor. The {@link QuantumFluxCursor} is a wrapper for the normal cursor,
      * and in addition to providing the normal cursor functionality, it also has methods to manipulate model objects, such as inflating the current cursor
@@ -252,6 +336,23 @@ public class Select<T> implements DataFilterClause<Select<T>> {
      * @return The {@link QuantumFluxCursor} containing the results
      */
     public QuantumFluxCursor<T> queryAsCursor() {
+        QuantumFluxContentProvider directContentProvider = QuantumFlux.getDirectContentProvider();
+        if (directContentProvider != null) {
+            TableDetails tableDetails = QuantumFlux.findTableDetails(mDataObjectClass);
+            QueryBuilder where = buildWhereClause(QuantumFlux.getColumnMappingFactory());
+
+            Cursor cursor = directContentProvider.query(
+                    tableDetails,
+                    getProjection(tableDetails),
+                    where.getQueryString(),
+                    where.getTypedQueryArgs(),
+                    buildSort().getQueryString(),
+                    QuantumFluxContentProvider.constructLimit(mOffset, mLimit),
+                    UriMatcherHelper.generateItemUriBuilder(tableDetails).build());
+
+            return new QuantumFluxCursor<>(tableDetails, cursor);
+        }
+
         ContentResolverValues contentResolverValues = asContentResolverValue();
         ContentResolver contentResolver = QuantumFlux.getApplicationContext().getContentResolver();
 
@@ -278,6 +379,20 @@ public class Select<T> implements DataFilterClause<Select<T>> {
     }
 
 
+    /**
+     * Streams the results in chunks, using keyset pagination, see {@link #queryAsPage(int)}.  Only a single chunk of objects is
+     * held in memory at a time, and the cursor is closed after every chunk, so no cursor or database connection is held
+     * while the objects are being consumed.  This makes it suitable for iterating over very large tables.
+     * <br>
+     * The limit of this select is not applied, and the select is moved along as the iterator fetches the next chunks.
+     *
+     * @param chunkSize The amount of objects to fetch at a time
+     * @return The iterator over all of the results
+     */
+    public ChunkedIterator<T> queryAsChunkedIterator(int chunkSize) {
+        return new ChunkedIterator<>(this, chunkSize);
+    }
+
     /**
      * Does the same as the query cursor, but packs all of the cursor items into a list, once the list is populated, the cursor will be closed.
      *
@@ -299,36 +414,221 @@ public class Select<T> implements DataFilterClause<Select<T>> {
 
 
     /**
-     * Executes the query as a cursor, and then retrieves the row count from the cursor, the cursor is then closed and the count returned.
+     * Counts the results of this select with a SELECT COUNT(*) query using the same where clause, so none of the rows
+     * are loaded.  The offset and limit are applied to the count.
      *
-     * @return The count indicating the amount of results for this select
+     * @return The count indicating the amount of results for this select, as a long like the COUNT(*) it is read from
      */
-    public int queryAsCount() {
-        QuantumFluxCursor<T> cursor = queryAsCursor();
+    public long queryAsCount() {
+        TableDetails tableDetails = QuantumFlux.findTableDetails(mDataObjectClass);
+        QueryBuilder where = buildWhereClause(QuantumFlux.getColumnMappingFactory());
 
-        List<String> includedColumnsTemp = new ArrayList<>();
-        List<String> excludedColumnsTemp = new ArrayList<>();
-        Collections.copy(includedColumnsTemp, mIncludedColumns);
-        Collections.copy(excludedColumnsTemp, mExcludedColumns);
+        long count;
+
+        QuantumFluxContentProvider directContentProvider = QuantumFlux.getDirectContentProvider();
+        if (directContentProvider != null) {
+            count = directContentProvider.count(tableDetails, where.getQueryString(), where.getTypedQueryArgs());
+        } else {
+            //The offset and limit are left out of the uri, as they would apply to the single count row
+            Uri itemUri = UriMatcherHelper.generateItemUriBuilder(tableDetails).build();
+            ContentResolver contentResolver = QuantumFlux.getApplicationContext().getContentResolver();
+
+            Cursor cursor = contentResolver.query(itemUri, new String[]{COUNT_PROJECTION}, where.getQueryString(), where.getQueryArgsAsArray(), null);
+            try {
+                count = cursor != null && cursor.moveToFirst() ? cursor.getLong(0) : 0;
+            } finally {
+                if (cursor != null) cursor.close();
+            }
+        }
+
+        if (mOffset != null) count = Math.max(0, count - mOffset);
+        if (mLimit != null) count = Math.min(count, mLimit);
+
+        return count;
+    }
+
+
+    /**
+     * Sums the column over all of the matching rows.  Grouping, sorting, offset and limit are not applied.
+     *
+     * @param column The column to sum
+     * @return The sum, or 0 if there are no matching rows
+     */
+    public double sum(String column) {
+        Double total = queryAggregate(Aggregate.total(column));
+        return total == null ? 0 : total;
+    }
+
+    /**
+     * Averages the column over all of the matching rows.  Grouping, sorting, offset and limit are not applied.
+     *
+     * @param column The column to average
+     * @return The average, or null if there are no matching rows
+     */
+    public Double avg(String column) {
+        Object average = queryAggregate(Aggregate.avg(column));
+        return average == null ? null : ((Number) average).doubleValue();
+    }
+
+    /**
+     * Finds the smallest value of the column over all of the matching rows.  Grouping, sorting, offset and limit are not applied.
+     *
+     * @param column The column
+     * @param <V>    The java type of the column
+     * @return The smallest value converted to the java type of the column, or null if there are no matching rows
+     */
+    public <V> V min(String column) {
+        return queryAggregate(Aggregate.min(column).as(column));
+    }
+
+    /**
+     * Finds the largest value of the column over all of the matching rows.  Grouping, sorting, offset and limit are not applied.
+     *
+     * @param column The column
+     * @param <V>    The java type of the column
+     * @return The largest value converted to the java type of the column, or null if there are no matching rows
+     */
+    public <V> V max(String column) {
+        return queryAggregate(Aggregate.max(column).as(column));
+    }
 
-        mIncludedColumns.clear();
-        mExcludedColumns.clear();
+    /**
+     * Counts the distinct non null values of the column over all of the matching rows.  Grouping, sorting, offset and limit are not applied.
+     *
+     * @param column The column
+     * @return The amount of distinct values
+     */
+    public long countDistinct(String column) {
+        Long count = queryAggregate(Aggregate.countDistinct(column));
+        return count == null ? 0 : count;
+    }
 
-        String columnName = QuantumFlux.findTableDetails(mDataObjectClass).findPrimaryKeyColumn().getColumnName();
-        mIncludedColumns.add(columnName);
+    /**
+     * Executes the select as an aggregate query, returning a row per group containing the group by columns and the aggregates.
+     * If no group by columns are specified a single row is returned for all of the matching rows.  The having clause, sorting,
+     * offset and limit are applied to the groups.
+     *
+     * @param aggregates The aggregates to select
+     * @return The list containing a row for every group
+     */
+    public List<AggregateRow> queryAsAggregates(Aggregate... aggregates) {
+        String[] projection = new String[mGroupByColumns.size() + aggregates.length];
+        for (int i = 0; i < mGroupByColumns.size(); i++) {
+            projection[i] = mGroupByColumns.get(i);
+        }
+        for (int i = 0; i < aggregates.length; i++) {
+            projection[mGroupByColumns.size() + i] = aggregates[i].getProjection();
+        }
+
+        TableDetails tableDetails = QuantumFlux.findTableDetails(mDataObjectClass);
+        Cursor cursor = queryAggregates(tableDetails, projection, true);
         try {
-            return cursor.getCount();
+            List<AggregateRow> rows = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                rows.add(AggregateRow.inflate(cursor, tableDetails));
+            }
+            return rows;
         } finally {
-            if (cursor != null) cursor.close();
-            mIncludedColumns.clear();
+            cursor.close();
+        }
+    }
+
+    private <V> V queryAggregate(Aggregate aggregate) {
+        TableDetails tableDetails = QuantumFlux.findTableDetails(mDataObjectClass);
+        Cursor cursor = queryAggregates(tableDetails, new String[]{aggregate.getProjection()}, false);
+        try {
+            if (!cursor.moveToFirst()) return null;
 
-            //Restore the previous includes and excludes
-            Collections.copy(mIncludedColumns, mIncludedColumns);
-            Collections.copy(excludedColumnsTemp, mExcludedColumns);
+            return AggregateRow.inflate(cursor, tableDetails).getValue(aggregate);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Runs the aggregate projection, either directly or through the content provider
+     *
+     * @param tableDetails The table details
+     * @param projection   The projection containing the aggregates
+     * @param grouped      True to apply the group by, having, sorting, offset and limit
+     * @return The cursor containing the aggregate rows
+     */
+    private Cursor queryAggregates(TableDetails tableDetails, String[] projection, boolean grouped) {
+        QueryBuilder where = buildWhereClause(QuantumFlux.getColumnMappingFactory());
+        QueryBuilder having = mHavingCriteria.buildWhereClause(QuantumFlux.getColumnMappingFactory());
+
+        String groupBy = grouped && !mGroupByColumns.isEmpty() ? TextUtils.join(", ", mGroupByColumns) : null;
+        String havingClause = grouped && mHavingCriteria.hasFilterValue() ? having.getQueryString() : null;
+        String sortOrder = grouped ? buildSort().getQueryString() : null;
+        String limit = grouped ? QuantumFluxContentProvider.constructLimit(mOffset, mLimit) : null;
+
+        Cursor cursor;
+
+        QuantumFluxContentProvider directContentProvider = QuantumFlux.getDirectContentProvider();
+        if (directContentProvider != null) {
+            //The having arguments follow the where arguments in the statement
+            List<Object> selectionArgs = new ArrayList<>();
+            Collections.addAll(selectionArgs, where.getTypedQueryArgs());
+            if (havingClause != null) Collections.addAll(selectionArgs, having.getTypedQueryArgs());
+
+            cursor = directContentProvider.query(tableDetails, projection, where.getQueryString(), selectionArgs.toArray(), groupBy, havingClause, sortOrder, limit, null);
+        } else {
+            List<String> selectionArgs = new ArrayList<>();
+            Collections.addAll(selectionArgs, where.getQueryArgsAsArray());
+            if (havingClause != null) Collections.addAll(selectionArgs, having.getQueryArgsAsArray());
+
+            Uri.Builder itemUri = UriMatcherHelper.generateItemUriBuilder(tableDetails);
+
+            if (groupBy != null)
+                itemUri.appendQueryParameter(QuantumFluxContentProvider.PARAMETER_GROUP_BY, groupBy);
+            //Aggregates have no affinity, the text arguments of the content resolver are compared as numbers again
+            if (havingClause != null && !InListTableHelper.hasTableReferences(havingClause))
+                itemUri.appendQueryParameter(QuantumFluxContentProvider.PARAMETER_HAVING, QueryBuilder.castNumericArguments(havingClause, having.getTypedQueryArgs()));
+            else if (havingClause != null)
+                itemUri.appendQueryParameter(QuantumFluxContentProvider.PARAMETER_HAVING, havingClause);
+            if (grouped && mOffset != null)
+                itemUri.appendQueryParameter(QuantumFluxContentProvider.PARAMETER_OFFSET, mOffset.toString());
+            if (grouped && mLimit != null)
+                itemUri.appendQueryParameter(QuantumFluxContentProvider.PARAMETER_LIMIT, mLimit.toString());
+
+            ContentResolver contentResolver = QuantumFlux.getApplicationContext().getContentResolver();
+            cursor = contentResolver.query(itemUri.build(), projection, where.getQueryString(), selectionArgs.toArray(new String[selectionArgs.size()]), sortOrder);
         }
 
+        if (cursor == null) throw new QuantumFluxException("Failed to query aggregates for " + tableDetails.getTableName());
+        return cursor;
     }
 
+    /**
+     * Freezes this select into its sql, projection and argument slots, so it can be executed repeatedly with different
+     * bind values without being rebuilt, see {@link CompiledSelect}.  The current filter values only determine the shape,
+     * the values are supplied on every execution.
+     * <br>
+     * Selects with the same shape share their compiled select, so compiling again only builds the shape key, see
+     * {@link #getShapeKey()}.
+     *
+     * @return The compiled select
+     */
+    public CompiledSelect<T> compile() {
+        String shapeKey = getShapeKey();
+        CompiledSelect<T> compiledSelect = CompiledSelect.findCached(shapeKey);
+        if (compiledSelect != null) return compiledSelect;
+
+        TableDetails tableDetails = QuantumFlux.findTableDetails(mDataObjectClass);
+        QueryBuilder where = buildWhereClause(QuantumFlux.getColumnMappingFactory());
+
+        return CompiledSelect.compile(shapeKey, tableDetails, getProjection(tableDetails), where, buildSort().getQueryString(), mOffset, mLimit);
+    }
+
+    /**
+     * Compiles the filter of this select into a predicate that checks model objects in memory, without querying the
+     * database, see {@link PredicateCompiler}
+     *
+     * @return The predicate
+     */
+    public Predicate<T> toPredicate() {
+        return PredicateCompiler.compile(this);
+    }
 
     /**
      * Packages this select into a {@link ContentResolverValues} package, this will contain all of the required arguments to run this query on
@@ -425,7 +725,7 @@ public class Select<T> implements DataFilterClause<Select<T>> {
     private QueryBuilder buildSort() {
 
         QueryBuilder builder = new QueryBuilder();
-        Iterator<String> sortIterator = mSortingOrderList.iterator();
+        Iterator<String> sortIterator = getSortingOrder().iterator();
 
         while (sortIterator.hasNext()) {
             builder.append(sortIterator.next());
@@ -436,6 +736,234 @@ public class Select<T> implements DataFilterClause<Select<T>> {
         return builder;
     }
 
+    /**
+     * @return The sorting order, including the primary key tie-breaker if this is a keyset paginated select
+     */
+    private List<String> getSortingOrder() {
+        if (!isKeysetOrdered) return mSortingOrderList;
+
+        TableDetails.ColumnDetails primaryKey = QuantumFlux.findTableDetails(mDataObjectClass).findPrimaryKeyColumn();
+        if (primaryKey == null) {
+            throw new QuantumFluxException("Keyset pagination requires a primary key on " + mDataObjectClass.getSimpleName());
+        }
+
+        String primaryKeyColumn = primaryKey.getColumnName();
+        String direction = SORT_ASC;
+
+        for (String sortingOrder : mSortingOrderList) {
+            String[] sortColumn = splitSortingOrder(sortingOrder);
+            if (sortColumn[0].equals(primaryKeyColumn)) return mSortingOrderList;
+
+            direction = sortColumn[1];
+        }
+
+        List<String> sortingOrder = new ArrayList<>(mSortingOrderList);
+        sortingOrder.add(primaryKeyColumn + " " + direction);
+        return sortingOrder;
+    }
+
+    private static String[] splitSortingOrder(String sortingOrder) {
+        int separator = sortingOrder.lastIndexOf(' ');
+        return new String[]{sortingOrder.substring(0, separator), sortingOrder.substring(separator + 1)};
+    }
+
+    /**
+     * Builds the keyset predicate for the seek values.  For the sort columns c1, c2 the predicate is
+     * (c1 > v1) OR (c1 = v1 AND c2 > v2), with &lt; instead of &gt; for columns sorted in descending order.
+     *
+     * @return The keyset predicate
+     */
+    private DataFilterCriteria buildSeekCriteria() {
+        List<String> sortingOrder = getSortingOrder();
+        if (sortingOrder.size() != mSeekValues.length) {
+            throw new QuantumFluxException("Expected " + sortingOrder.size() + " seek values for the sort columns " + sortingOrder + ", but got " + mSeekValues.length);
+        }
+
+        DataFilterCriteria seekCriteria = new DataFilterCriteria();
+        for (int i = 0; i < sortingOrder.size(); i++) {
+            DataFilterCriteria seekBranch = new DataFilterCriteria();
+
+            for (int j = 0; j <= i; j++) {
+                String[] sortColumn = splitSortingOrder(sortingOrder.get(j));
+                Object seekValue = mSeekValues[j];
+                if (seekValue == null) {
+                    throw new QuantumFluxException("Seek value for the sort column " + sortColumn[0] + " can not be null");
+                }
+
+                DataFilterCriterion.DataFilterOperator operator;
+                if (j < i) operator = DataFilterCriterion.DataFilterOperator.EQUAL;
+                else if (SORT_DESC.equals(sortColumn[1])) operator = DataFilterCriterion.DataFilterOperator.SMALLER_THAN;
+                else operator = DataFilterCriterion.DataFilterOperator.GREATER_THAN;
+
+                seekBranch.addClause(new DataFilterCriterion(sortColumn[0], operator, seekValue), DataFilterConjunction.AND);
+            }
+
+            seekCriteria.addClause(seekBranch, DataFilterConjunction.OR);
+        }
+        return seekCriteria;
+    }
+
+    /**
+     * @return The filter criteria, combined with the keyset predicate if seek values were supplied
+     */
+    DataFilterCriteria getFilterCriteria() {
+        if (mSeekValues == null) return mFilterCriteria;
+
+        DataFilterCriteria filterCriteria = new DataFilterCriteria();
+        if (mFilterCriteria.hasFilterValue()) filterCriteria.addClause(mFilterCriteria, DataFilterConjunction.AND);
+        filterCriteria.addClause(buildSeekCriteria(), DataFilterConjunction.AND);
+        return filterCriteria;
+    }
+
+    private Object[] findSortKeyValues(TableDetails tableDetails, T item) {
+        List<String> sortingOrder = getSortingOrder();
+        Object[] sortKeyValues = new Object[sortingOrder.size()];
+
+        for (int i = 0; i < sortingOrder.size(); i++) {
+            String columnName = splitSortingOrder(sortingOrder.get(i))[0];
+            TableDetails.ColumnDetails columnDetails = tableDetails.findColumn(columnName);
+            if (columnDetails == null) {
+                throw new QuantumFluxException("Keyset pagination can only sort on table columns, " + columnName + " is not a column of " + tableDetails.getTableName());
+            }
+
+            try {
+                sortKeyValues[i] = columnDetails.getFieldValue(item);
+            } catch (IllegalAccessException e) {
+                throw new QuantumFluxException("Unable to access protected field, change the access level: " + columnName);
+            }
+        }
+        return sortKeyValues;
+    }
+
+    /**
+     * Builds the key of the {@link CompiledSelect} cache.  The key is derived from the structure of the select without
+     * building any sql: the model class, projection, sorting, offset and limit, and for every filter clause its
+     * conjunction, column, operator and the kind of its value.  Filter values only count as argument slots, except for
+     * IN lists, whose size is part of the shape.
+     *
+     * @return The shape key, or null if the filter contains a clause of an unknown type, which is not cached
+     */
+    String getShapeKey() {
+        StringBuilder key = new StringBuilder();
+        appendKeyPart(key, mDataObjectClass.getName());
+        appendKeyParts(key.append('I'), mIncludedColumns);
+        appendKeyParts(key.append('E'), mExcludedColumns);
+        appendKeyParts(key.append('S'), mSortingOrderList);
+        if (isKeysetOrdered) key.append('K');
+        if (mSeekValues != null) key.append('V').append(mSeekValues.length);
+        key.append('O').append(mOffset).append('L').append(mLimit);
+
+        return appendShape(key.append('W'), mFilterCriteria) ? key.toString() : null;
+    }
+
+    private static boolean appendShape(StringBuilder key, DataFilterClause clause) {
+        if (clause instanceof DataFilterCriteria) {
+            Map<DataFilterClause, DataFilterConjunction> filterClauses = ((DataFilterCriteria) clause).getFilterClauses();
+            key.append('(');
+            for (Map.Entry<DataFilterClause, DataFilterConjunction> filterClause : filterClauses.entrySet()) {
+                key.append(filterClause.getValue().ordinal());
+                if (!appendShape(key, filterClause.getKey())) return false;
+            }
+            key.append(')');
+        } else if (clause instanceof DataFilterCriterion) {
+            DataFilterCriterion criterion = (DataFilterCriterion) clause;
+            appendKeyPart(key.append('C'), criterion.mFilterColumn);
+            key.append(criterion.mFilterOperator == null ? "-" : criterion.mFilterOperator.name());
+
+            Object filterValue = criterion.mFilterValue;
+            if (filterValue instanceof Collection) {
+                int size = ((Collection) filterValue).size();
+                key.append('[').append(size);
+                if (size > QuantumFlux.getInListTableThreshold()) key.append('T');
+                key.append(']');
+            } else if (filterValue instanceof Select) {
+                Select innerSelect = (Select) filterValue;
+                key.append('{');
+                appendKeyPart(key, innerSelect.mDataObjectClass.getName());
+                appendKeyParts(key.append('I'), innerSelect.mIncludedColumns);
+                appendKeyParts(key.append('E'), innerSelect.mExcludedColumns);
+                if (!appendShape(key, innerSelect)) return false;
+                key.append('}');
+            } else if (filterValue != null) key.append('?');
+        } else if (clause instanceof Select) {
+            Select select = (Select) clause;
+            if (select.mSeekValues != null) return false;
+            return appendShape(key.append('Q'), select.mFilterCriteria);
+        } else if (clause instanceof SQLSegment) {
+            SQLSegment segment = (SQLSegment) clause;
+            appendKeyPart(key.append('R'), segment.getWhereClause());
+            key.append(segment.getArgumentCount());
+        } else return false;
+
+        return true;
+    }
+
+    private static void appendKeyParts(StringBuilder key, List<String> parts) {
+        key.append(parts.size());
+        for (String part : parts) {
+            appendKeyPart(key, part);
+        }
+    }
+
+    /**
+     * Appends the part prefixed by its length, so parts containing separators can not run into each other
+     */
+    private static void appendKeyPart(StringBuilder key, String part) {
+        if (part == null) key.append('-');
+        else key.append(part.length()).append(':').append(part);
+    }
+
+    Class<T> getDataObjectClass() {
+        return mDataObjectClass;
+    }
+
+    /**
+     * @return The sort columns in order, each as the column followed by ASC or DESC
+     */
+    List<String[]> getSortColumns() {
+        List<String[]> sortColumns = new ArrayList<>(mSortingOrderList.size());
+        for (String sortingOrder : mSortingOrderList) {
+            sortColumns.add(splitSortingOrder(sortingOrder));
+        }
+        return sortColumns;
+    }
+
+    /**
+     * @return True if the results are limited to a part of the matching rows, or grouped
+     */
+    boolean isPartial() {
+        return mOffset != null || mLimit != null || mSeekValues != null || !mGroupByColumns.isEmpty() || mHavingCriteria.hasFilterValue();
+    }
+
+    /**
+     * @return A new select with the same filter, projection, sorting, paging and grouping, which can be changed without changing this select
+     */
+    Select<T> copy() {
+        Select<T> select = new Select<>(mDataObjectClass);
+        select.mFilterCriteria = mFilterCriteria.copy();
+        select.mSortingOrderList.addAll(mSortingOrderList);
+        select.mIncludedColumns.addAll(mIncludedColumns);
+        select.mExcludedColumns.addAll(mExcludedColumns);
+        select.mOffset = mOffset;
+        select.mLimit = mLimit;
+        select.mGroupByColumns.addAll(mGroupByColumns);
+        select.mHavingCriteria = mHavingCriteria.copy();
+        select.mSeekValues = mSeekValues;
+        select.isKeysetOrdered = isKeysetOrdered;
+        return select;
+    }
+
+    /**
+     * @return A new select with the same filter and projection, without the sorting and paging
+     */
+    Select<T> copyFilter() {
+        Select<T> select = new Select<>(mDataObjectClass);
+        if (mFilterCriteria.hasFilterValue()) select.where(mFilterCriteria);
+        select.mIncludedColumns.addAll(mIncludedColumns);
+        select.mExcludedColumns.addAll(mExcludedColumns);
+        return select;
+    }
+
     protected QueryBuilder getSelectQuery() {
         TableDetails tableDetails = QuantumFlux.findTableDetails(mDataObjectClass);
 
@@ -469,12 +997,12 @@ public class Select<T> implements DataFilterClause<Select<T>> {
      */
     @Override
     public QueryBuilder buildWhereClause(SqlColumnMappingFactory columnMappingFactory) {
-        return mFilterCriteria.buildWhereClause(columnMappingFactory);
+        return getFilterCriteria().buildWhereClause(columnMappingFactory);
     }
 
     @Override
     public String getWhereClause() {
-        return mFilterCriteria.getWhereClause();
+        return getFilterCriteria().getWhereClause();
     }
 
     @Override
@@ -485,7 +1013,7 @@ public class Select<T> implements DataFilterClause<Select<T>> {
 
     @Override
     public boolean hasFilterValue() {
-        return mFilterCriteria.hasFilterValue();
+        return mFilterCriteria.hasFilterValue() || mSeekValues != null;
     }
 
     @Override
@@ -0,0 +1,129 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import java.util.Comparator;
+
+/**
+ * Compares values in their native sql type the way sqlite orders them: NULL first, then the numbers, the text and last the
+ * blobs.  Numbers are compared by their value whether they are integers or reals, text is compared with the BINARY
+ * collation and blobs byte for byte.
+ * <br>
+ * Values are expected in the form returned by {@link me.himanshusoni.quantumflux.model.map.SqlColumnMapping#toSqlType(Object)},
+ * any other value is compared as text.
+ */
+public class SqlValueComparator implements Comparator<Object> {
+
+    public static final SqlValueComparator INSTANCE = new SqlValueComparator();
+
+    private static final int CLASS_NULL = 0;
+    private static final int CLASS_NUMERIC = 1;
+    private static final int CLASS_TEXT = 2;
+    private static final int CLASS_BLOB = 3;
+
+    /**
+     * -2^63 and 2^63, the reals just outside of the range of a long
+     */
+    private static final double MIN_LONG_REAL = -9.223372036854775808E18;
+    private static final double MAX_LONG_REAL = 9.223372036854775808E18;
+
+    @Override
+    public int compare(Object lhs, Object rhs) {
+        return compareValues(lhs, rhs);
+    }
+
+    public static int compareValues(Object lhs, Object rhs) {
+        int lhsClass = getStorageClass(lhs);
+        int rhsClass = getStorageClass(rhs);
+        if (lhsClass != rhsClass) return lhsClass < rhsClass ? -1 : 1;
+
+        switch (lhsClass) {
+            case CLASS_NULL:
+                return 0;
+            case CLASS_NUMERIC:
+                return compareNumbers((Number) lhs, (Number) rhs);
+            case CLASS_BLOB:
+                return compareBlobs((byte[]) lhs, (byte[]) rhs);
+            default:
+                return compareText(lhs.toString(), rhs.toString());
+        }
+    }
+
+    /**
+     * @return The sqlite storage class the value is ordered by
+     */
+    static int getStorageClass(Object value) {
+        if (value == null) return CLASS_NULL;
+        if (value instanceof Number) return CLASS_NUMERIC;
+        if (value instanceof byte[]) return CLASS_BLOB;
+        return CLASS_TEXT;
+    }
+
+    static boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+    }
+
+    private static int compareNumbers(Number lhs, Number rhs) {
+        boolean isLhsIntegral = isIntegral(lhs);
+        boolean isRhsIntegral = isIntegral(rhs);
+
+        if (isLhsIntegral && isRhsIntegral) {
+            long lhsValue = lhs.longValue();
+            long rhsValue = rhs.longValue();
+            return lhsValue < rhsValue ? -1 : (lhsValue == rhsValue ? 0 : 1);
+        } else if (isLhsIntegral) {
+            return compareIntegerToReal(lhs.longValue(), rhs.doubleValue());
+        } else if (isRhsIntegral) {
+            return -compareIntegerToReal(rhs.longValue(), lhs.doubleValue());
+        }
+
+        double lhsValue = lhs.doubleValue();
+        double rhsValue = rhs.doubleValue();
+        return lhsValue < rhsValue ? -1 : (lhsValue == rhsValue ? 0 : 1);
+    }
+
+    /**
+     * Compares the exact values like sqlite does, converting the integer to a real would round it above 2^53.  The
+     * integral part of the real is compared with the integer first, and the fraction decides when they are equal.
+     */
+    private static int compareIntegerToReal(long integer, double real) {
+        if (Double.isNaN(real)) return -1;
+        if (real < MIN_LONG_REAL) return 1;
+        if (real >= MAX_LONG_REAL) return -1;
+
+        long integralPart = (long) real;
+        if (integer != integralPart) return integer < integralPart ? -1 : 1;
+
+        double fraction = real - integralPart;
+        return fraction > 0 ? -1 : (fraction < 0 ? 1 : 0);
+    }
+
+    /**
+     * The BINARY collation compares the utf-8 bytes, which orders the same as comparing the code points
+     */
+    private static int compareText(String lhs, String rhs) {
+        int lhsIndex = 0;
+        int rhsIndex = 0;
+
+        while (lhsIndex < lhs.length() && rhsIndex < rhs.length()) {
+            int lhsCodePoint = lhs.codePointAt(lhsIndex);
+            int rhsCodePoint = rhs.codePointAt(rhsIndex);
+            if (lhsCodePoint != rhsCodePoint) return lhsCodePoint < rhsCodePoint ? -1 : 1;
+
+            lhsIndex += Character.charCount(lhsCodePoint);
+            rhsIndex += Character.charCount(rhsCodePoint);
+        }
+
+        boolean isLhsEnded = lhsIndex >= lhs.length();
+        boolean isRhsEnded = rhsIndex >= rhs.length();
+        return isLhsEnded == isRhsEnded ? 0 : (isLhsEnded ? -1 : 1);
+    }
+
+    private static int compareBlobs(byte[] lhs, byte[] rhs) {
+        int length = Math.min(lhs.length, rhs.length);
+        for (int i = 0; i < length; i++) {
+            int lhsByte = lhs[i] & 0xff;
+            int rhsByte = rhs[i] & 0xff;
+            if (lhsByte != rhsByte) return lhsByte < rhsByte ? -1 : 1;
+        }
+        return lhs.length < rhs.length ? -1 : (lhs.length == rhs.length ? 0 : 1);
+    }
+}
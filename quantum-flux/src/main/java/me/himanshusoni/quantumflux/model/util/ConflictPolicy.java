@@ -0,0 +1,212 @@
+package me.himanshusoni.quantumflux.model.util;
+
+import android.net.Uri;
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import me.himanshusoni.quantumflux.model.annotation.TableConstraint;
+import me.himanshusoni.quantumflux.model.generate.TableDetails;
+
+/**
+ * Decides what happens to a row that conflicts with an existing row when upserting, see
+ * {@link me.himanshusoni.quantumflux.QuantumFlux#upsertAll(java.util.List, ConflictPolicy)}.
+ * <ul>
+ * <li>{@link #replace()} deletes the existing row and inserts the new one.  Keys assigned by the database change when
+ * the row is replaced on another unique key, since the new row gets a new key.</li>
+ * <li>{@link #ignore()} keeps the existing row, the new row is skipped.</li>
+ * <li>{@link #update(String...)} updates the columns of the existing row, and inserts the row if none exists yet.</li>
+ * </ul>
+ * A primary key assigned by the database is inserted for the objects that have it set, so they conflict with their existing
+ * row, and left for the database to assign for the objects that do not.
+ * <br>
+ * Replace and ignore act on every unique constraint of the table.  Update matches the existing row on a key, which is the
+ * primary key unless it is assigned by the database and not set, otherwise the single
+ * {@link me.himanshusoni.quantumflux.model.annotation.Column.Unique} column or UNIQUE table constraint.  A different key can
+ * be chosen with {@link #on(String...)}.
+ * <br>
+ * The policy travels to the content provider as uri parameters, so it works through the content resolver as well.
+ */
+public class ConflictPolicy {
+
+    public static final String PARAMETER_CONFLICT = "CONFLICT";
+    public static final String PARAMETER_CONFLICT_KEY = "CONFLICT_KEY";
+    public static final String PARAMETER_UPDATE_COLUMNS = "UPDATE_COLUMNS";
+
+    public enum Type {
+        REPLACE,
+        IGNORE,
+        UPDATE
+    }
+
+    private final Type mType;
+    private final String[] mUpdateColumns;
+    private String[] mKeyColumns;
+
+    private ConflictPolicy(Type type, String[] updateColumns, String[] keyColumns) {
+        this.mType = type;
+        this.mUpdateColumns = updateColumns;
+        this.mKeyColumns = keyColumns;
+    }
+
+    public static ConflictPolicy replace() {
+        return new ConflictPolicy(Type.REPLACE, null, null);
+    }
+
+    public static ConflictPolicy ignore() {
+        return new ConflictPolicy(Type.IGNORE, null, null);
+    }
+
+    /**
+     * @param columns The columns to update on the existing row, none to update all of the columns except the key
+     * @return The update policy
+     */
+    public static ConflictPolicy update(String... columns) {
+        return new ConflictPolicy(Type.UPDATE, columns.length == 0 ? null : columns, null);
+    }
+
+    /**
+     * Sets the key the existing row is matched on for the update policy.  The columns must be the primary key, a unique
+     * column, or the columns of a UNIQUE table constraint.
+     *
+     * @param keyColumns The key columns
+     * @return The current policy
+     */
+    public ConflictPolicy on(String... keyColumns) {
+        this.mKeyColumns = keyColumns;
+        return this;
+    }
+
+    public Type getType() {
+        return mType;
+    }
+
+    /**
+     * Adds the policy to the insert uri
+     *
+     * @param uriBuilder The insert uri builder
+     * @return The uri builder
+     */
+    public Uri.Builder appendTo(Uri.Builder uriBuilder) {
+        uriBuilder.appendQueryParameter(PARAMETER_CONFLICT, mType.name());
+        if (mKeyColumns != null) uriBuilder.appendQueryParameter(PARAMETER_CONFLICT_KEY, TextUtils.join(",", mKeyColumns));
+        if (mUpdateColumns != null) uriBuilder.appendQueryParameter(PARAMETER_UPDATE_COLUMNS, TextUtils.join(",", mUpdateColumns));
+        return uriBuilder;
+    }
+
+    /**
+     * @param uri The insert uri
+     * @return The policy added to the uri, or null if the uri is a plain insert
+     */
+    public static ConflictPolicy fromUri(Uri uri) {
+        String type = uri.getQueryParameter(PARAMETER_CONFLICT);
+        if (TextUtils.isEmpty(type)) return null;
+
+        String keyColumns = uri.getQueryParameter(PARAMETER_CONFLICT_KEY);
+        String updateColumns = uri.getQueryParameter(PARAMETER_UPDATE_COLUMNS);
+
+        return new ConflictPolicy(Type.valueOf(type),
+                TextUtils.isEmpty(updateColumns) ? null : updateColumns.split(","),
+                TextUtils.isEmpty(keyColumns) ? null : keyColumns.split(","));
+    }
+
+    /**
+     * Finds the key the existing row is matched on, see {@link #on(String...)}.  A primary key assigned by the database
+     * is only a key for the rows that have it set, rows without it can not match an existing row on it.
+     *
+     * @param tableDetails The table
+     * @param columnNames  The columns that are inserted
+     * @return The key columns, or null if the rows can not match an existing row and are always inserted
+     */
+    public String[] resolveKeyColumns(TableDetails tableDetails, String[] columnNames) {
+        List<String[]> uniqueKeys = findUniqueKeys(tableDetails);
+        Set<String> insertedColumns = toLowerCaseSet(columnNames);
+
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        boolean isPrimaryKeyInserted = primaryKeyColumn != null && insertedColumns.contains(primaryKeyColumn.getColumnName().toLowerCase());
+
+        if (mKeyColumns != null) {
+            Set<String> keyColumns = toLowerCaseSet(mKeyColumns);
+            for (String[] uniqueKey : uniqueKeys) {
+                if (!toLowerCaseSet(uniqueKey).equals(keyColumns)) continue;
+
+                boolean isUnsetPrimaryKey = primaryKeyColumn != null && primaryKeyColumn.isAutoIncrement() && !isPrimaryKeyInserted
+                        && keyColumns.contains(primaryKeyColumn.getColumnName().toLowerCase());
+                return isUnsetPrimaryKey ? null : mKeyColumns;
+            }
+            throw new QuantumFluxException("The columns " + Arrays.toString(mKeyColumns) + " are not a unique key of " + tableDetails.getTableName());
+        }
+
+        if (primaryKeyColumn != null && (!primaryKeyColumn.isAutoIncrement() || isPrimaryKeyInserted)) {
+            return new String[]{primaryKeyColumn.getColumnName()};
+        }
+
+        //Only the unique keys other than the unset database assigned primary key are left
+        if (primaryKeyColumn != null) uniqueKeys.remove(0);
+        if (uniqueKeys.size() == 1) return uniqueKeys.get(0);
+        if (uniqueKeys.isEmpty() && primaryKeyColumn != null) return null;
+
+        throw new QuantumFluxException("Unable to choose the conflict key of " + tableDetails.getTableName() + ", specify it using ConflictPolicy.on()");
+    }
+
+    /**
+     * @param tableDetails The table
+     * @param columnNames  The columns that are inserted
+     * @param keyColumns   The key columns
+     * @return The columns to update, limited to the inserted columns
+     */
+    public String[] resolveUpdateColumns(TableDetails tableDetails, String[] columnNames, String[] keyColumns) {
+        Set<String> keys = toLowerCaseSet(keyColumns);
+        Set<String> requestedColumns = mUpdateColumns == null ? null : toLowerCaseSet(mUpdateColumns);
+
+        List<String> updateColumns = new ArrayList<>(columnNames.length);
+        for (String columnName : columnNames) {
+            String lowerCaseName = columnName.toLowerCase();
+            if (keys.contains(lowerCaseName)) continue;
+            if (requestedColumns != null && !requestedColumns.contains(lowerCaseName)) continue;
+
+            updateColumns.add(columnName);
+        }
+
+        if (requestedColumns != null && updateColumns.size() != requestedColumns.size()) {
+            throw new QuantumFluxException("The update columns " + Arrays.toString(mUpdateColumns) + " must be inserted columns of " + tableDetails.getTableName() + " and not part of the key");
+        }
+        return updateColumns.toArray(new String[updateColumns.size()]);
+    }
+
+    /**
+     * @return The primary key first if there is one, followed by the unique columns and the UNIQUE table constraints
+     */
+    private static List<String[]> findUniqueKeys(TableDetails tableDetails) {
+        List<String[]> uniqueKeys = new ArrayList<>();
+
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        if (primaryKeyColumn != null) uniqueKeys.add(new String[]{primaryKeyColumn.getColumnName()});
+
+        for (TableDetails.ColumnDetails column : tableDetails.getColumns()) {
+            if (column.isUnique() && !column.isPrimaryKey()) uniqueKeys.add(new String[]{column.getColumnName()});
+        }
+        for (TableConstraint constraint : tableDetails.getConstraints()) {
+            if (constraint.constraintType() == TableConstraint.Type.UNIQUE) uniqueKeys.add(constraint.constraintColumns());
+        }
+        return uniqueKeys;
+    }
+
+    private static Set<String> toLowerCaseSet(String[] columns) {
+        Set<String> columnSet = new HashSet<>(columns.length);
+        for (String column : columns) {
+            columnSet.add(column.trim().toLowerCase());
+        }
+        return columnSet;
+    }
+
+    @Override
+    public String toString() {
+        return "ConflictPolicy[" + mType + (mKeyColumns == null ? "" : " on " + Arrays.toString(mKeyColumns))
+                + (mUpdateColumns == null ? "" : " columns " + Arrays.toString(mUpdateColumns)) + "]";
+    }
+}
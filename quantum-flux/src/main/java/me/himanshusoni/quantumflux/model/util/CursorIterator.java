@@ -17,10 +17,19 @@ import me.himanshusoni.quantumflux.model.generate.TableDetails;
 public class CursorIterator<T> implements Iterator<T>, Closeable {
     private final TableDetails mTableDetails;
     private final Cursor mCursor;
+    private final ProjectionBinding mProjectionBinding;
 
     public CursorIterator(TableDetails tableDetails, Cursor cursor) {
         this.mTableDetails = tableDetails;
         this.mCursor = cursor;
+        this.mProjectionBinding = new ProjectionBinding(tableDetails);
+    }
+
+    /**
+     * @return The binding of the cursor columns to the table columns, resolved once and reused for every row
+     */
+    public ProjectionBinding getProjectionBinding() {
+        return mProjectionBinding;
     }
 
     @Override
@@ -44,7 +53,7 @@ public class CursorIterator<T> implements Iterator<T>, Closeable {
             }
 
             try {
-                entity = ModelInflater.inflate(mCursor, mTableDetails);
+                entity = ModelInflater.inflate(mCursor, mTableDetails, mProjectionBinding.bind(mCursor));
             } finally {
                 mCursor.moveToNext();
             }
@@ -0,0 +1,70 @@
+package me.himanshusoni.quantumflux.model.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Generates the client side keys for {@link me.himanshusoni.quantumflux.model.annotation.Column.PrimaryKey.KeyStrategy#TIME_ORDERED_ID}
+ * and {@link me.himanshusoni.quantumflux.model.annotation.Column.PrimaryKey.KeyStrategy#TIME_ORDERED_UUID}.  Keys generated
+ * by the same process are strictly increasing, so rows are appended to the end of the primary key index.
+ */
+public class KeyGenerator {
+
+    /**
+     * 2015-01-01 UTC, the ids have 41 bits of milliseconds which last until 2084
+     */
+    private static final long ID_EPOCH = 1420070400000L;
+    private static final int ID_NODE_BITS = 10;
+    private static final int ID_SEQUENCE_BITS = 12;
+    private static final long ID_SEQUENCE_MASK = (1L << ID_SEQUENCE_BITS) - 1;
+    private static final long UUID_SEQUENCE_MASK = (1L << 12) - 1;
+
+    private static final SecureRandom mRandom = new SecureRandom();
+    /**
+     * Random per process, so processes generating ids in the same millisecond do not collide
+     */
+    private static final long mNodeId = mRandom.nextInt(1 << ID_NODE_BITS);
+
+    private static long mLastIdTime = -1;
+    private static long mIdSequence;
+    private static long mLastUuidTime = -1;
+    private static long mUuidSequence;
+
+    /**
+     * @return A positive 64 bit id made up of the milliseconds since 2015, a random node id and a sequence number
+     */
+    public static synchronized long nextTimeOrderedId() {
+        long time = Math.max(System.currentTimeMillis() - ID_EPOCH, mLastIdTime);
+
+        if (time == mLastIdTime) {
+            mIdSequence = (mIdSequence + 1) & ID_SEQUENCE_MASK;
+            //Sequence exhausted for this millisecond, borrow the next one to stay increasing
+            if (mIdSequence == 0) time++;
+        } else {
+            mIdSequence = 0;
+        }
+        mLastIdTime = time;
+
+        return (time << (ID_NODE_BITS + ID_SEQUENCE_BITS)) | (mNodeId << ID_SEQUENCE_BITS) | mIdSequence;
+    }
+
+    /**
+     * @return A version 7 UUID, the unix milliseconds followed by a sequence number and random bits
+     */
+    public static synchronized String nextTimeOrderedUuid() {
+        long time = Math.max(System.currentTimeMillis(), mLastUuidTime);
+
+        if (time == mLastUuidTime) {
+            mUuidSequence = (mUuidSequence + 1) & UUID_SEQUENCE_MASK;
+            if (mUuidSequence == 0) time++;
+        } else {
+            mUuidSequence = 0;
+        }
+        mLastUuidTime = time;
+
+        long mostSignificantBits = (time << 16) | 0x7000L | mUuidSequence;
+        long leastSignificantBits = (mRandom.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+        return new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+}
@@ -1,7 +1,9 @@
 package me.himanshusoni.quantumflux.model.util;
 
+import android.content.ContentUris;
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.net.Uri;
 
 import java.util.List;
 
@@ -14,7 +16,7 @@ public class ModelInflater {
 
     public static Object deflateColumn(TableDetails tableDetails, TableDetails.ColumnDetails columnDetails, Object dataModelObject) {
         try {
-            Object value = columnDetails.getColumnField().get(dataModelObject);
+            Object value = columnDetails.getFieldValue(dataModelObject);
 
             if (value == null) return null;
             else return columnDetails.getColumnTypeMapping().toSqlType(value);
@@ -42,6 +44,67 @@ public class ModelInflater {
         return contentValues;
     }
 
+    /**
+     * Same as {@link #deflate(TableDetails, Object)}, assigning a client side generated key to the object first, see
+     * {@link #assignClientKeys(TableDetails, Object...)}
+     */
+    public static ContentValues deflateForInsert(TableDetails tableDetails, Object dataModelObject) {
+        assignClientKeys(tableDetails, dataModelObject);
+        return deflate(tableDetails, dataModelObject);
+    }
+
+    /**
+     * Assigns a time ordered key to the objects about to be inserted whose key is not set yet.  Objects of tables without
+     * a time ordered primary key are left untouched.
+     *
+     * @param tableDetails     The table details of the objects
+     * @param dataModelObjects The objects about to be inserted
+     */
+    public static void assignClientKeys(TableDetails tableDetails, Object... dataModelObjects) {
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        if (primaryKeyColumn == null) return;
+
+        try {
+            for (Object dataModelObject : dataModelObjects) {
+                primaryKeyColumn.assignClientKey(dataModelObject);
+            }
+        } catch (IllegalAccessException e) {
+            throw new QuantumFluxException("Unable to access protected field, change the access level: " + primaryKeyColumn.getColumnName());
+        }
+    }
+
+    /**
+     * Assigns the row id generated by the database to the auto increment primary key of the inserted object.
+     * Objects without an auto increment primary key are left untouched, since their key was inserted from the object.
+     *
+     * @param tableDetails    The table details of the object
+     * @param dataModelObject The inserted object
+     * @param rowId           The row id returned by the insert
+     */
+    public static void setGeneratedKey(TableDetails tableDetails, Object dataModelObject, long rowId) {
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        if (primaryKeyColumn == null || !primaryKeyColumn.isAutoIncrement() || rowId == -1) return;
+
+        try {
+            primaryKeyColumn.setGeneratedKey(dataModelObject, rowId);
+        } catch (IllegalAccessException e) {
+            throw new QuantumFluxException("Unable to access protected field, change the access level: " + primaryKeyColumn.getColumnName());
+        }
+    }
+
+    /**
+     * Same as {@link #setGeneratedKey(TableDetails, Object, long)}, reading the row id from the item uri returned by the insert
+     *
+     * @param tableDetails    The table details of the object
+     * @param dataModelObject The inserted object
+     * @param itemUri         The item uri returned by the insert, may be null
+     */
+    public static void setGeneratedKey(TableDetails tableDetails, Object dataModelObject, Uri itemUri) {
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        if (itemUri == null || primaryKeyColumn == null || !primaryKeyColumn.isAutoIncrement()) return;
+
+        setGeneratedKey(tableDetails, dataModelObject, ContentUris.parseId(itemUri));
+    }
 
     public static ContentValues[] deflateAll(TableDetails tableDetails, Object... dataModelObjects) {
         List<TableDetails.ColumnDetails> columns = tableDetails.getColumns();
@@ -66,7 +129,48 @@ public class ModelInflater {
         return contentValuesArray;
     }
 
+    /**
+     * Same as {@link #deflateAll(TableDetails, Object...)}, assigning client side generated keys to the objects first, see
+     * {@link #assignClientKeys(TableDetails, Object...)}
+     */
+    public static ContentValues[] deflateAllForInsert(TableDetails tableDetails, Object... dataModelObjects) {
+        assignClientKeys(tableDetails, dataModelObjects);
+        return deflateAll(tableDetails, dataModelObjects);
+    }
+
+    /**
+     * Same as {@link #deflateAllForInsert(TableDetails, Object...)}, but includes the database assigned primary key of the
+     * objects whose key is set, so an upsert can match them to their existing rows
+     */
+    public static ContentValues[] deflateAllForUpsert(TableDetails tableDetails, Object... dataModelObjects) {
+        ContentValues[] contentValuesArray = deflateAllForInsert(tableDetails, dataModelObjects);
+
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        if (primaryKeyColumn == null || !primaryKeyColumn.isAutoIncrement()) return contentValuesArray;
+
+        for (int i = 0; i < dataModelObjects.length; i++) {
+            try {
+                if (primaryKeyColumn.isKeySet(dataModelObjects[i])) primaryKeyColumn.setContentValue(contentValuesArray[i], dataModelObjects[i]);
+            } catch (IllegalAccessException e) {
+                throw new QuantumFluxException("Unable to access protected field, change the access level: " + primaryKeyColumn.getColumnName());
+            }
+        }
+        return contentValuesArray;
+    }
+
     public static <T> T inflate(Cursor cursor, TableDetails tableDetails) {
+        return inflate(cursor, tableDetails, ProjectionBinding.resolve(cursor, tableDetails));
+    }
+
+    /**
+     * Inflates the object at the current cursor position, using the already resolved columns
+     *
+     * @param cursor       The cursor to read from
+     * @param tableDetails The table details of the object to inflate
+     * @param columns      The column details for every cursor column, as resolved by {@link ProjectionBinding}
+     * @return The inflated object
+     */
+    public static <T> T inflate(Cursor cursor, TableDetails tableDetails, TableDetails.ColumnDetails[] columns) {
         T dataModelObject;
 
         try {
@@ -75,11 +179,9 @@ public class ModelInflater {
             throw new QuantumFluxException("Could not create a new instance of data model object: " + tableDetails.getTableName());
         }
 
-        for (int i = 0; i < cursor.getColumnCount(); i++) {
-            String columnName = cursor.getColumnName(i);
-            TableDetails.ColumnDetails columnDetails = tableDetails.findColumn(columnName);
-            inflateColumn(cursor, dataModelObject, columnDetails, i);
-
+        for (int i = 0; i < columns.length; i++) {
+            TableDetails.ColumnDetails columnDetails = columns[i];
+            if (columnDetails != null) inflateColumn(cursor, dataModelObject, columnDetails, i);
         }
 
         return dataModelObject;
@@ -0,0 +1,118 @@
+package me.himanshusoni.quantumflux.model.util;
+
+import android.util.LruCache;
+
+/**
+ * A size bounded cache of model objects for a single table, keyed by the primary key value as it appears in the item uri.
+ * It is used by {@link me.himanshusoni.quantumflux.QuantumFlux#findByPrimaryKey(Class, Object)}, and invalidated by the content
+ * provider whenever it notifies changes to the table, a single row for item uri's and the entire cache otherwise.
+ * <br>
+ * Every invalidation moves the cache to a new generation.  Objects read from the database are only cached if no invalidation
+ * happened since the read started, so a row changed during the read is never cached in its old state.
+ * <br>
+ * Cached objects are shared between callers, so they should not be modified without saving them.
+ */
+public class PrimaryKeyCache {
+
+    private final LruCache<String, Object> mCache;
+    private long mGeneration;
+    private int mHitCount;
+    private int mMissCount;
+    private int mInvalidationCount;
+    private int mClearedEntryCount;
+
+    public PrimaryKeyCache(int maxSize) {
+        this.mCache = new LruCache<>(maxSize);
+    }
+
+    /**
+     * @param key The primary key value
+     * @return The cached object, or null if it is not cached
+     */
+    public synchronized Object get(String key) {
+        Object item = mCache.get(key);
+
+        if (item != null) mHitCount++;
+        else mMissCount++;
+
+        return item;
+    }
+
+    /**
+     * @return The current generation, to be supplied to {@link #put(String, Object, long)} after reading the object
+     */
+    public synchronized long getGeneration() {
+        return mGeneration;
+    }
+
+    /**
+     * Caches the object, unless the cache has been invalidated since the generation was retrieved
+     *
+     * @param key        The primary key value
+     * @param item       The object read from the database
+     * @param generation The generation retrieved before reading the object
+     */
+    public synchronized void put(String key, Object item, long generation) {
+        if (generation != mGeneration || item == null) return;
+
+        mCache.put(key, item);
+    }
+
+    /**
+     * Removes a single row from the cache
+     *
+     * @param key The primary key value
+     */
+    public synchronized void invalidate(String key) {
+        mGeneration++;
+        mInvalidationCount++;
+        mCache.remove(key);
+    }
+
+    /**
+     * Removes all of the rows from the cache
+     */
+    public synchronized void invalidateAll() {
+        mGeneration++;
+        mInvalidationCount++;
+        mClearedEntryCount += mCache.size();
+        mCache.evictAll();
+    }
+
+    public synchronized int getSize() {
+        return mCache.size();
+    }
+
+    public synchronized int getMaxSize() {
+        return mCache.maxSize();
+    }
+
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return The amount of objects removed to make space for new ones
+     */
+    public synchronized int getEvictionCount() {
+        //Clearing the cache is counted as evictions by the lru cache, those are invalidations
+        return mCache.evictionCount() - mClearedEntryCount;
+    }
+
+    /**
+     * @return The amount of times the cache was invalidated by changes
+     */
+    public synchronized int getInvalidationCount() {
+        return mInvalidationCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PrimaryKeyCache[size=" + getSize() + ", maxSize=" + getMaxSize() + ", hits=" + mHitCount + ", misses=" + mMissCount
+                + ", evictions=" + getEvictionCount() + ", invalidations=" + mInvalidationCount + "]";
+    }
+}
@@ -0,0 +1,70 @@
+package me.himanshusoni.quantumflux.model.util;
+
+import android.database.Cursor;
+
+import me.himanshusoni.quantumflux.model.generate.TableDetails;
+
+/**
+ * Maps the columns of a cursor to the {@link TableDetails.ColumnDetails} of the table.  The projection of a cursor does not
+ * change, so the mapping is resolved on the first row, and reused for all of the following rows, instead of looking up
+ * every column by name for every row.
+ * <br>
+ * The hit and miss counts can be used to confirm that the binding is being reused.
+ */
+public class ProjectionBinding {
+
+    private final TableDetails mTableDetails;
+    private TableDetails.ColumnDetails[] mColumns;
+    private int mHitCount;
+    private int mMissCount;
+
+    public ProjectionBinding(TableDetails tableDetails) {
+        this.mTableDetails = tableDetails;
+    }
+
+    /**
+     * Gets the column details for every column in the cursor, resolving them if it has not been done yet.
+     *
+     * @param cursor The cursor to bind
+     * @return The column details, indexed by the cursor column index.  Columns not known to the table are null.
+     */
+    public TableDetails.ColumnDetails[] bind(Cursor cursor) {
+        if (mColumns != null && mColumns.length == cursor.getColumnCount()) {
+            mHitCount++;
+            return mColumns;
+        }
+
+        mMissCount++;
+        mColumns = resolve(cursor, mTableDetails);
+        return mColumns;
+    }
+
+    /**
+     * @return The amount of times the resolved binding was reused
+     */
+    public int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return The amount of times the binding had to be resolved
+     */
+    public int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Looks up the column details for every column in the cursor
+     *
+     * @param cursor       The cursor to resolve the columns for
+     * @param tableDetails The table details containing the columns
+     * @return The column details, indexed by the cursor column index
+     */
+    public static TableDetails.ColumnDetails[] resolve(Cursor cursor, TableDetails tableDetails) {
+        TableDetails.ColumnDetails[] columns = new TableDetails.ColumnDetails[cursor.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = tableDetails.findColumn(cursor.getColumnName(i));
+        }
+        return columns;
+    }
+}
@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import me.himanshusoni.quantumflux.QuantumFlux;
 import me.himanshusoni.quantumflux.QuantumFluxSyncHelper;
 import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.provider.QuantumFluxContentProvider;
 
 public class QuantumFluxBatchDispatcher<T> extends ArrayList<T> {
 
@@ -63,8 +64,14 @@ public class QuantumFluxBatchDispatcher<T> extends ArrayList<T> {
             if (isSync) {
                 QuantumFluxSyncHelper.insert(mContentProviderClient, toArray());
             } else {
-                ContentValues[] values = ModelInflater.deflateAll(mTableDetails, toArray());
-                mContentProviderClient.bulkInsert(mUri, values);
+                QuantumFluxContentProvider localContentProvider = QuantumFlux.findLocalContentProvider(mContentProviderClient);
+
+                if (localContentProvider != null) {
+                    localContentProvider.bulkInsert(mUri, this);
+                } else {
+                    ContentValues[] values = ModelInflater.deflateAllForInsert(mTableDetails, toArray());
+                    mContentProviderClient.bulkInsert(mUri, values);
+                }
             }
             clear();
         } catch (RemoteException e) {
@@ -14,11 +14,13 @@ import me.himanshusoni.quantumflux.model.generate.TableDetails;
 public class QuantumFluxCursor<T> extends CursorWrapper {
 
     private final TableDetails mTableDetails;
+    private final ProjectionBinding mProjectionBinding;
     private LruCache<Integer, SoftReference<T>> mObjectCache;
 
     public QuantumFluxCursor(TableDetails tableDetails, Cursor cursor) {
         super(cursor);
         this.mTableDetails = tableDetails;
+        this.mProjectionBinding = new ProjectionBinding(tableDetails);
     }
 
     public QuantumFluxCursor(TableDetails tableDetails, Cursor cursor, int cacheSize) {
@@ -65,6 +67,13 @@ public class QuantumFluxCursor<T> extends CursorWrapper {
         return mTableDetails;
     }
 
+    /**
+     * @return The binding of the cursor columns to the table columns, resolved once and reused for every row
+     */
+    public ProjectionBinding getProjectionBinding() {
+        return mProjectionBinding;
+    }
+
     /**
      * Attempts to retrieve an object from the cache, if it does not exist in the cache, and the cache is enabled, then
      * the object will be inflated and added to cache before returning.
@@ -73,7 +82,7 @@ public class QuantumFluxCursor<T> extends CursorWrapper {
      */
     private T getObjectFromCacheOrInflate() {
 
-        if (mObjectCache == null) return ModelInflater.inflate(this, mTableDetails);
+        if (mObjectCache == null) return ModelInflater.inflate(this, mTableDetails, mProjectionBinding.bind(this));
 
         SoftReference<T> objectReference = mObjectCache.get(getPosition());
 
@@ -95,7 +104,7 @@ public class QuantumFluxCursor<T> extends CursorWrapper {
      * @return The inflated object
      */
     private T insertCacheObject() {
-        T cachedObject = ModelInflater.inflate(this, mTableDetails);
+        T cachedObject = ModelInflater.inflate(this, mTableDetails, mProjectionBinding.bind(this));
         mObjectCache.put(getPosition(), new SoftReference<>(cachedObject));
 
         return cachedObject;
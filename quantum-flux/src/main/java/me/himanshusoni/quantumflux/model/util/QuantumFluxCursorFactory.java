@@ -1,9 +1,11 @@
 package me.himanshusoni.quantumflux.model.util;
 
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteCursor;
 import android.database.sqlite.SQLiteCursorDriver;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteProgram;
 import android.database.sqlite.SQLiteQuery;
 
 import me.himanshusoni.quantumflux.logger.QuantumFluxLog;
@@ -11,13 +13,26 @@ import me.himanshusoni.quantumflux.logger.QuantumFluxLog;
 public class QuantumFluxCursorFactory implements SQLiteDatabase.CursorFactory {
 
     private final boolean isDebugEnabled;
+    private final Object[] mBindArgs;
 
     public QuantumFluxCursorFactory(TableDetailsCache tableDetailCache) {
         this(false);
     }
 
     public QuantumFluxCursorFactory(boolean debugEnabled) {
+        this(debugEnabled, null);
+    }
+
+    /**
+     * Creates a factory that binds the arguments with their type onto the query, instead of binding them all as strings.
+     * The query must be run without selection arguments.
+     *
+     * @param debugEnabled True to log the queries
+     * @param bindArgs     The typed arguments, see {@link me.himanshusoni.quantumflux.model.query.QueryBuilder#getTypedQueryArgs()}
+     */
+    public QuantumFluxCursorFactory(boolean debugEnabled, Object[] bindArgs) {
         this.isDebugEnabled = debugEnabled;
+        this.mBindArgs = bindArgs;
     }
 
     @Override
@@ -26,6 +41,47 @@ public class QuantumFluxCursorFactory implements SQLiteDatabase.CursorFactory {
             QuantumFluxLog.d(sqLiteQuery.toString());
         }
 
+        if (mBindArgs != null) bindArguments(sqLiteQuery, mBindArgs);
+
         return new SQLiteCursor(sqLiteCursorDriver, tableName, sqLiteQuery);
     }
+
+    /**
+     * Binds the arguments with the bind method matching their type, Long with bindLong, Double with bindDouble and so on
+     *
+     * @param program The compiled statement or query
+     * @param args    The typed arguments
+     */
+    public static void bindArguments(SQLiteProgram program, Object[] args) {
+        for (int i = 0; i < args.length; i++) {
+            DatabaseUtils.bindObjectToProgram(program, i + 1, args[i]);
+        }
+    }
+
+    /**
+     * @param args The arguments
+     * @return True if any of the arguments can not be bound as a string
+     */
+    public static boolean hasTypedArguments(Object[] args) {
+        if (args == null) return false;
+
+        for (Object arg : args) {
+            if (!(arg instanceof String)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param args The string arguments
+     * @return The arguments as a string array
+     */
+    public static String[] toStringArguments(Object[] args) {
+        if (args == null || args instanceof String[]) return (String[]) args;
+
+        String[] stringArgs = new String[args.length];
+        for (int i = 0; i < args.length; i++) {
+            stringArgs[i] = (String) args[i];
+        }
+        return stringArgs;
+    }
 }
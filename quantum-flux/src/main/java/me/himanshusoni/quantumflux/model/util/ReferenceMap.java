@@ -3,11 +3,19 @@ package me.himanshusoni.quantumflux.model.util;
 
 import java.lang.ref.SoftReference;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import me.himanshusoni.quantumflux.QuantumFlux;
 import me.himanshusoni.quantumflux.model.annotation.References;
 import me.himanshusoni.quantumflux.model.generate.ReflectionHelper;
+import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.model.map.SqlColumnMapping;
 
 public class ReferenceMap extends IdentityHashMap<Class<?>, SoftReference<Object>> {
 
@@ -27,25 +35,137 @@ public class ReferenceMap extends IdentityHashMap<Class<?>, SoftReference<Object
             }
         }
 
-        for (Field field : ReflectionHelper.getAllObjectFields(mReferenceObject.getClass())) {
-            try {
-                if (field.isAnnotationPresent(References.class) && field.getAnnotation(References.class).value() == referenceToFind) {
-                    if (!field.isAccessible()) {
-                        field.setAccessible(true);
-                    }
+        Field field = findReferenceField(mReferenceObject.getClass(), referenceToFind);
+        T reference = QuantumFlux.findByPrimaryKey(referenceToFind, getFieldValue(field, mReferenceObject));
 
-                    T reference = QuantumFlux.findByPrimaryKey(referenceToFind, field.get(mReferenceObject));
+        if (reference != null) {
+            put(referenceToFind, new SoftReference<Object>(reference));
+        }
+
+        return reference;
+    }
+
+    /**
+     * Resolves the references to the referent class for all of the objects at once.  The distinct foreign keys are fetched
+     * using {@link QuantumFlux#findAllByPrimaryKeys(Class, Collection)}, with a query per batch of keys instead of a query per object, and the referents are stored in the {@link ReferenceMap}
+     * field of every object, so calling {@link #findReferent(Class)} afterwards does not query again.
+     *
+     * @param referenceObjects The objects containing the {@link References} field
+     * @param referenceToFind  The referent class
+     * @param <T>              The referent type
+     * @return The referents by the foreign key values found on the objects, keys without a row are left out
+     */
+    public static <T> Map<Object, T> loadReferents(Collection<?> referenceObjects, Class<T> referenceToFind) {
+        TableDetails tableDetails = QuantumFlux.findTableDetails(referenceToFind);
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        if (primaryKeyColumn == null) {
+            throw new QuantumFluxException("No primary key found on " + referenceToFind.getSimpleName());
+        }
+        SqlColumnMapping columnMapping = primaryKeyColumn.getColumnTypeMapping();
+
+        Map<Class<?>, Field> referenceFields = new HashMap<>();
+        List<Object> foreignKeyValues = new ArrayList<>(referenceObjects.size());
+        Map<String, Object> distinctForeignKeys = new LinkedHashMap<>();
+
+        for (Object referenceObject : referenceObjects) {
+            Field field = referenceFields.get(referenceObject.getClass());
+            if (field == null) {
+                field = findReferenceField(referenceObject.getClass(), referenceToFind);
+                referenceFields.put(referenceObject.getClass(), field);
+            }
+
+            Object foreignKey = getFieldValue(field, referenceObject);
+            foreignKeyValues.add(foreignKey);
+            if (foreignKey != null) {
+                distinctForeignKeys.put(String.valueOf(columnMapping.toSqlType(foreignKey)), foreignKey);
+            }
+        }
+
+        List<T> items = QuantumFlux.findAllByPrimaryKeys(referenceToFind, distinctForeignKeys.values(), false, null);
+        Map<String, T> referents = new HashMap<>(items.size());
+
+        try {
+            for (T item : items) {
+                referents.put(String.valueOf(columnMapping.toSqlType(primaryKeyColumn.getFieldValue(item))), item);
+            }
+        } catch (IllegalAccessException e) {
+            throw new QuantumFluxException("Could not access required field " + primaryKeyColumn.getColumnField().getName(), e);
+        }
+
+        Map<Class<?>, Field> referenceMapFields = new HashMap<>();
+        Map<Object, T> foundReferents = new HashMap<>(referents.size());
+        int index = 0;
+
+        for (Object referenceObject : referenceObjects) {
+            Object foreignKey = foreignKeyValues.get(index++);
+            if (foreignKey == null) continue;
+
+            T referent = referents.get(String.valueOf(columnMapping.toSqlType(foreignKey)));
+            if (referent == null) continue;
+
+            foundReferents.put(foreignKey, referent);
 
-                    if (reference != null) {
-                        put(referenceToFind, new SoftReference<Object>(reference));
-                    }
+            Class<?> objectClass = referenceObject.getClass();
+            if (!referenceMapFields.containsKey(objectClass)) {
+                referenceMapFields.put(objectClass, findReferenceMapField(objectClass));
+            }
+
+            ReferenceMap referenceMap = getReferenceMap(referenceMapFields.get(objectClass), referenceObject);
+            if (referenceMap != null) {
+                referenceMap.put(referenceToFind, new SoftReference<Object>(referent));
+            }
+        }
+
+        return foundReferents;
+    }
 
-                    return reference;
+    private static Field findReferenceField(Class<?> objectClass, Class<?> referenceToFind) {
+        for (Field field : ReflectionHelper.getAllObjectFields(objectClass)) {
+            if (field.isAnnotationPresent(References.class) && field.getAnnotation(References.class).value() == referenceToFind) {
+                if (!field.isAccessible()) {
+                    field.setAccessible(true);
                 }
-            } catch (IllegalAccessException e) {
-                throw new QuantumFluxException("Could not access required field " + field.getName(), e);
+                return field;
             }
         }
-        throw new QuantumFluxException("No Reference found to " + referenceToFind.getSimpleName() + " from " + mReferenceObject.getClass().getSimpleName());
+        throw new QuantumFluxException("No Reference found to " + referenceToFind.getSimpleName() + " from " + objectClass.getSimpleName());
+    }
+
+    private static Field findReferenceMapField(Class<?> objectClass) {
+        for (Field field : ReflectionHelper.getAllObjectFields(objectClass)) {
+            if (ReferenceMap.class.isAssignableFrom(field.getType())) {
+                if (!field.isAccessible()) {
+                    field.setAccessible(true);
+                }
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The reference map of the object, created if the field has not been set yet, or null if the object has no reference map
+     */
+    private static ReferenceMap getReferenceMap(Field referenceMapField, Object referenceObject) {
+        if (referenceMapField == null) return null;
+
+        try {
+            ReferenceMap referenceMap = (ReferenceMap) referenceMapField.get(referenceObject);
+            if (referenceMap == null) {
+                referenceMap = new ReferenceMap(referenceObject);
+                referenceMapField.set(referenceObject, referenceMap);
+            }
+            return referenceMap;
+        } catch (IllegalAccessException e) {
+            throw new QuantumFluxException("Could not access required field " + referenceMapField.getName(), e);
+        }
+    }
+
+    private static Object getFieldValue(Field field, Object object) {
+        try {
+            return field.get(object);
+        } catch (IllegalAccessException e) {
+            throw new QuantumFluxException("Could not access required field " + field.getName(), e);
+        }
     }
 }
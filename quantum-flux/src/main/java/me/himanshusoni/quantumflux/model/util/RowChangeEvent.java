@@ -0,0 +1,107 @@
+package me.himanshusoni.quantumflux.model.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The rows of a table changed by a single write, published to the {@link RowChangeListener}s registered with
+ * {@link me.himanshusoni.quantumflux.QuantumFlux#registerRowChangeListener(Class, RowChangeListener)} once the write has
+ * been committed.
+ * <br>
+ * The primary keys are formatted the same way as in item uri's.  When the changed rows could not be determined, for example
+ * rows of an upsert that were matched on a unique column instead of the primary key, the entire table is reported as
+ * changed, see {@link #isTableChanged()}.
+ */
+public class RowChangeEvent {
+
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE,
+        /**
+         * The rows were either inserted or updated
+         */
+        UPSERT
+    }
+
+    private final Class<?> mTableClass;
+    private final Type mType;
+    private final Set<String> mPrimaryKeys = new LinkedHashSet<>();
+    private boolean isTableChanged;
+
+    public RowChangeEvent(Class<?> tableClass, Type type) {
+        this.mTableClass = tableClass;
+        this.mType = type;
+    }
+
+    /**
+     * Adds a changed row
+     *
+     * @param primaryKey The primary key value in its sql type, or null if the key of the changed row is unknown, which
+     *                   marks the entire table as changed
+     */
+    public void addPrimaryKey(Object primaryKey) {
+        if (primaryKey == null) isTableChanged = true;
+        else mPrimaryKeys.add(String.valueOf(primaryKey));
+    }
+
+    public void addPrimaryKeys(Collection<?> primaryKeys) {
+        for (Object primaryKey : primaryKeys) {
+            addPrimaryKey(primaryKey);
+        }
+    }
+
+    /**
+     * Marks the entire table as changed
+     */
+    public void setTableChanged() {
+        this.isTableChanged = true;
+    }
+
+    /**
+     * Merges the changed rows of the event into this event
+     *
+     * @param event An event of the same table and type
+     */
+    public void merge(RowChangeEvent event) {
+        if (event.mTableClass != mTableClass || event.mType != mType) {
+            throw new QuantumFluxException("Only events of the same table and type can be merged");
+        }
+
+        mPrimaryKeys.addAll(event.mPrimaryKeys);
+        isTableChanged = isTableChanged || event.isTableChanged;
+    }
+
+    public Class<?> getTableClass() {
+        return mTableClass;
+    }
+
+    public Type getType() {
+        return mType;
+    }
+
+    /**
+     * @return True if the changed rows are unknown, and the entire table should be considered changed
+     */
+    public boolean isTableChanged() {
+        return isTableChanged;
+    }
+
+    /**
+     * @return The primary keys of the changed rows, incomplete if the entire table changed
+     */
+    public Set<String> getPrimaryKeys() {
+        return Collections.unmodifiableSet(mPrimaryKeys);
+    }
+
+    public boolean isEmpty() {
+        return !isTableChanged && mPrimaryKeys.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "RowChangeEvent[" + mTableClass.getSimpleName() + " " + mType + (isTableChanged ? " table" : "") + " " + mPrimaryKeys + "]";
+    }
+}
@@ -0,0 +1,10 @@
+package me.himanshusoni.quantumflux.model.util;
+
+/**
+ * Receives the rows changed by the content provider running in the same process, see
+ * {@link me.himanshusoni.quantumflux.QuantumFlux#registerRowChangeListener(Class, RowChangeListener)}.
+ * Listeners are called on the thread that made the change, so they should return quickly.
+ */
+public interface RowChangeListener {
+    void onRowsChanged(RowChangeEvent event);
+}
@@ -1,22 +1,43 @@
 package me.himanshusoni.quantumflux.provider;
 
 import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentValues;
+import android.content.Context;
+import android.content.OperationApplicationException;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteQueryBuilder;
+import android.database.sqlite.SQLiteStatement;
 import android.net.Uri;
+import android.os.Binder;
+import android.os.Bundle;
+import android.os.Parcelable;
+import android.os.Process;
 import android.support.annotation.NonNull;
 import android.text.TextUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import me.himanshusoni.quantumflux.QuantumFlux;
 import me.himanshusoni.quantumflux.QuantumFluxDatabase;
 import me.himanshusoni.quantumflux.logger.QuantumFluxLog;
 import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.model.map.SqlColumnMapping;
+import me.himanshusoni.quantumflux.model.util.ConflictPolicy;
 import me.himanshusoni.quantumflux.model.util.ManifestHelper;
+import me.himanshusoni.quantumflux.model.util.QuantumFluxCursorFactory;
 import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
+import me.himanshusoni.quantumflux.model.util.RowChangeEvent;
+import me.himanshusoni.quantumflux.provider.util.BulkWriteHelper;
+import me.himanshusoni.quantumflux.provider.util.ChangeNotificationScheduler;
+import me.himanshusoni.quantumflux.provider.util.InListTableHelper;
 import me.himanshusoni.quantumflux.provider.util.UriMatcherHelper;
 
 /**
@@ -28,16 +49,33 @@ public class QuantumFluxContentProvider extends ContentProvider {
     public static final String PARAMETER_OFFSET = "OFFSET";
     public static final String PARAMETER_LIMIT = "LIMIT";
     public static final String PARAMETER_SYNC = "IS_SYNC";
+    public static final String PARAMETER_GROUP_BY = "GROUP_BY";
+    public static final String PARAMETER_HAVING = "HAVING";
+
+    /**
+     * The {@link #call(String, String, Bundle)} methods, the argument is the table uri
+     */
+    public static final String METHOD_UPDATE_ALL = "UPDATE_ALL";
+    public static final String METHOD_DELETE_ALL = "DELETE_ALL";
+    public static final String EXTRA_VALUES = "VALUES";
+    public static final String EXTRA_KEYS = "KEYS";
+    public static final String EXTRA_COUNT = "COUNT";
 
     private QuantumFluxDatabase mDatabase;
     private UriMatcherHelper mUriMatcherHelper;
+    private ChangeNotificationScheduler mNotificationScheduler;
     private boolean mDebugEnabled;
+    /**
+     * The changes of the batch applied on the current thread, delivered once the batch commits
+     */
+    private final ThreadLocal<PendingBatch> mPendingBatch = new ThreadLocal<>();
 
     @Override
     public boolean onCreate() {
         mDatabase = QuantumFlux.getDatabase();
         mUriMatcherHelper = new UriMatcherHelper(getContext());
         mUriMatcherHelper.init(getContext(), mDatabase.getTableDetailsCache());
+        mNotificationScheduler = new ChangeNotificationScheduler(getContext().getContentResolver());
 
         mDebugEnabled = ManifestHelper.isQueryLogEnabled(getContext());
         return true;
@@ -46,33 +84,148 @@ public class QuantumFluxContentProvider extends ContentProvider {
     @Override
     public Cursor query(@NonNull Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
         TableDetails tableDetails = mUriMatcherHelper.getTableDetails(uri);
-        SQLiteDatabase db = mDatabase.getReadableDatabase();
         String limit = constructLimit(uri);
 
+        if (mUriMatcherHelper.isSingleItemRequested(uri)) {
+            String itemId = uri.getLastPathSegment();
+            TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+            return query(tableDetails, projection, primaryKeyColumn.getColumnName() + " = ?", new String[]{itemId}, sortOrder, limit, uri);
+        } else {
+            String groupBy = uri.getQueryParameter(PARAMETER_GROUP_BY);
+            String having = uri.getQueryParameter(PARAMETER_HAVING);
+            return query(tableDetails, projection, selection, selectionArgs, groupBy, having, sortOrder, limit, uri);
+        }
+    }
+
+    /**
+     * Queries the table directly, without resolving a uri first.  This is used for direct execution, see {@link QuantumFlux#getDirectContentProvider()}.
+     *
+     * @param tableDetails    The table to query
+     * @param projection      The columns to query
+     * @param selection       The where clause
+     * @param selectionArgs   The where clause arguments
+     * @param sortOrder       The order by clause
+     * @param limit           The limit clause, see {@link #constructLimit(Integer, Integer)}
+     * @param notificationUri The uri the cursor will watch for changes, or null if the cursor does not need to be notified
+     * @return The cursor containing the results
+     */
+    public Cursor query(TableDetails tableDetails, String[] projection, String selection, Object[] selectionArgs, String sortOrder, String limit, Uri notificationUri) {
+        return query(tableDetails, projection, selection, selectionArgs, null, null, sortOrder, limit, notificationUri);
+    }
+
+    /**
+     * Same as {@link #query(TableDetails, String[], String, Object[], String, String, Uri)}, with a group by and having clause.
+     * The arguments of the having clause follow the where clause arguments in the selection arguments.
+     *
+     * @param tableDetails    The table to query
+     * @param projection      The columns to query
+     * @param selection       The where clause
+     * @param selectionArgs   The where and having clause arguments
+     * @param groupBy         The group by clause
+     * @param having          The having clause
+     * @param sortOrder       The order by clause
+     * @param limit           The limit clause, see {@link #constructLimit(Integer, Integer)}
+     * @param notificationUri The uri the cursor will watch for changes, or null if the cursor does not need to be notified
+     * @return The cursor containing the results
+     */
+    public Cursor query(TableDetails tableDetails, String[] projection, String selection, Object[] selectionArgs, String groupBy, String having, String sortOrder, String limit, Uri notificationUri) {
+        SQLiteDatabase db = mDatabase.getReadableDatabase();
+
         if (mDebugEnabled) {
             QuantumFluxLog.d("********* Query **********");
-            QuantumFluxLog.d("Uri: " + uri);
+            QuantumFluxLog.d("Uri: " + notificationUri);
             QuantumFluxLog.d("Projection: " + Arrays.toString(projection));
             QuantumFluxLog.d("Selection: " + selection);
             QuantumFluxLog.d("Args: " + Arrays.toString(selectionArgs));
+            QuantumFluxLog.d("Group By: " + groupBy);
+            QuantumFluxLog.d("Having: " + having);
             QuantumFluxLog.d("Sort: " + sortOrder);
             QuantumFluxLog.d("Limit: " + limit);
         }
 
         Cursor cursor;
 
-        if (mUriMatcherHelper.isSingleItemRequested(uri)) {
-            String itemId = uri.getLastPathSegment();
-            TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
-            cursor = db.query(tableDetails.getTableName(), projection, primaryKeyColumn.getColumnName() + " = ?", new String[]{itemId}, null, sortOrder, limit);
+        if (InListTableHelper.hasTableReferences(selection, having)) {
+            //The in list tables only exist on the connection held by this transaction, so the rows are copied before they are dropped
+            db = mDatabase.getWritableDatabase();
+            try {
+                db.beginTransactionNonExclusive();
+                Object[] args = InListTableHelper.createTables(db, selectionArgs, selection, having);
+                String[] clauses = InListTableHelper.resolveTableReferences(selection, having);
+                cursor = InListTableHelper.copyCursor(query(db, tableDetails.getTableName(), projection, clauses[0], args, groupBy, clauses[1], sortOrder, limit));
+                InListTableHelper.dropTables(db, selection, having);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
         } else {
-            cursor = db.query(tableDetails.getTableName(), projection, selection, selectionArgs, null, null, sortOrder, limit);
+            cursor = query(db, tableDetails.getTableName(), projection, selection, selectionArgs, groupBy, having, sortOrder, limit);
         }
 
-        cursor.setNotificationUri(getContext().getContentResolver(), uri);
+        if (notificationUri != null) cursor.setNotificationUri(getContext().getContentResolver(), notificationUri);
         return cursor;
     }
 
+    private Cursor query(SQLiteDatabase db, String tableName, String[] projection, String selection, Object[] selectionArgs, String groupBy, String having, String sortOrder, String limit) {
+        if (QuantumFluxCursorFactory.hasTypedArguments(selectionArgs)) {
+            //The arguments are bound with their type by the cursor factory, instead of as strings
+            String sql = SQLiteQueryBuilder.buildQueryString(false, tableName, projection, selection, groupBy, having, sortOrder, limit);
+            return db.rawQueryWithFactory(new QuantumFluxCursorFactory(mDebugEnabled, selectionArgs), sql, null, tableName);
+        } else {
+            return db.query(tableName, projection, selection, QuantumFluxCursorFactory.toStringArguments(selectionArgs), groupBy, having, sortOrder, limit);
+        }
+    }
+
+    /**
+     * Counts the rows matching the selection with a SELECT COUNT(*) statement, without loading any of the rows.
+     * The statement is compiled and read with {@link SQLiteStatement#simpleQueryForLong()}, so the arguments keep their
+     * types and no cursor is created.  This is used for direct execution, see {@link QuantumFlux#getDirectContentProvider()}.
+     *
+     * @param tableDetails  The table to count
+     * @param selection     The where clause
+     * @param selectionArgs The where clause arguments
+     * @return The amount of matching rows
+     */
+    public long count(TableDetails tableDetails, String selection, Object[] selectionArgs) {
+        SQLiteDatabase db = mDatabase.getReadableDatabase();
+
+        if (mDebugEnabled) {
+            QuantumFluxLog.d("********* Count **********");
+            QuantumFluxLog.d("Table: " + tableDetails.getTableName());
+            QuantumFluxLog.d("Selection: " + selection);
+            QuantumFluxLog.d("Args: " + Arrays.toString(selectionArgs));
+        }
+
+        String sql = "SELECT COUNT(*) FROM " + tableDetails.getTableName();
+
+        if (InListTableHelper.hasTableReferences(selection)) {
+            sql += " WHERE " + InListTableHelper.resolveTableReferences(selection)[0];
+            db = mDatabase.getWritableDatabase();
+            try {
+                db.beginTransactionNonExclusive();
+                long count = count(db, sql, InListTableHelper.createTables(db, selectionArgs, selection));
+                InListTableHelper.dropTables(db, selection);
+                db.setTransactionSuccessful();
+                return count;
+            } finally {
+                db.endTransaction();
+            }
+        }
+
+        if (!TextUtils.isEmpty(selection)) sql += " WHERE " + selection;
+        return count(db, sql, selectionArgs);
+    }
+
+    private long count(SQLiteDatabase db, String sql, Object[] selectionArgs) {
+        SQLiteStatement statement = db.compileStatement(sql);
+        try {
+            if (selectionArgs != null) QuantumFluxCursorFactory.bindArguments(statement, selectionArgs);
+            return statement.simpleQueryForLong();
+        } finally {
+            statement.close();
+        }
+    }
+
     @Override
     public String getType(@NonNull Uri uri) {
         return mUriMatcherHelper.getType(uri);
@@ -81,11 +234,32 @@ public class QuantumFluxContentProvider extends ContentProvider {
     @Override
     public Uri insert(@NonNull Uri uri, ContentValues contentValues) {
         TableDetails tableDetails = mUriMatcherHelper.getTableDetails(uri);
+        long insertId = insert(tableDetails, contentValues, uri, isSyncNotified(uri));
+
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        if (primaryKeyColumn.isAutoIncrement()) {
+            return mUriMatcherHelper.generateSingleItemUri(tableDetails, insertId);
+        } else {
+            String primaryKeyValue = contentValues.getAsString(primaryKeyColumn.getColumnName());
+            return mUriMatcherHelper.generateSingleItemUri(tableDetails, primaryKeyValue);
+        }
+    }
+
+    /**
+     * Inserts the row directly, without resolving a uri first.  This is used for direct execution, see {@link QuantumFlux#getDirectContentProvider()}.
+     *
+     * @param tableDetails    The table to insert into
+     * @param contentValues   The row values
+     * @param notificationUri The uri to notify of the change
+     * @param sync            If the change should be synced to the network
+     * @return The row id of the inserted row
+     */
+    public long insert(TableDetails tableDetails, ContentValues contentValues, Uri notificationUri, boolean sync) {
         SQLiteDatabase db = mDatabase.getWritableDatabase();
 
         if (mDebugEnabled) {
             QuantumFluxLog.d("********* Insert **********");
-            QuantumFluxLog.d("Uri: " + uri);
+            QuantumFluxLog.d("Uri: " + notificationUri);
             QuantumFluxLog.d("Content Values: " + contentValues);
         }
 
@@ -95,73 +269,165 @@ public class QuantumFluxContentProvider extends ContentProvider {
             throw new QuantumFluxException("Failed to insert row for into table " + tableDetails.getTableName() + " using values " + contentValues);
         }
 
-        notifyChanges(uri, tableDetails);
+        notifyChanges(notificationUri, tableDetails, sync);
 
-        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
-        if (primaryKeyColumn.isAutoIncrement()) {
-            return mUriMatcherHelper.generateSingleItemUri(tableDetails, insertId);
-        } else {
-            String primaryKeyValue = contentValues.getAsString(primaryKeyColumn.getColumnName());
-            return mUriMatcherHelper.generateSingleItemUri(tableDetails, primaryKeyValue);
+        List<Object> changedKeys = createChangedKeys(tableDetails);
+        if (changedKeys != null) {
+            TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+            if (primaryKeyColumn == null) changedKeys.add(null);
+            else if (primaryKeyColumn.isAutoIncrement()) changedKeys.add(insertId);
+            else changedKeys.add(contentValues.get(primaryKeyColumn.getColumnName()));
+            publishRowChanges(tableDetails, RowChangeEvent.Type.INSERT, changedKeys);
         }
+
+        return insertId;
     }
 
     @Override
     public int delete(@NonNull Uri uri, String where, String[] args) {
         TableDetails tableDetails = mUriMatcherHelper.getTableDetails(uri);
+
+        if (mUriMatcherHelper.isSingleItemRequested(uri)) {
+            String itemId = uri.getLastPathSegment();
+            TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+            return delete(tableDetails, primaryKeyColumn.getColumnName() + " = ?", new String[]{itemId}, uri, isSyncNotified(uri));
+        } else {
+            return delete(tableDetails, where, args, uri, isSyncNotified(uri));
+        }
+    }
+
+    /**
+     * Deletes the rows directly, without resolving a uri first.  This is used for direct execution, see {@link QuantumFlux#getDirectContentProvider()}.
+     *
+     * @param tableDetails    The table to delete from
+     * @param where           The where clause
+     * @param args            The where clause arguments
+     * @param notificationUri The uri to notify of the change
+     * @param sync            If the change should be synced to the network
+     * @return The amount of rows deleted
+     */
+    public int delete(TableDetails tableDetails, String where, Object[] args, Uri notificationUri, boolean sync) {
         SQLiteDatabase db = mDatabase.getWritableDatabase();
 
         if (mDebugEnabled) {
             QuantumFluxLog.d("********* Delete **********");
-            QuantumFluxLog.d("Uri: " + uri);
+            QuantumFluxLog.d("Uri: " + notificationUri);
             QuantumFluxLog.d("Where: " + where);
             QuantumFluxLog.d("Args: " + Arrays.toString(args));
         }
 
+        List<Object> changedKeys = createChangedKeys(tableDetails);
         int deleteCount;
 
-        if (mUriMatcherHelper.isSingleItemRequested(uri)) {
-            String itemId = uri.getLastPathSegment();
-            TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
-            deleteCount = db.delete(tableDetails.getTableName(), primaryKeyColumn.getColumnName() + " = ?", new String[]{itemId});
+        if (InListTableHelper.hasTableReferences(where) || changedKeys != null) {
+            //The keys of the deleted rows are read in the same transaction, so they can not change in between
+            try {
+                db.beginTransactionNonExclusive();
+                Object[] deleteArgs = InListTableHelper.hasTableReferences(where) ? InListTableHelper.createTables(db, args, where) : args;
+                String deleteWhere = InListTableHelper.resolveTableReferences(where)[0];
+                if (changedKeys != null) queryPrimaryKeys(db, tableDetails, deleteWhere, deleteArgs, changedKeys);
+                deleteCount = delete(db, tableDetails.getTableName(), deleteWhere, deleteArgs);
+                InListTableHelper.dropTables(db, where);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
         } else {
-            deleteCount = db.delete(tableDetails.getTableName(), where, args);
+            deleteCount = delete(db, tableDetails.getTableName(), where, args);
         }
 
         if (deleteCount == 0) {
             return deleteCount;
         }
 
-        notifyChanges(uri, tableDetails);
+        notifyChanges(notificationUri, tableDetails, sync);
+        publishRowChanges(tableDetails, RowChangeEvent.Type.DELETE, changedKeys);
 
         return deleteCount;
     }
 
+    private int delete(SQLiteDatabase db, String tableName, String where, Object[] args) {
+        if (QuantumFluxCursorFactory.hasTypedArguments(args)) {
+            SQLiteStatement statement = db.compileStatement("DELETE FROM " + tableName + " WHERE " + where);
+            try {
+                QuantumFluxCursorFactory.bindArguments(statement, args);
+                return statement.executeUpdateDelete();
+            } finally {
+                statement.close();
+            }
+        } else {
+            return db.delete(tableName, where, QuantumFluxCursorFactory.toStringArguments(args));
+        }
+    }
+
     @Override
     public int update(@NonNull Uri uri, ContentValues contentValues, String where, String[] args) {
         TableDetails tableDetails = mUriMatcherHelper.getTableDetails(uri);
+
+        if (mUriMatcherHelper.isSingleItemRequested(uri)) {
+            String itemId = uri.getLastPathSegment();
+            TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+            return update(tableDetails, contentValues, primaryKeyColumn.getColumnName() + " = ?", new String[]{itemId}, uri, isSyncNotified(uri));
+        } else {
+            return update(tableDetails, contentValues, where, args, uri, isSyncNotified(uri));
+        }
+    }
+
+    /**
+     * Updates the rows directly, without resolving a uri first.  This is used for direct execution, see {@link QuantumFlux#getDirectContentProvider()}.
+     *
+     * @param tableDetails    The table to update
+     * @param contentValues   The values to update
+     * @param where           The where clause
+     * @param args            The where clause arguments
+     * @param notificationUri The uri to notify of the change
+     * @param sync            If the change should be synced to the network
+     * @return The amount of rows updated
+     */
+    public int update(TableDetails tableDetails, ContentValues contentValues, String where, String[] args, Uri notificationUri, boolean sync) {
         SQLiteDatabase db = mDatabase.getWritableDatabase();
 
         if (mDebugEnabled) {
             QuantumFluxLog.d("********* Update **********");
-            QuantumFluxLog.d("Uri: " + uri);
+            QuantumFluxLog.d("Uri: " + notificationUri);
             QuantumFluxLog.d("Content Values: " + contentValues);
             QuantumFluxLog.d("Where: " + where);
             QuantumFluxLog.d("Args: " + Arrays.toString(args));
         }
 
+        List<Object> changedKeys = createChangedKeys(tableDetails);
         int updateCount;
 
-        if (mUriMatcherHelper.isSingleItemRequested(uri)) {
-            String itemId = uri.getLastPathSegment();
-            TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
-            updateCount = db.update(tableDetails.getTableName(), contentValues, primaryKeyColumn.getColumnName() + " = ?", new String[]{itemId});
+        if (InListTableHelper.hasTableReferences(where) || changedKeys != null) {
+            try {
+                db.beginTransactionNonExclusive();
+                String[] updateArgs = InListTableHelper.hasTableReferences(where) ? InListTableHelper.createTables(db, args, where) : args;
+                String updateWhere = InListTableHelper.resolveTableReferences(where)[0];
+                if (changedKeys != null) queryPrimaryKeys(db, tableDetails, updateWhere, updateArgs, changedKeys);
+                updateCount = db.update(tableDetails.getTableName(), contentValues, updateWhere, updateArgs);
+                InListTableHelper.dropTables(db, where);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
         } else {
             updateCount = db.update(tableDetails.getTableName(), contentValues, where, args);
         }
 
         if (updateCount > 0 && shouldChangesBeNotified(tableDetails, contentValues)) {
-            notifyChanges(uri, tableDetails);
+            notifyChanges(notificationUri, tableDetails, sync);
+        } else if (updateCount > 0) {
+            //Columns that do not notify changes still change the cached objects
+            invalidateCaches(notificationUri, tableDetails);
+        }
+
+        if (updateCount > 0 && changedKeys != null) {
+            //An updated primary key changes the row with the new key as well
+            TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+            if (primaryKeyColumn != null && contentValues.containsKey(primaryKeyColumn.getColumnName())) {
+                changedKeys.add(contentValues.get(primaryKeyColumn.getColumnName()));
+            }
+            publishRowChanges(tableDetails, RowChangeEvent.Type.UPDATE, changedKeys);
         }
 
         return updateCount;
@@ -179,26 +445,370 @@ public class QuantumFluxContentProvider extends ContentProvider {
             QuantumFluxLog.d("Uri: " + uri);
         }
 
-        int count = 0;
+        ConflictPolicy conflictPolicy = ConflictPolicy.fromUri(uri);
+        List<Object> changedKeys = createChangedKeys(tableDetails);
+        int count;
 
         try {
             db.beginTransactionNonExclusive();
-            String tableName = tableDetails.getTableName();
+            if (conflictPolicy != null) count = BulkWriteHelper.upsertAll(db, tableDetails, values, conflictPolicy, changedKeys);
+            else count = BulkWriteHelper.insertAll(db, tableDetails, values, changedKeys);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        //Notified after the commit, so a concurrent read can not cache the old rows after the cache was invalidated
+        notifyChanges(uri, tableDetails);
+        publishRowChanges(tableDetails, conflictPolicy != null ? RowChangeEvent.Type.UPSERT : RowChangeEvent.Type.INSERT, changedKeys);
+        return count;
+    }
 
-            for (ContentValues value : values) {
-                db.insertOrThrow(tableName, null, value);
+    /**
+     * Inserts the model objects directly, binding their fields onto a single compiled statement instead of
+     * deflating them into content values.  Only available when the provider runs in the same process as the caller,
+     * see {@link QuantumFlux#getDirectContentProvider()}.
+     *
+     * @param uri              The table uri, the same as would be used for {@link #bulkInsert(Uri, ContentValues[])}.  If the uri
+     *                         contains a {@link ConflictPolicy}, the objects are upserted instead.
+     * @param dataModelObjects The objects to insert, all of the same type
+     * @return The amount of rows inserted
+     */
+    public int bulkInsert(@NonNull Uri uri, @NonNull List<?> dataModelObjects) {
+        if (dataModelObjects.isEmpty()) return 0;
 
-                count++;
+        TableDetails tableDetails = mUriMatcherHelper.getTableDetails(uri);
+        SQLiteDatabase db = mDatabase.getWritableDatabase();
+
+        if (mDebugEnabled) {
+            QuantumFluxLog.d("********* Bulk Insert **********");
+            QuantumFluxLog.d("Uri: " + uri);
+            QuantumFluxLog.d("Objects: " + dataModelObjects.size());
+        }
+
+        ConflictPolicy conflictPolicy = ConflictPolicy.fromUri(uri);
+        List<Object> changedKeys = createChangedKeys(tableDetails);
+        int count;
+
+        try {
+            db.beginTransactionNonExclusive();
+            if (conflictPolicy != null) count = BulkWriteHelper.upsertAll(db, tableDetails, dataModelObjects, conflictPolicy, changedKeys);
+            else count = BulkWriteHelper.insertAll(db, tableDetails, dataModelObjects, changedKeys);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        //Notified after the commit, so a concurrent read can not cache the old rows after the cache was invalidated
+        notifyChanges(uri, tableDetails);
+        publishRowChanges(tableDetails, conflictPolicy != null ? RowChangeEvent.Type.UPSERT : RowChangeEvent.Type.INSERT, changedKeys);
+        return count;
+    }
+
+    /**
+     * Handles the bulk updates and deletes that have no content provider method of their own, {@link #METHOD_UPDATE_ALL}
+     * with the rows in {@link #EXTRA_VALUES} and {@link #METHOD_DELETE_ALL} with the primary keys in {@link #EXTRA_KEYS}.
+     * The amount of changed rows is returned in {@link #EXTRA_COUNT}.
+     */
+    @Override
+    public Bundle call(@NonNull String method, String arg, Bundle extras) {
+        if (!METHOD_UPDATE_ALL.equals(method) && !METHOD_DELETE_ALL.equals(method)) {
+            return super.call(method, arg, extras);
+        }
+
+        enforceCallWritePermission(getContext(), getWritePermission(), Binder.getCallingUid(), Process.myUid(), method);
+        if (arg == null || extras == null) {
+            throw new QuantumFluxException("The " + method + " method needs the table uri as argument and the rows as extras");
+        }
+
+        Uri uri = Uri.parse(arg);
+        int count;
+
+        if (METHOD_UPDATE_ALL.equals(method)) {
+            Parcelable[] parcelables = extras.getParcelableArray(EXTRA_VALUES);
+            if (parcelables == null) throw new QuantumFluxException("The " + method + " method needs the rows in " + EXTRA_VALUES);
+
+            ContentValues[] values = new ContentValues[parcelables.length];
+            for (int i = 0; i < parcelables.length; i++) {
+                values[i] = (ContentValues) parcelables[i];
             }
+            count = updateAll(uri, values);
+        } else {
+            String[] keys = extras.getStringArray(EXTRA_KEYS);
+            if (keys == null) throw new QuantumFluxException("The " + method + " method needs the primary keys in " + EXTRA_KEYS);
+
+            count = deleteAll(uri, keys);
+        }
+
+        Bundle result = new Bundle();
+        result.putInt(EXTRA_COUNT, count);
+        return result;
+    }
+
+    /**
+     * The framework does not enforce the permissions of the provider for {@link #call(String, String, Bundle)}, so the write
+     * permission is enforced here.  Without a write permission, only the application itself can call the bulk methods.
+     *
+     * @param context         The context of the provider
+     * @param writePermission The write permission of the provider, may be null
+     * @param callingUid      The uid of the calling process
+     * @param providerUid     The uid of the provider process
+     * @param method          The called method
+     */
+    static void enforceCallWritePermission(Context context, String writePermission, int callingUid, int providerUid, String method) {
+        if (writePermission != null) {
+            context.enforceCallingOrSelfPermission(writePermission, "Calling " + method + " requires " + writePermission);
+        } else if (callingUid != providerUid) {
+            throw new SecurityException("Calling " + method + " from another application requires a write permission on the provider");
+        }
+    }
+
+    /**
+     * Updates the rows of the model objects in a single transaction, reusing one compiled update statement matching the
+     * primary key.  A single change notification is sent for the table, instead of one for every row.  Only available when
+     * the provider runs in the same process as the caller, see {@link QuantumFlux#getDirectContentProvider()}.
+     *
+     * @param uri              The table uri
+     * @param dataModelObjects The objects to update, all of the same type
+     * @param columns          The columns to update, null or empty to update all of the columns except the primary key
+     * @return The amount of rows updated
+     */
+    public int updateAll(@NonNull Uri uri, @NonNull List<?> dataModelObjects, String[] columns) {
+        if (dataModelObjects.isEmpty()) return 0;
+
+        TableDetails tableDetails = mUriMatcherHelper.getTableDetails(uri);
+        List<TableDetails.ColumnDetails> updateColumns = BulkWriteHelper.findUpdateColumns(tableDetails, columns);
+        SQLiteDatabase db = mDatabase.getWritableDatabase();
+
+        if (mDebugEnabled) {
+            QuantumFluxLog.d("********* Update All **********");
+            QuantumFluxLog.d("Uri: " + uri);
+            QuantumFluxLog.d("Columns: " + Arrays.toString(columns));
+            QuantumFluxLog.d("Objects: " + dataModelObjects.size());
+        }
+
+        List<Object> changedKeys = createChangedKeys(tableDetails);
+        int count;
+
+        try {
+            db.beginTransactionNonExclusive();
+            count = BulkWriteHelper.updateAll(db, tableDetails, dataModelObjects, updateColumns, changedKeys);
             db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
 
-            notifyChanges(uri, tableDetails);
+        boolean notify = false;
+        for (TableDetails.ColumnDetails column : updateColumns) {
+            notify = notify || column.notifyChanges();
+        }
+        notifyUpdates(uri, tableDetails, count, notify);
+        publishRowChanges(tableDetails, RowChangeEvent.Type.UPDATE, changedKeys);
+
+        return count;
+    }
+
+    /**
+     * Same as {@link #updateAll(Uri, List, String[])} for content values, every row contains its primary key and the values to update
+     *
+     * @param uri    The table uri
+     * @param values The rows to update
+     * @return The amount of rows updated
+     */
+    public int updateAll(@NonNull Uri uri, @NonNull ContentValues[] values) {
+        if (values.length == 0) return 0;
+
+        TableDetails tableDetails = mUriMatcherHelper.getTableDetails(uri);
+        SQLiteDatabase db = mDatabase.getWritableDatabase();
+
+        if (mDebugEnabled) {
+            QuantumFluxLog.d("********* Update All **********");
+            QuantumFluxLog.d("Uri: " + uri);
+            QuantumFluxLog.d("Rows: " + values.length);
+        }
+
+        List<Object> changedKeys = createChangedKeys(tableDetails);
+        int count;
+
+        try {
+            db.beginTransactionNonExclusive();
+            count = BulkWriteHelper.updateAll(db, tableDetails, values, changedKeys);
+            db.setTransactionSuccessful();
         } finally {
             db.endTransaction();
         }
+
+        boolean notify = false;
+        for (int i = 0; i < values.length && !notify; i++) {
+            notify = shouldChangesBeNotified(tableDetails, values[i]);
+        }
+        notifyUpdates(uri, tableDetails, count, notify);
+        publishRowChanges(tableDetails, RowChangeEvent.Type.UPDATE, changedKeys);
+
+        return count;
+    }
+
+    /**
+     * Deletes the rows with the primary keys in a single transaction, reusing one compiled delete statement, and sends a
+     * single change notification for the table.
+     *
+     * @param uri  The table uri
+     * @param keys The primary key values, in their sql type or as they appear in the item uri
+     * @return The amount of rows deleted
+     */
+    public int deleteAll(@NonNull Uri uri, @NonNull Object[] keys) {
+        if (keys.length == 0) return 0;
+
+        TableDetails tableDetails = mUriMatcherHelper.getTableDetails(uri);
+        SQLiteDatabase db = mDatabase.getWritableDatabase();
+
+        if (mDebugEnabled) {
+            QuantumFluxLog.d("********* Delete All **********");
+            QuantumFluxLog.d("Uri: " + uri);
+            QuantumFluxLog.d("Keys: " + keys.length);
+        }
+
+        List<Object> changedKeys = createChangedKeys(tableDetails);
+        int count;
+
+        try {
+            db.beginTransactionNonExclusive();
+            count = BulkWriteHelper.deleteAll(db, tableDetails, keys, changedKeys);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        if (count > 0) notifyChanges(uri, tableDetails);
+        publishRowChanges(tableDetails, RowChangeEvent.Type.DELETE, changedKeys);
+
         return count;
     }
 
+    /**
+     * @return The collection receiving the primary keys of the changed rows, or null if nobody listens for the changed rows
+     * of the table, see {@link QuantumFlux#registerRowChangeListener(Class, me.himanshusoni.quantumflux.model.util.RowChangeListener)}
+     */
+    private List<Object> createChangedKeys(TableDetails tableDetails) {
+        return QuantumFlux.hasRowChangeListeners(tableDetails.getTableClass()) ? new ArrayList<>() : null;
+    }
+
+    /**
+     * Reads the primary keys of the rows matching the where clause, before they are updated or deleted
+     */
+    private void queryPrimaryKeys(SQLiteDatabase db, TableDetails tableDetails, String where, Object[] args, Collection<Object> changedKeys) {
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        if (primaryKeyColumn == null) {
+            changedKeys.add(null);
+            return;
+        }
+
+        //The keys are read through the column mapping, so they are formatted the same as the keys of the other writes
+        SqlColumnMapping columnMapping = primaryKeyColumn.getColumnTypeMapping();
+        Cursor cursor = query(db, tableDetails.getTableName(), new String[]{primaryKeyColumn.getColumnName()}, where, args, null, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                if (cursor.isNull(0)) changedKeys.add(null);
+                else changedKeys.add(columnMapping.toSqlType(columnMapping.getColumnValue(cursor, 0)));
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Publishes the changed rows to the row change listeners, once the batch commits if a batch is being applied
+     */
+    private void publishRowChanges(TableDetails tableDetails, RowChangeEvent.Type type, Collection<Object> changedKeys) {
+        if (changedKeys == null || changedKeys.isEmpty()) return;
+
+        RowChangeEvent event = new RowChangeEvent(tableDetails.getTableClass(), type);
+        event.addPrimaryKeys(changedKeys);
+
+        PendingBatch pendingBatch = mPendingBatch.get();
+        if (pendingBatch != null) pendingBatch.addRowChanges(event);
+        else QuantumFlux.publishRowChanges(event);
+    }
+
+    private void notifyUpdates(Uri uri, TableDetails tableDetails, int updateCount, boolean notify) {
+        if (updateCount > 0 && notify) {
+            notifyChanges(uri, tableDetails);
+        } else if (updateCount > 0) {
+            //Columns that do not notify changes still change the cached objects
+            invalidateCaches(uri, tableDetails);
+        }
+    }
+
+    /**
+     * Applies all of the operations in a single transaction, instead of a transaction for every operation.  The change
+     * notifications of the operations are collected and sent once the transaction commits, a single notification for every
+     * changed uri, followed by the changed rows for the row change listeners.
+     * <br>
+     * Long batches give other writers a chance by yielding the transaction, see {@link SQLiteDatabase#yieldIfContendedSafely()},
+     * before operations that allow it with {@link ContentProviderOperation.Builder#withYieldAllowed(boolean)}, and every
+     * {@link QuantumFlux#setBatchYieldInterval(int)} operations.  Yielding commits the operations applied so far, so a failing
+     * operation only rolls back the operations since the last yield.
+     */
+    @NonNull
+    @Override
+    public ContentProviderResult[] applyBatch(@NonNull ArrayList<ContentProviderOperation> operations) throws OperationApplicationException {
+        //A batch applied by an operation of another batch joins its transaction
+        if (mPendingBatch.get() != null) return super.applyBatch(operations);
+
+        SQLiteDatabase db = mDatabase.getWritableDatabase();
+        int yieldInterval = QuantumFlux.getBatchYieldInterval();
+
+        if (mDebugEnabled) {
+            QuantumFluxLog.d("********* Apply Batch **********");
+            QuantumFluxLog.d("Operations: " + operations.size());
+        }
+
+        PendingBatch pendingBatch = new PendingBatch();
+        ContentProviderResult[] results = new ContentProviderResult[operations.size()];
+        boolean isSuccessful = false;
+
+        mPendingBatch.set(pendingBatch);
+        try {
+            db.beginTransactionNonExclusive();
+            for (int i = 0; i < operations.size(); i++) {
+                ContentProviderOperation operation = operations.get(i);
+
+                if (isYieldPoint(i, yieldInterval, operation.isYieldAllowed()) && db.yieldIfContendedSafely()) {
+                    //The operations so far have been committed
+                    deliverChanges(pendingBatch);
+                }
+
+                results[i] = operation.apply(this, results, i);
+            }
+            db.setTransactionSuccessful();
+            isSuccessful = true;
+        } finally {
+            db.endTransaction();
+            mPendingBatch.remove();
+        }
+
+        if (isSuccessful) deliverChanges(pendingBatch);
+        return results;
+    }
+
+    /**
+     * @param index          The index of the operation about to be applied
+     * @param yieldInterval  The yield interval, see {@link QuantumFlux#getBatchYieldInterval()}
+     * @param isYieldAllowed True if the operation allows a yield, see {@link ContentProviderOperation#isYieldAllowed()}
+     * @return True if the batch may yield its transaction before the operation, never before the first one
+     */
+    static boolean isYieldPoint(int index, int yieldInterval, boolean isYieldAllowed) {
+        return index > 0 && (isYieldAllowed || yieldInterval > 0 && index % yieldInterval == 0);
+    }
+
+    /**
+     * @return The scheduler delivering the change notifications of the provider, to configure the notification window and
+     * the collapse threshold, and to read the amount of notifications raised and delivered
+     */
+    public ChangeNotificationScheduler getNotificationScheduler() {
+        return mNotificationScheduler;
+    }
+
     private String constructLimit(Uri uri) {
         String offsetParam = uri.getQueryParameter(PARAMETER_OFFSET);
         String limitParam = uri.getQueryParameter(PARAMETER_LIMIT);
@@ -213,6 +823,15 @@ public class QuantumFluxContentProvider extends ContentProvider {
             limit = Integer.valueOf(limitParam);
         }
 
+        return constructLimit(offset, limit);
+    }
+
+    /**
+     * @param offset The row offset, or null
+     * @param limit  The row limit, or null
+     * @return The limit clause, or null if neither is specified
+     */
+    public static String constructLimit(Integer offset, Integer limit) {
         if (limit == null && offset == null) {
             return null;
         }
@@ -245,10 +864,19 @@ public class QuantumFluxContentProvider extends ContentProvider {
         return notify;
     }
 
+    private boolean isSyncNotified(Uri uri) {
+        return uri.getBooleanQueryParameter(PARAMETER_SYNC, true);
+    }
+
     private void notifyChanges(Uri uri, TableDetails tableDetails) {
+        notifyChanges(uri, tableDetails, isSyncNotified(uri));
+    }
+
+    private void notifyChanges(Uri uri, TableDetails tableDetails, boolean sync) {
+        if (deferChange(uri, tableDetails, true, sync)) return;
 
-        Boolean sync = uri.getBooleanQueryParameter(PARAMETER_SYNC, true);
-        getContext().getContentResolver().notifyChange(uri, null, sync);
+        invalidatePrimaryKeyCache(uri, tableDetails);
+        mNotificationScheduler.notifyChange(uri, mUriMatcherHelper.generateItemUri(tableDetails), sync);
 
         List<Class<?>> changeListeners = tableDetails.getChangeListeners();
         if (!changeListeners.isEmpty()) {
@@ -262,9 +890,120 @@ public class QuantumFluxContentProvider extends ContentProvider {
                 }
 
                 //Change listeners are registered on views, so the entire view needs to be updated if changes to its data occurs
+                QuantumFlux.invalidatePrimaryKeyCache(changeListenerDetails.getTableClass(), null);
                 Uri changeUri = mUriMatcherHelper.generateItemUri(changeListenerDetails);
-                getContext().getContentResolver().notifyChange(changeUri, null, sync);
+                mNotificationScheduler.notifyChange(changeUri, changeUri, sync);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the primary key cache of the changed table, only the changed row for single item uri's
+     */
+    private void invalidateCaches(Uri uri, TableDetails tableDetails) {
+        if (deferChange(uri, tableDetails, false, false)) return;
+
+        invalidatePrimaryKeyCache(uri, tableDetails);
+    }
+
+    private void invalidatePrimaryKeyCache(Uri uri, TableDetails tableDetails) {
+        String itemId = mUriMatcherHelper.isSingleItemRequested(uri) ? uri.getLastPathSegment() : null;
+        QuantumFlux.invalidatePrimaryKeyCache(tableDetails.getTableClass(), itemId);
+    }
+
+    /**
+     * Collects the change if a batch is being applied on the current thread, see {@link #applyBatch(ArrayList)}
+     *
+     * @return True if the change has been deferred until the batch commits
+     */
+    private boolean deferChange(Uri uri, TableDetails tableDetails, boolean notify, boolean sync) {
+        PendingBatch pendingBatch = mPendingBatch.get();
+        if (pendingBatch == null) return false;
+
+        if (pendingBatch.addChange(uri.toString(), uri, tableDetails, notify, sync)) mNotificationScheduler.countCoalesced();
+        return true;
+    }
+
+    private void deliverChanges(PendingBatch pendingBatch) {
+        //The changes are delivered on the current thread, so they must not be deferred again while delivering
+        PendingBatch currentBatch = mPendingBatch.get();
+        mPendingBatch.remove();
+        mNotificationScheduler.hold();
+        try {
+            for (PendingChange pendingChange : pendingBatch.mChanges.values()) {
+                if (pendingChange.isNotified) notifyChanges(pendingChange.mUri, pendingChange.mTableDetails, pendingChange.isSynced);
+                else invalidateCaches(pendingChange.mUri, pendingChange.mTableDetails);
+            }
+            pendingBatch.mChanges.clear();
+        } finally {
+            mNotificationScheduler.release();
+            if (currentBatch != null) mPendingBatch.set(currentBatch);
+        }
+
+        List<RowChangeEvent> rowChanges = new ArrayList<>(pendingBatch.mRowChanges);
+        pendingBatch.mRowChanges.clear();
+        for (RowChangeEvent event : rowChanges) {
+            QuantumFlux.publishRowChanges(event);
+        }
+    }
+
+    /**
+     * The changes made while applying a batch on a single thread
+     */
+    static class PendingBatch {
+
+        final Map<String, PendingChange> mChanges = new LinkedHashMap<>();
+        final List<RowChangeEvent> mRowChanges = new ArrayList<>();
+
+        /**
+         * Adds the change, combined with an earlier change of the same uri
+         *
+         * @param key The uri as string
+         * @return True if an earlier change already notified the uri, so the notification is coalesced
+         */
+        boolean addChange(String key, Uri uri, TableDetails tableDetails, boolean notify, boolean sync) {
+            PendingChange pendingChange = mChanges.get(key);
+            if (pendingChange == null) {
+                mChanges.put(key, new PendingChange(uri, tableDetails, notify, sync));
+                return false;
             }
+
+            boolean isCoalesced = notify && pendingChange.isNotified;
+            pendingChange.isNotified = pendingChange.isNotified || notify;
+            pendingChange.isSynced = pendingChange.isSynced || sync;
+            return isCoalesced;
+        }
+
+        /**
+         * Adds the changed rows, merged into the previous event if it changed the same table in the same way
+         */
+        void addRowChanges(RowChangeEvent event) {
+            if (!mRowChanges.isEmpty()) {
+                RowChangeEvent lastEvent = mRowChanges.get(mRowChanges.size() - 1);
+                if (lastEvent.getTableClass() == event.getTableClass() && lastEvent.getType() == event.getType()) {
+                    lastEvent.merge(event);
+                    return;
+                }
+            }
+            mRowChanges.add(event);
+        }
+    }
+
+    /**
+     * A change made while applying a batch, the notification and sync flags of repeated changes to the same uri are combined
+     */
+    static class PendingChange {
+
+        final Uri mUri;
+        final TableDetails mTableDetails;
+        boolean isNotified;
+        boolean isSynced;
+
+        PendingChange(Uri uri, TableDetails tableDetails, boolean notify, boolean sync) {
+            this.mUri = uri;
+            this.mTableDetails = tableDetails;
+            this.isNotified = notify;
+            this.isSynced = sync;
         }
     }
 }
@@ -0,0 +1,655 @@
+package me.himanshusoni.quantumflux.provider.util;
+
+import android.content.ContentValues;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import me.himanshusoni.quantumflux.model.annotation.TableConstraint;
+import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.model.util.ConflictPolicy;
+import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
+
+/**
+ * Writes multiple rows using a single compiled statement, instead of building and parsing a new statement for every row.
+ * <br>
+ * The statements are only compiled for the duration of a single call, the caller is responsible for the surrounding transaction.
+ * <br>
+ * The primary keys of the changed rows are added to the changed keys collection if one is supplied, in their sql type.  A
+ * null key is added for changed rows whose key is unknown, see {@link me.himanshusoni.quantumflux.model.util.RowChangeEvent}.
+ */
+public class BulkWriteHelper {
+
+    /**
+     * Inserts all of the model objects, binding the field values straight onto the compiled statement
+     * without deflating them into content values first.  Auto increment columns are left for the database to assign, and the
+     * assigned row ids are set on the model objects.
+     *
+     * @param db               The writable database
+     * @param tableDetails     The table details of the model objects
+     * @param dataModelObjects The objects to insert
+     * @param changedKeys      Receives the keys of the inserted rows, or null
+     * @return The amount of rows inserted
+     */
+    public static int insertAll(SQLiteDatabase db, TableDetails tableDetails, List<?> dataModelObjects, Collection<Object> changedKeys) {
+        List<TableDetails.ColumnDetails> columns = findInsertColumns(tableDetails, false);
+        String[] columnNames = new String[columns.size()];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = columns.get(i).getColumnName();
+        }
+
+        //The generated row ids are written back into the auto increment keys, so the objects do not have to be read again
+        TableDetails.ColumnDetails clientKeyColumn = tableDetails.findPrimaryKeyColumn();
+        TableDetails.ColumnDetails primaryKeyColumn = clientKeyColumn != null && clientKeyColumn.isAutoIncrement() ? clientKeyColumn : null;
+
+        SQLiteStatement statement = db.compileStatement(createInsertStatement(tableDetails.getTableName(), columnNames));
+        try {
+            int count = 0;
+            for (int i = 0; i < dataModelObjects.size(); i++) {
+                Object dataModelObject = dataModelObjects.get(i);
+                if (clientKeyColumn != null) clientKeyColumn.assignClientKey(dataModelObject);
+                statement.clearBindings();
+
+                for (int j = 0; j < columns.size(); j++) {
+                    columns.get(j).bindValue(statement, j + 1, dataModelObject);
+                }
+
+                long rowId = statement.executeInsert();
+                if (primaryKeyColumn != null && rowId != -1) primaryKeyColumn.setGeneratedKey(dataModelObject, rowId);
+                addChangedKey(changedKeys, tableDetails, dataModelObject);
+                count++;
+            }
+            return count;
+        } catch (IllegalAccessException e) {
+            throw new QuantumFluxException("Unable to access protected field, change the access level: " + tableDetails.getTableClass().getSimpleName(), e);
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Inserts all of the content values.  Consecutive rows containing the same columns share the compiled statement,
+     * a new statement is only compiled when the columns change.
+     *
+     * @param db           The writable database
+     * @param tableDetails The table to insert into
+     * @param values       The rows to insert
+     * @param changedKeys  Receives the keys of the inserted rows, or null
+     * @return The amount of rows inserted
+     */
+    public static int insertAll(SQLiteDatabase db, TableDetails tableDetails, ContentValues[] values, Collection<Object> changedKeys) {
+        SQLiteStatement statement = null;
+        String[] columnNames = null;
+
+        try {
+            int count = 0;
+            for (ContentValues value : values) {
+                if (columnNames == null || !hasSameColumns(value, columnNames)) {
+                    if (statement != null) statement.close();
+
+                    columnNames = value.keySet().toArray(new String[value.size()]);
+                    statement = db.compileStatement(createInsertStatement(tableDetails.getTableName(), columnNames));
+                }
+
+                statement.clearBindings();
+                for (int i = 0; i < columnNames.length; i++) {
+                    DatabaseUtils.bindObjectToProgram(statement, i + 1, value.get(columnNames[i]));
+                }
+
+                long rowId = statement.executeInsert();
+                addChangedKey(changedKeys, tableDetails, value, rowId);
+                count++;
+            }
+            return count;
+        } finally {
+            if (statement != null) statement.close();
+        }
+    }
+
+    /**
+     * Inserts all of the model objects, resolving conflicts with existing rows using the conflict policy.  A single insert
+     * statement is compiled, and for the update policy a single update statement that is tried first, so the rows are
+     * merged in one pass without reading them.
+     * <br>
+     * A primary key assigned by the database is bound for the objects that have it set, so they conflict with their existing
+     * row, the other objects get a key assigned.  Both kinds of objects share their own compiled statements.
+     *
+     * @param db               The writable database
+     * @param tableDetails     The table details of the model objects
+     * @param dataModelObjects The objects to upsert
+     * @param conflictPolicy   The conflict policy
+     * @param changedKeys      Receives the keys of the inserted and updated rows, or null
+     * @return The amount of rows inserted or updated, ignored rows are not counted
+     */
+    public static int upsertAll(SQLiteDatabase db, TableDetails tableDetails, List<?> dataModelObjects, ConflictPolicy conflictPolicy, Collection<Object> changedKeys) {
+        TableDetails.ColumnDetails clientKeyColumn = tableDetails.findPrimaryKeyColumn();
+        TableDetails.ColumnDetails primaryKeyColumn = clientKeyColumn != null && clientKeyColumn.isAutoIncrement() ? clientKeyColumn : null;
+
+        ObjectUpsert keyedUpsert = null;
+        ObjectUpsert unkeyedUpsert = null;
+        try {
+            int count = 0;
+            for (int i = 0; i < dataModelObjects.size(); i++) {
+                Object dataModelObject = dataModelObjects.get(i);
+                if (clientKeyColumn != null) clientKeyColumn.assignClientKey(dataModelObject);
+
+                ObjectUpsert upsert;
+                if (primaryKeyColumn != null && primaryKeyColumn.isKeySet(dataModelObject)) {
+                    if (keyedUpsert == null) keyedUpsert = new ObjectUpsert(db, tableDetails, findInsertColumns(tableDetails, true), conflictPolicy);
+                    upsert = keyedUpsert;
+                } else {
+                    if (unkeyedUpsert == null) unkeyedUpsert = new ObjectUpsert(db, tableDetails, findInsertColumns(tableDetails, false), conflictPolicy);
+                    upsert = unkeyedUpsert;
+                }
+
+                if (upsert.execute(tableDetails, dataModelObject, primaryKeyColumn, changedKeys)) count++;
+            }
+            return count;
+        } catch (IllegalAccessException e) {
+            throw new QuantumFluxException("Unable to access protected field, change the access level: " + tableDetails.getTableClass().getSimpleName(), e);
+        } finally {
+            if (keyedUpsert != null) keyedUpsert.close();
+            if (unkeyedUpsert != null) unkeyedUpsert.close();
+        }
+    }
+
+    /**
+     * Same as {@link #upsertAll(SQLiteDatabase, TableDetails, List, ConflictPolicy, Collection)} for content values.  Consecutive rows
+     * containing the same columns share the compiled statements.
+     *
+     * @param db             The writable database
+     * @param tableDetails   The table to upsert into
+     * @param values         The rows to upsert
+     * @param conflictPolicy The conflict policy
+     * @param changedKeys    Receives the keys of the inserted and updated rows, or null
+     * @return The amount of rows inserted or updated, ignored rows are not counted
+     */
+    public static int upsertAll(SQLiteDatabase db, TableDetails tableDetails, ContentValues[] values, ConflictPolicy conflictPolicy, Collection<Object> changedKeys) {
+        UpsertStatements statements = null;
+        String[] columnNames = null;
+
+        try {
+            int count = 0;
+            for (ContentValues value : values) {
+                if (columnNames == null || !hasSameColumns(value, columnNames)) {
+                    if (statements != null) statements.close();
+
+                    columnNames = value.keySet().toArray(new String[value.size()]);
+                    statements = new UpsertStatements(db, tableDetails, columnNames, conflictPolicy);
+                }
+
+                if (statements.mUpdate != null) {
+                    statements.mUpdate.clearBindings();
+                    for (int i = 0; i < statements.mUpdateBindColumns.length; i++) {
+                        DatabaseUtils.bindObjectToProgram(statements.mUpdate, i + 1, value.get(statements.mUpdateBindColumns[i]));
+                    }
+
+                    if (statements.mUpdate.executeUpdateDelete() > 0) {
+                        if (statements.isUpdateKeyKnown) addChangedKey(changedKeys, tableDetails, value, -1);
+                        else if (changedKeys != null) changedKeys.add(null);
+                        count++;
+                        continue;
+                    }
+                }
+
+                statements.mInsert.clearBindings();
+                for (int i = 0; i < columnNames.length; i++) {
+                    DatabaseUtils.bindObjectToProgram(statements.mInsert, i + 1, value.get(columnNames[i]));
+                }
+
+                long rowId = statements.mInsert.executeInsert();
+                if (rowId != -1) {
+                    addChangedKey(changedKeys, tableDetails, value, rowId);
+                    if (!statements.isReplacedKeyKnown && changedKeys != null) changedKeys.add(null);
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            if (statements != null) statements.close();
+        }
+    }
+
+    /**
+     * Updates the rows of all of the model objects, matched on their primary key, binding the field values straight onto a
+     * single compiled UPDATE ... WHERE primary key = ? statement.
+     *
+     * @param db               The writable database
+     * @param tableDetails     The table details of the model objects
+     * @param dataModelObjects The objects to update
+     * @param columns          The columns to update, not containing the primary key
+     * @param changedKeys      Receives the keys of the updated rows, or null
+     * @return The amount of rows updated, objects without a row are not counted
+     */
+    public static int updateAll(SQLiteDatabase db, TableDetails tableDetails, List<?> dataModelObjects, List<TableDetails.ColumnDetails> columns, Collection<Object> changedKeys) {
+        TableDetails.ColumnDetails primaryKeyColumn = findPrimaryKeyColumn(tableDetails);
+        String[] columnNames = new String[columns.size()];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = columns.get(i).getColumnName();
+        }
+
+        SQLiteStatement statement = db.compileStatement(createUpdateStatement(tableDetails.getTableName(), columnNames, new String[]{primaryKeyColumn.getColumnName()}));
+        try {
+            int count = 0;
+            for (int i = 0; i < dataModelObjects.size(); i++) {
+                Object dataModelObject = dataModelObjects.get(i);
+                statement.clearBindings();
+
+                for (int j = 0; j < columns.size(); j++) {
+                    columns.get(j).bindValue(statement, j + 1, dataModelObject);
+                }
+                primaryKeyColumn.bindValue(statement, columns.size() + 1, dataModelObject);
+
+                int updateCount = statement.executeUpdateDelete();
+                if (updateCount > 0) addChangedKey(changedKeys, tableDetails, dataModelObject);
+                count += updateCount;
+            }
+            return count;
+        } catch (IllegalAccessException e) {
+            throw new QuantumFluxException("Unable to access protected field, change the access level: " + tableDetails.getTableClass().getSimpleName(), e);
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Same as {@link #updateAll(SQLiteDatabase, TableDetails, List, List, Collection)} for content values.  Every row must contain the
+     * primary key value, the other values are updated.  Consecutive rows containing the same columns share the compiled statement.
+     *
+     * @param db           The writable database
+     * @param tableDetails The table to update
+     * @param values       The rows to update, including their primary key
+     * @param changedKeys  Receives the keys of the updated rows, or null
+     * @return The amount of rows updated
+     */
+    public static int updateAll(SQLiteDatabase db, TableDetails tableDetails, ContentValues[] values, Collection<Object> changedKeys) {
+        String primaryKeyName = findPrimaryKeyColumn(tableDetails).getColumnName();
+        SQLiteStatement statement = null;
+        String[] columnNames = null;
+        String primaryKeyValueName = null;
+
+        try {
+            int count = 0;
+            for (ContentValues value : values) {
+                if (columnNames == null || !hasSameColumns(value, columnNames, primaryKeyValueName)) {
+                    if (statement != null) statement.close();
+                    statement = null;
+
+                    //The primary key is matched, every other value is updated
+                    List<String> updateColumns = new ArrayList<>(value.size());
+                    primaryKeyValueName = null;
+                    for (String columnName : value.keySet()) {
+                        if (columnName.equalsIgnoreCase(primaryKeyName)) primaryKeyValueName = columnName;
+                        else updateColumns.add(columnName);
+                    }
+                    if (primaryKeyValueName == null) {
+                        throw new QuantumFluxException("The primary key " + primaryKeyName + " is required to update the rows of " + tableDetails.getTableName());
+                    }
+
+                    columnNames = updateColumns.toArray(new String[updateColumns.size()]);
+                    statement = db.compileStatement(createUpdateStatement(tableDetails.getTableName(), columnNames, new String[]{primaryKeyName}));
+                }
+
+                statement.clearBindings();
+                for (int i = 0; i < columnNames.length; i++) {
+                    DatabaseUtils.bindObjectToProgram(statement, i + 1, value.get(columnNames[i]));
+                }
+                DatabaseUtils.bindObjectToProgram(statement, columnNames.length + 1, value.get(primaryKeyValueName));
+
+                int updateCount = statement.executeUpdateDelete();
+                if (updateCount > 0 && changedKeys != null) changedKeys.add(value.get(primaryKeyValueName));
+                count += updateCount;
+            }
+            return count;
+        } finally {
+            if (statement != null) statement.close();
+        }
+    }
+
+    /**
+     * Deletes the rows with the primary keys using a single compiled DELETE ... WHERE primary key = ? statement
+     *
+     * @param db           The writable database
+     * @param tableDetails The table to delete from
+     * @param keys         The primary key values, in their sql type or as they appear in the item uri
+     * @param changedKeys  Receives the keys of the deleted rows, or null
+     * @return The amount of rows deleted
+     */
+    public static int deleteAll(SQLiteDatabase db, TableDetails tableDetails, Object[] keys, Collection<Object> changedKeys) {
+        String primaryKeyName = findPrimaryKeyColumn(tableDetails).getColumnName();
+
+        SQLiteStatement statement = db.compileStatement("DELETE FROM " + tableDetails.getTableName() + " WHERE " + primaryKeyName + " = ?");
+        try {
+            int count = 0;
+            for (Object key : keys) {
+                statement.clearBindings();
+                DatabaseUtils.bindObjectToProgram(statement, 1, key);
+
+                int deleteCount = statement.executeUpdateDelete();
+                if (deleteCount > 0 && changedKeys != null) changedKeys.add(key);
+                count += deleteCount;
+            }
+            return count;
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * @param tableName   The table to insert into
+     * @param columnNames The columns to bind
+     * @return The insert statement with an argument for every column
+     */
+    public static String createInsertStatement(String tableName, String[] columnNames) {
+        return createInsertStatement(tableName, columnNames, null);
+    }
+
+    /**
+     * @param tableName      The table to insert into
+     * @param columnNames    The columns to bind
+     * @param conflictClause The conflict clause, OR REPLACE or OR IGNORE, null to fail on conflicts
+     * @return The insert statement with an argument for every column
+     */
+    public static String createInsertStatement(String tableName, String[] columnNames, String conflictClause) {
+        StringBuilder sqlStatement = new StringBuilder();
+        sqlStatement.append("INSERT ");
+        if (conflictClause != null) sqlStatement.append(conflictClause).append(" ");
+        sqlStatement.append("INTO ").append(tableName);
+
+        if (columnNames.length == 0) {
+            sqlStatement.append(" DEFAULT VALUES");
+            return sqlStatement.toString();
+        }
+
+        sqlStatement.append(" (");
+        for (int i = 0; i < columnNames.length; i++) {
+            if (i > 0) sqlStatement.append(", ");
+            sqlStatement.append(columnNames[i]);
+        }
+        sqlStatement.append(") VALUES (");
+        for (int i = 0; i < columnNames.length; i++) {
+            if (i > 0) sqlStatement.append(", ");
+            sqlStatement.append("?");
+        }
+        sqlStatement.append(")");
+
+        return sqlStatement.toString();
+    }
+
+    /**
+     * @param tableName     The table to update
+     * @param columnNames   The columns to set
+     * @param whereColumns  The columns to match, all with an equals
+     * @return The update statement with an argument for every column, followed by an argument for every where column
+     */
+    public static String createUpdateStatement(String tableName, String[] columnNames, String[] whereColumns) {
+        StringBuilder sqlStatement = new StringBuilder();
+        sqlStatement.append("UPDATE ").append(tableName).append(" SET ");
+
+        for (int i = 0; i < columnNames.length; i++) {
+            if (i > 0) sqlStatement.append(", ");
+            sqlStatement.append(columnNames[i]).append(" = ?");
+        }
+        sqlStatement.append(" WHERE ");
+        for (int i = 0; i < whereColumns.length; i++) {
+            if (i > 0) sqlStatement.append(" AND ");
+            sqlStatement.append(whereColumns[i]).append(" = ?");
+        }
+
+        return sqlStatement.toString();
+    }
+
+    /**
+     * @param tableDetails The table to update
+     * @param columns      The column names, null or empty for all of the columns except the primary key
+     * @return The columns to update
+     */
+    public static List<TableDetails.ColumnDetails> findUpdateColumns(TableDetails tableDetails, String[] columns) {
+        List<TableDetails.ColumnDetails> updateColumns = new ArrayList<>();
+
+        if (columns == null || columns.length == 0) {
+            for (TableDetails.ColumnDetails column : tableDetails.getColumns()) {
+                if (!column.isPrimaryKey()) updateColumns.add(column);
+            }
+            return updateColumns;
+        }
+
+        for (String columnName : columns) {
+            TableDetails.ColumnDetails column = tableDetails.findColumn(columnName);
+            if (column == null || column.isPrimaryKey()) {
+                throw new QuantumFluxException("The update column " + columnName + " is not a column of " + tableDetails.getTableName() + " or is its primary key");
+            }
+            updateColumns.add(column);
+        }
+        return updateColumns;
+    }
+
+    /**
+     * @param includeGeneratedKey True to include a primary key assigned by the database, for objects that have it set
+     */
+    private static List<TableDetails.ColumnDetails> findInsertColumns(TableDetails tableDetails, boolean includeGeneratedKey) {
+        List<TableDetails.ColumnDetails> columns = new ArrayList<>();
+        for (TableDetails.ColumnDetails column : tableDetails.getColumns()) {
+            //Same as deflating, the database assigns the auto increment keys
+            if (column.isAutoIncrement() && !includeGeneratedKey) continue;
+
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    private static void addChangedKey(Collection<Object> changedKeys, TableDetails tableDetails, Object dataModelObject) throws IllegalAccessException {
+        if (changedKeys == null) return;
+
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        Object key = primaryKeyColumn == null ? null : primaryKeyColumn.getFieldValue(dataModelObject);
+        changedKeys.add(key == null ? null : primaryKeyColumn.getColumnTypeMapping().toSqlType(key));
+    }
+
+    /**
+     * @param rowId The row id of the inserted row, or -1 if the row was updated
+     */
+    private static void addChangedKey(Collection<Object> changedKeys, TableDetails tableDetails, ContentValues value, long rowId) {
+        if (changedKeys == null) return;
+
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        if (primaryKeyColumn == null) changedKeys.add(null);
+        else if (primaryKeyColumn.isAutoIncrement() && rowId != -1) changedKeys.add(rowId);
+        else changedKeys.add(value.get(primaryKeyColumn.getColumnName()));
+    }
+
+    /**
+     * @return True if rows can conflict on other unique keys than the primary key
+     */
+    private static boolean hasSecondaryUniqueKeys(TableDetails tableDetails) {
+        for (TableDetails.ColumnDetails column : tableDetails.getColumns()) {
+            if (column.isUnique() && !column.isPrimaryKey()) return true;
+        }
+        for (TableConstraint constraint : tableDetails.getConstraints()) {
+            if (constraint.constraintType() == TableConstraint.Type.UNIQUE) return true;
+        }
+        return false;
+    }
+
+    private static TableDetails.ColumnDetails findPrimaryKeyColumn(TableDetails tableDetails) {
+        TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+        if (primaryKeyColumn == null) {
+            throw new QuantumFluxException("No primary key found on " + tableDetails.getTableName());
+        }
+        return primaryKeyColumn;
+    }
+
+    private static boolean hasSameColumns(ContentValues value, String[] columnNames) {
+        if (value.size() != columnNames.length) return false;
+
+        for (String columnName : columnNames) {
+            if (!value.containsKey(columnName)) return false;
+        }
+        return true;
+    }
+
+    private static boolean hasSameColumns(ContentValues value, String[] columnNames, String primaryKeyValueName) {
+        if (value.size() != columnNames.length + 1 || !value.containsKey(primaryKeyValueName)) return false;
+
+        for (String columnName : columnNames) {
+            if (!value.containsKey(columnName)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * The compiled statements of an upsert for a single set of inserted columns
+     */
+    private static class UpsertStatements {
+
+        private final SQLiteStatement mInsert;
+        private final SQLiteStatement mUpdate;
+        /**
+         * The update columns followed by the key columns, in the order of the update statement arguments
+         */
+        private final String[] mUpdateBindColumns;
+        /**
+         * If the primary key of an updated row is known, which is not the case if it is assigned by the database and the
+         * row is matched on another key
+         */
+        private final boolean isUpdateKeyKnown;
+        /**
+         * If the keys of the rows deleted by a replace are known, which is not the case if they can conflict on another key
+         */
+        private final boolean isReplacedKeyKnown;
+
+        UpsertStatements(SQLiteDatabase db, TableDetails tableDetails, String[] columnNames, ConflictPolicy conflictPolicy) {
+            String conflictClause = conflictPolicy.getType() == ConflictPolicy.Type.REPLACE ? "OR REPLACE" : "OR IGNORE";
+            String[] updateBindColumns = null;
+            SQLiteStatement update = null;
+            boolean updateKeyKnown = true;
+
+            String[] keyColumns = conflictPolicy.getType() == ConflictPolicy.Type.UPDATE ? conflictPolicy.resolveKeyColumns(tableDetails, columnNames) : null;
+            if (conflictPolicy.getType() == ConflictPolicy.Type.UPDATE && keyColumns == null) {
+                //The rows can not match an existing row, so they are plainly inserted
+                conflictClause = null;
+            } else if (keyColumns != null) {
+                keyColumns = keyColumns.clone();
+                for (int i = 0; i < keyColumns.length; i++) {
+                    String columnName = findColumn(columnNames, keyColumns[i]);
+                    if (columnName == null) {
+                        throw new QuantumFluxException("The conflict key column " + keyColumns[i] + " must be inserted to match the existing rows of " + tableDetails.getTableName());
+                    }
+                    keyColumns[i] = columnName;
+                }
+
+                TableDetails.ColumnDetails primaryKeyColumn = tableDetails.findPrimaryKeyColumn();
+                if (primaryKeyColumn == null || (primaryKeyColumn.isAutoIncrement() && findColumn(keyColumns, primaryKeyColumn.getColumnName()) == null)) {
+                    updateKeyKnown = false;
+                }
+
+                //When every column is part of the key there is nothing to update, the existing row is kept
+                String[] updateColumns = conflictPolicy.resolveUpdateColumns(tableDetails, columnNames, keyColumns);
+                if (updateColumns.length > 0) {
+                    updateBindColumns = new String[updateColumns.length + keyColumns.length];
+                    System.arraycopy(updateColumns, 0, updateBindColumns, 0, updateColumns.length);
+                    System.arraycopy(keyColumns, 0, updateBindColumns, updateColumns.length, keyColumns.length);
+
+                    update = db.compileStatement(createUpdateStatement(tableDetails.getTableName(), updateColumns, keyColumns));
+                    conflictClause = null;
+                }
+            }
+
+            this.mUpdate = update;
+            this.mUpdateBindColumns = updateBindColumns;
+            this.isUpdateKeyKnown = updateKeyKnown;
+            this.isReplacedKeyKnown = conflictPolicy.getType() != ConflictPolicy.Type.REPLACE || !hasSecondaryUniqueKeys(tableDetails);
+            try {
+                this.mInsert = db.compileStatement(createInsertStatement(tableDetails.getTableName(), columnNames, conflictClause));
+            } catch (RuntimeException e) {
+                if (update != null) update.close();
+                throw e;
+            }
+        }
+
+        void close() {
+            mInsert.close();
+            if (mUpdate != null) mUpdate.close();
+        }
+
+        /**
+         * @return The inserted column name matching the column, which is how the value is named in the content values
+         */
+        private static String findColumn(String[] columnNames, String column) {
+            for (String columnName : columnNames) {
+                if (columnName.equalsIgnoreCase(column.trim())) return columnName;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The compiled upsert statements for model objects, binding a single set of columns
+     */
+    private static class ObjectUpsert {
+
+        private final List<TableDetails.ColumnDetails> mColumns;
+        private final TableDetails.ColumnDetails[] mUpdateColumns;
+        private final UpsertStatements mStatements;
+
+        ObjectUpsert(SQLiteDatabase db, TableDetails tableDetails, List<TableDetails.ColumnDetails> columns, ConflictPolicy conflictPolicy) {
+            String[] columnNames = new String[columns.size()];
+            for (int i = 0; i < columnNames.length; i++) {
+                columnNames[i] = columns.get(i).getColumnName();
+            }
+
+            this.mColumns = columns;
+            this.mStatements = new UpsertStatements(db, tableDetails, columnNames, conflictPolicy);
+
+            if (mStatements.mUpdate != null) {
+                mUpdateColumns = new TableDetails.ColumnDetails[mStatements.mUpdateBindColumns.length];
+                for (int i = 0; i < mUpdateColumns.length; i++) {
+                    mUpdateColumns[i] = tableDetails.findColumn(mStatements.mUpdateBindColumns[i]);
+                }
+            } else {
+                mUpdateColumns = null;
+            }
+        }
+
+        /**
+         * @param generatedKeyColumn The primary key assigned by the database, or null
+         * @return True if the object was inserted or updated, false if it was ignored
+         */
+        boolean execute(TableDetails tableDetails, Object dataModelObject, TableDetails.ColumnDetails generatedKeyColumn, Collection<Object> changedKeys) throws IllegalAccessException {
+            if (mUpdateColumns != null) {
+                mStatements.mUpdate.clearBindings();
+                for (int i = 0; i < mUpdateColumns.length; i++) {
+                    mUpdateColumns[i].bindValue(mStatements.mUpdate, i + 1, dataModelObject);
+                }
+
+                if (mStatements.mUpdate.executeUpdateDelete() > 0) {
+                    if (mStatements.isUpdateKeyKnown) addChangedKey(changedKeys, tableDetails, dataModelObject);
+                    else if (changedKeys != null) changedKeys.add(null);
+                    return true;
+                }
+            }
+
+            mStatements.mInsert.clearBindings();
+            for (int i = 0; i < mColumns.size(); i++) {
+                mColumns.get(i).bindValue(mStatements.mInsert, i + 1, dataModelObject);
+            }
+
+            //No row id is returned for ignored rows
+            long rowId = mStatements.mInsert.executeInsert();
+            if (rowId == -1) return false;
+
+            if (generatedKeyColumn != null) generatedKeyColumn.setGeneratedKey(dataModelObject, rowId);
+            addChangedKey(changedKeys, tableDetails, dataModelObject);
+            if (!mStatements.isReplacedKeyKnown && changedKeys != null) changedKeys.add(null);
+            return true;
+        }
+
+        void close() {
+            mStatements.close();
+        }
+    }
+}
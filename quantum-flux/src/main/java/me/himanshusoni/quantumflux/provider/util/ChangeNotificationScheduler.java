@@ -0,0 +1,260 @@
+package me.himanshusoni.quantumflux.provider.util;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the change notifications of the content provider and delivers them to the content resolver, de-duplicated.
+ * Every notification goes over binder and wakes up every cursor watching the uri, so a burst of writes would otherwise make
+ * every loader requery for every single write.
+ * <br>
+ * Notifications are held while a batch is delivered, see {@link #hold()}, and for the notification window, see
+ * {@link #setWindow(long)}.  When more rows of a table changed than the collapse threshold, the row uri's are collapsed
+ * into a single notification of the table uri, which also reaches the cursors watching the rows.
+ */
+public class ChangeNotificationScheduler {
+
+    private final ContentResolver mContentResolver;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (ChangeNotificationScheduler.this) {
+                isFlushScheduled = false;
+                if (mHoldCount > 0) return;
+            }
+            flush();
+        }
+    };
+
+    private final Map<String, TableChanges> mPendingChanges = new LinkedHashMap<>();
+    private long mWindowMillis;
+    private int mCollapseThreshold = 20;
+    private int mHoldCount;
+    private boolean isFlushScheduled;
+    private int mRaisedCount;
+    private int mDeliveredCount;
+    private int mCollapsedCount;
+
+    public ChangeNotificationScheduler(ContentResolver contentResolver) {
+        this.mContentResolver = contentResolver;
+    }
+
+    /**
+     * @param windowMillis The time notifications are collected before they are delivered, 0 by default to deliver them
+     *                     right away unless they are held
+     */
+    public synchronized void setWindow(long windowMillis) {
+        this.mWindowMillis = windowMillis;
+    }
+
+    public synchronized long getWindow() {
+        return mWindowMillis;
+    }
+
+    /**
+     * @param collapseThreshold The amount of changed rows of a single table above which the table uri is notified instead, 20 by default
+     */
+    public synchronized void setCollapseThreshold(int collapseThreshold) {
+        this.mCollapseThreshold = collapseThreshold;
+    }
+
+    public synchronized int getCollapseThreshold() {
+        return mCollapseThreshold;
+    }
+
+    /**
+     * Raises a change notification, to be delivered once the notifications are no longer held and the window has passed
+     *
+     * @param uri      The changed uri, the table uri or a row uri
+     * @param tableUri The uri of the changed table
+     * @param sync     If the change should be synced to the network
+     */
+    public void notifyChange(Uri uri, Uri tableUri, boolean sync) {
+        //Observers are matched on the path, the query parameters do not matter
+        String uriKey = uri.buildUpon().clearQuery().build().toString();
+        String tableKey = tableUri.buildUpon().clearQuery().build().toString();
+
+        notifyChange(uriKey, uri, tableKey, tableUri, sync);
+    }
+
+    /**
+     * Same as {@link #notifyChange(Uri, Uri, boolean)}, with the uri's already converted to the keys they are matched on
+     */
+    void notifyChange(String uriKey, Uri uri, String tableKey, Uri tableUri, boolean sync) {
+        boolean isDelivered;
+
+        synchronized (this) {
+            mRaisedCount++;
+
+            TableChanges tableChanges = mPendingChanges.get(tableKey);
+            if (tableChanges == null) {
+                tableChanges = new TableChanges(tableKey, tableUri);
+                mPendingChanges.put(tableKey, tableChanges);
+            }
+            tableChanges.add(uriKey, uri, sync, mCollapseThreshold);
+
+            isDelivered = mHoldCount == 0 && mWindowMillis <= 0;
+            if (!isDelivered && mHoldCount == 0) scheduleFlush();
+        }
+
+        if (isDelivered) flush();
+    }
+
+    /**
+     * Counts a notification that was raised, but already merged with an identical one before reaching the scheduler
+     */
+    public synchronized void countCoalesced() {
+        mRaisedCount++;
+    }
+
+    /**
+     * Holds the delivery of all notifications until {@link #release()} is called, so the notifications of a batch are
+     * de-duplicated together.  Holds can be nested.
+     */
+    public synchronized void hold() {
+        mHoldCount++;
+    }
+
+    /**
+     * Releases a {@link #hold()}, delivering the pending notifications when it is the last hold and there is no window
+     */
+    public void release() {
+        synchronized (this) {
+            if (mHoldCount == 0) return;
+            mHoldCount--;
+
+            if (mHoldCount > 0 || mPendingChanges.isEmpty()) return;
+            if (mWindowMillis > 0) {
+                scheduleFlush();
+                return;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Delivers all of the pending notifications right away
+     */
+    public void flush() {
+        List<String> notifyKeys = new ArrayList<>();
+        List<Uri> notifyUris = new ArrayList<>();
+        List<Boolean> syncFlags = new ArrayList<>();
+
+        synchronized (this) {
+            for (TableChanges tableChanges : mPendingChanges.values()) {
+                if (tableChanges.isTableChanged) {
+                    notifyKeys.add(tableChanges.mTableKey);
+                    notifyUris.add(tableChanges.mTableUri);
+                    syncFlags.add(tableChanges.isSynced);
+                } else {
+                    for (Map.Entry<String, Uri> rowUri : tableChanges.mRowUris.entrySet()) {
+                        notifyKeys.add(rowUri.getKey());
+                        notifyUris.add(rowUri.getValue());
+                        syncFlags.add(tableChanges.isSynced);
+                    }
+                }
+            }
+            mPendingChanges.clear();
+            mDeliveredCount += notifyUris.size();
+        }
+
+        for (int i = 0; i < notifyUris.size(); i++) {
+            deliver(notifyKeys.get(i), notifyUris.get(i), syncFlags.get(i));
+        }
+    }
+
+    /**
+     * Delivers a single notification to the content resolver
+     *
+     * @param uriKey The uri without its query parameters
+     * @param uri    The notified uri
+     * @param sync   If the change should be synced to the network
+     */
+    void deliver(String uriKey, Uri uri, boolean sync) {
+        mContentResolver.notifyChange(uri, null, sync);
+    }
+
+    /**
+     * @return The amount of notifications raised by writes
+     */
+    public synchronized int getRaisedCount() {
+        return mRaisedCount;
+    }
+
+    /**
+     * @return The amount of notifications delivered to the content resolver
+     */
+    public synchronized int getDeliveredCount() {
+        return mDeliveredCount;
+    }
+
+    /**
+     * @return The amount of times the row uri's of a table were collapsed into the table uri
+     */
+    public synchronized int getCollapsedCount() {
+        return mCollapsedCount;
+    }
+
+    private void scheduleFlush() {
+        if (isFlushScheduled) return;
+
+        isFlushScheduled = true;
+        postFlush(mFlushRunnable, mWindowMillis);
+    }
+
+    /**
+     * Posts the flush of the pending notifications to the main thread
+     */
+    void postFlush(Runnable flushRunnable, long delayMillis) {
+        mHandler.postDelayed(flushRunnable, delayMillis);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ChangeNotificationScheduler[raised=" + mRaisedCount + ", delivered=" + mDeliveredCount + ", collapsed=" + mCollapsedCount
+                + ", pending=" + mPendingChanges.size() + ", window=" + mWindowMillis + "ms, collapseThreshold=" + mCollapseThreshold + "]";
+    }
+
+    /**
+     * The pending notifications of a single table
+     */
+    private class TableChanges {
+
+        private final String mTableKey;
+        private final Uri mTableUri;
+        private final Map<String, Uri> mRowUris = new LinkedHashMap<>();
+        private boolean isTableChanged;
+        private boolean isSynced;
+
+        TableChanges(String tableKey, Uri tableUri) {
+            this.mTableKey = tableKey;
+            this.mTableUri = tableUri;
+        }
+
+        void add(String uriKey, Uri uri, boolean sync, int collapseThreshold) {
+            isSynced = isSynced || sync;
+            if (isTableChanged) return;
+
+            if (uriKey.equals(mTableKey)) {
+                isTableChanged = true;
+                mRowUris.clear();
+                return;
+            }
+
+            mRowUris.put(uriKey, uri);
+            if (mRowUris.size() > collapseThreshold) {
+                mCollapsedCount++;
+                isTableChanged = true;
+                mRowUris.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package me.himanshusoni.quantumflux.provider.util;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.MatrixCursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
+
+/**
+ * Large IN lists are not expanded into an argument per value, since sqlite limits the amount of arguments to 999 and long
+ * lists are slow to parse.  Instead the where clause references a temp table, see {@link #createTableReference(int)}, and the
+ * values of the list are passed as arguments in place of the table reference.
+ * <br>
+ * Before executing the statement, the provider loads those arguments into the temp tables using a single compiled insert,
+ * and drops the tables again afterwards.  The tables are named by their position within the statement, see
+ * {@link #resolveTableReferences(String...)}, so the same select with the same list sizes always has the same sql and can be
+ * reused from the statement cache of the connection.
+ * <br>
+ * Temp tables are only visible to the connection that created them, so the caller must hold a transaction on the writable
+ * database for the entire duration, and must not keep a cursor open afterwards, see {@link #copyCursor(Cursor)}.  This means
+ * these statements wait for, and block, the writes of other threads, and the results of a query are held in memory in full.
+ * Selects with large IN lists should therefore be limited to a moderate amount of rows, or be split up by the caller.
+ */
+public class InListTableHelper {
+
+    private static final String TABLE_PREFIX = "quantumflux_in_";
+    private static final String REFERENCE_PREFIX = TABLE_PREFIX + "values_";
+    private static final Pattern TABLE_REFERENCE = Pattern.compile("temp\\." + REFERENCE_PREFIX + "(\\d+)");
+
+    /**
+     * Creates a reference to a temp table holding the values of an IN list.  The reference contains the amount of values,
+     * which must be passed as arguments at the position of the reference.  It does not name the table itself, the provider
+     * replaces it by the table at its position in the statement, see {@link #resolveTableReferences(String...)}.
+     *
+     * @param valueCount The amount of values in the list
+     * @return The table reference, to be used as SELECT value FROM reference
+     */
+    public static String createTableReference(int valueCount) {
+        return "temp." + REFERENCE_PREFIX + valueCount;
+    }
+
+    /**
+     * @param clauses The where and having clauses of the statement, may contain null values
+     * @return True if any of the clauses references an IN list table
+     */
+    public static boolean hasTableReferences(String... clauses) {
+        for (String clause : clauses) {
+            if (clause != null && clause.contains(REFERENCE_PREFIX)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the table references of the clauses by the names of the temp tables, which are numbered by their position
+     * within the statement, counting across all of the clauses
+     *
+     * @param clauses The where and having clauses of the statement, in the order of their arguments, may contain null values
+     * @return The clauses to execute, in the same order
+     */
+    public static String[] resolveTableReferences(String... clauses) {
+        String[] resolvedClauses = new String[clauses.length];
+        int tableIndex = 0;
+
+        for (int i = 0; i < clauses.length; i++) {
+            if (clauses[i] == null) continue;
+
+            Matcher matcher = TABLE_REFERENCE.matcher(clauses[i]);
+            StringBuffer resolvedClause = new StringBuffer(clauses[i].length());
+            while (matcher.find()) {
+                matcher.appendReplacement(resolvedClause, "temp." + getTableName(tableIndex++));
+            }
+            matcher.appendTail(resolvedClause);
+            resolvedClauses[i] = resolvedClause.toString();
+        }
+        return resolvedClauses;
+    }
+
+    /**
+     * Creates and fills the temp tables referenced by the clauses
+     *
+     * @param db      The writable database, in a transaction
+     * @param args    The arguments of the clauses, containing the values of the IN lists
+     * @param clauses The where and having clauses of the statement, in the order of their arguments
+     * @return The arguments without the values of the IN lists, of the same array type as the supplied arguments
+     */
+    public static <T> T[] createTables(SQLiteDatabase db, T[] args, String... clauses) {
+        if (args == null) throw new QuantumFluxException("The values of the in list tables are missing");
+
+        List<T> statementArgs = new ArrayList<>(args.length);
+        int argIndex = 0;
+        int tableIndex = 0;
+
+        for (String clause : clauses) {
+            if (clause == null) continue;
+
+            Matcher matcher = TABLE_REFERENCE.matcher(clause);
+            int position = 0;
+
+            while (matcher.find()) {
+                argIndex = copyArguments(args, argIndex, countArguments(clause, position, matcher.start()), statementArgs);
+
+                int valueCount = Integer.parseInt(matcher.group(1));
+                if (argIndex + valueCount > args.length) {
+                    throw new QuantumFluxException("Missing values for the in list table " + matcher.group());
+                }
+
+                createTable(db, getTableName(tableIndex++), args, argIndex, valueCount);
+                argIndex += valueCount;
+                position = matcher.end();
+            }
+            argIndex = copyArguments(args, argIndex, countArguments(clause, position, clause.length()), statementArgs);
+        }
+
+        @SuppressWarnings("unchecked")
+        T[] remainingArgs = (T[]) Array.newInstance(args.getClass().getComponentType(), statementArgs.size());
+        return statementArgs.toArray(remainingArgs);
+    }
+
+    /**
+     * Drops the temp tables referenced by the clauses
+     *
+     * @param db      The writable database, in the same transaction the tables were created in
+     * @param clauses The where and having clauses of the statement
+     */
+    public static void dropTables(SQLiteDatabase db, String... clauses) {
+        int tableIndex = 0;
+
+        for (String clause : clauses) {
+            if (clause == null) continue;
+
+            Matcher matcher = TABLE_REFERENCE.matcher(clause);
+            while (matcher.find()) {
+                db.execSQL("DROP TABLE IF EXISTS temp." + getTableName(tableIndex++));
+            }
+        }
+    }
+
+    /**
+     * Copies all of the rows of the cursor into memory, so the cursor does not need the temp tables to fill its window
+     * after they have been dropped.  Unlike a regular cursor, which only holds a window of the rows, every row is held in
+     * memory at once, so the results should be kept small.  The cursor is closed.
+     *
+     * @param cursor The cursor to copy
+     * @return The in memory cursor
+     */
+    public static Cursor copyCursor(Cursor cursor) {
+        try {
+            String[] columnNames = cursor.getColumnNames();
+            MatrixCursor matrixCursor = new MatrixCursor(columnNames, cursor.getCount());
+            Object[] row = new Object[columnNames.length];
+
+            while (cursor.moveToNext()) {
+                for (int i = 0; i < row.length; i++) {
+                    switch (cursor.getType(i)) {
+                        case Cursor.FIELD_TYPE_INTEGER:
+                            row[i] = cursor.getLong(i);
+                            break;
+                        case Cursor.FIELD_TYPE_FLOAT:
+                            row[i] = cursor.getDouble(i);
+                            break;
+                        case Cursor.FIELD_TYPE_STRING:
+                            row[i] = cursor.getString(i);
+                            break;
+                        case Cursor.FIELD_TYPE_BLOB:
+                            row[i] = cursor.getBlob(i);
+                            break;
+                        default:
+                            row[i] = null;
+                    }
+                }
+                matrixCursor.addRow(row);
+            }
+            return matrixCursor;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static String getTableName(int tableIndex) {
+        return TABLE_PREFIX + tableIndex;
+    }
+
+    private static void createTable(SQLiteDatabase db, String tableName, Object[] args, int start, int valueCount) {
+        //A failed statement in an outer transaction keeps its tables until that transaction ends, so they are replaced
+        db.execSQL("DROP TABLE IF EXISTS temp." + tableName);
+
+        //The value column has no type, so the values are compared using the affinity of the filtered column
+        String createTable = "CREATE TEMP TABLE " + tableName + " (value PRIMARY KEY)";
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) createTable += " WITHOUT ROWID";
+        db.execSQL(createTable);
+
+        SQLiteStatement statement = db.compileStatement("INSERT OR IGNORE INTO temp." + tableName + " (value) VALUES (?)");
+        try {
+            for (int i = start; i < start + valueCount; i++) {
+                DatabaseUtils.bindObjectToProgram(statement, 1, args[i]);
+                statement.executeInsert();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    private static <T> int copyArguments(T[] args, int argIndex, int argCount, List<T> statementArgs) {
+        if (argIndex + argCount > args.length) {
+            throw new QuantumFluxException("Expected at least " + (argIndex + argCount) + " arguments, but got " + args.length);
+        }
+
+        for (int i = 0; i < argCount; i++) {
+            statementArgs.add(args[argIndex++]);
+        }
+        return argIndex;
+    }
+
+    /**
+     * Counts the argument placeholders, skipping those inside string literals
+     */
+    private static int countArguments(String clause, int start, int end) {
+        int count = 0;
+        boolean isLiteral = false;
+
+        for (int i = start; i < end; i++) {
+            char c = clause.charAt(i);
+            if (c == '\'') isLiteral = !isLiteral;
+            else if (c == '?' && !isLiteral) count++;
+        }
+        return count;
+    }
+}
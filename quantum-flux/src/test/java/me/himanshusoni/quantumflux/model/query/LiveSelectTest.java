@@ -0,0 +1,262 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import me.himanshusoni.quantumflux.model.annotation.Column.PrimaryKey;
+import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.model.map.types.LongType;
+import me.himanshusoni.quantumflux.model.map.types.StringType;
+import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the changes a {@link LiveSelect} reports when the queried rows are applied to its results, their types and
+ * positions must replay the results on a list the same way a recycler view adapter would.
+ */
+public class LiveSelectTest {
+
+    @Test
+    public void loadedRowsAreInsertedAtTheirSortedPositions() throws NoSuchFieldException {
+        RecordingListener listener = new RecordingListener();
+        LiveSelect<Item> liveSelect = createLiveSelect(Select.from(Item.class).sortAsc("rank"), listener);
+
+        liveSelect.applyRows(null, rows(new Item(3, "c", 3), new Item(1, "a", 1), new Item(2, "b", 2)));
+
+        assertEquals("[INSERT[0], INSERT[0], INSERT[1]]", listener.mChanges.toString());
+        assertItems(liveSelect, 1, 2, 3);
+        listener.assertReplays(liveSelect);
+    }
+
+    @Test
+    public void changedRowsKeepingTheirPositionAreChanges() throws NoSuchFieldException {
+        RecordingListener listener = new RecordingListener();
+        LiveSelect<Item> liveSelect = createLoadedLiveSelect(listener);
+
+        Item changed = new Item(2, "changed", 2);
+        liveSelect.applyRows(keys(2), rows(changed));
+
+        assertEquals("[CHANGE[1]]", listener.mChanges.toString());
+        assertSame(changed, liveSelect.get(1));
+        assertSame(changed, listener.mChanges.get(0).getItem());
+        listener.assertReplays(liveSelect);
+    }
+
+    @Test
+    public void changedRowsChangingTheirPositionAreMoves() throws NoSuchFieldException {
+        RecordingListener listener = new RecordingListener();
+        LiveSelect<Item> liveSelect = createLoadedLiveSelect(listener);
+
+        liveSelect.applyRows(keys(1), rows(new Item(1, "a", 5)));
+
+        assertEquals("[MOVE[0 -> 2]]", listener.mChanges.toString());
+        assertEquals(0, listener.mChanges.get(0).getFromPosition());
+        assertEquals(2, listener.mChanges.get(0).getPosition());
+        assertItems(liveSelect, 2, 3, 1);
+        listener.assertReplays(liveSelect);
+    }
+
+    @Test
+    public void changedKeysWithoutARowAreRemoved() throws NoSuchFieldException {
+        RecordingListener listener = new RecordingListener();
+        LiveSelect<Item> liveSelect = createLoadedLiveSelect(listener);
+        Item removed = liveSelect.get(1);
+
+        liveSelect.applyRows(keys(2, 4), rows());
+
+        assertEquals("[REMOVE[1]]", listener.mChanges.toString());
+        assertSame(removed, listener.mChanges.get(0).getItem());
+        assertItems(liveSelect, 1, 3);
+        listener.assertReplays(liveSelect);
+    }
+
+    @Test
+    public void positionsAccountForTheChangesBeforeThem() throws NoSuchFieldException {
+        RecordingListener listener = new RecordingListener();
+        LiveSelect<Item> liveSelect = createLoadedLiveSelect(listener);
+
+        liveSelect.applyRows(keys(1, 3, 4, 2), rows(new Item(3, "c", 0), new Item(4, "d", 2), new Item(2, "b", 2)));
+
+        assertEquals("[REMOVE[0], MOVE[1 -> 0], INSERT[2], CHANGE[1]]", listener.mChanges.toString());
+        assertItems(liveSelect, 3, 2, 4);
+        listener.assertReplays(liveSelect);
+    }
+
+    @Test
+    public void reloadsCompareAllOfTheRows() throws NoSuchFieldException {
+        RecordingListener listener = new RecordingListener();
+        LiveSelect<Item> liveSelect = createLoadedLiveSelect(listener);
+
+        liveSelect.applyRows(null, rows(new Item(3, "c", 3), new Item(5, "e", 1)));
+
+        assertEquals("[REMOVE[0], REMOVE[0], CHANGE[0], INSERT[0]]", listener.mChanges.toString());
+        assertItems(liveSelect, 5, 3);
+        listener.assertReplays(liveSelect);
+    }
+
+    @Test
+    public void descendingSortsBreakTiesOnThePrimaryKey() throws NoSuchFieldException {
+        RecordingListener listener = new RecordingListener();
+        LiveSelect<Item> liveSelect = createLiveSelect(Select.from(Item.class).sortDesc("rank"), listener);
+
+        liveSelect.applyRows(null, rows(new Item(2, "b", 1), new Item(1, "a", 1), new Item(3, "c", 2)));
+
+        assertItems(liveSelect, 3, 1, 2);
+        listener.assertReplays(liveSelect);
+    }
+
+    @Test
+    public void itemsChangedInPlaceAreStillFound() throws NoSuchFieldException {
+        RecordingListener listener = new RecordingListener();
+        LiveSelect<Item> liveSelect = createLoadedLiveSelect(listener);
+
+        liveSelect.get(0).mRank = 10L;
+        liveSelect.applyRows(keys(1), rows(new Item(1, "a", 10)));
+
+        assertEquals("[MOVE[0 -> 2]]", listener.mChanges.toString());
+        assertItems(liveSelect, 2, 3, 1);
+    }
+
+    @Test
+    public void unchangedResultsAreNotReported() throws NoSuchFieldException {
+        RecordingListener listener = new RecordingListener();
+        LiveSelect<Item> liveSelect = createLoadedLiveSelect(listener);
+
+        liveSelect.applyRows(keys(4), rows());
+
+        assertTrue(listener.mChanges.isEmpty());
+        assertEquals(0, listener.mCallCount);
+    }
+
+    @Test
+    public void partialSelectsCanNotBeLive() throws NoSuchFieldException {
+        try {
+            new LiveSelect<>(Select.from(Item.class).limit(10), createTableDetails());
+            fail("A limited select was kept live");
+        } catch (QuantumFluxException expected) {
+        }
+    }
+
+    private static LiveSelect<Item> createLoadedLiveSelect(RecordingListener listener) throws NoSuchFieldException {
+        LiveSelect<Item> liveSelect = createLiveSelect(Select.from(Item.class).sortAsc("rank"), listener);
+        liveSelect.applyRows(null, rows(new Item(1, "a", 1), new Item(2, "b", 2), new Item(3, "c", 3)));
+
+        listener.reset(liveSelect);
+        return liveSelect;
+    }
+
+    private static LiveSelect<Item> createLiveSelect(Select<Item> select, RecordingListener listener) throws NoSuchFieldException {
+        LiveSelect<Item> liveSelect = new LiveSelect<>(select, createTableDetails());
+        liveSelect.addListener(listener);
+        return liveSelect;
+    }
+
+    private static TableDetails createTableDetails() throws NoSuchFieldException {
+        TableDetails tableDetails = new TableDetails("item", "test", Item.class);
+        tableDetails.addColumn(new TableDetails.ColumnDetails("_id", Item.class.getField("mId"), new LongType(),
+                true, false, true, PrimaryKey.KeyStrategy.ASSIGNED, true, null));
+        tableDetails.addColumn(new TableDetails.ColumnDetails("name", Item.class.getField("mName"), new StringType(),
+                false, false, false, PrimaryKey.KeyStrategy.ASSIGNED, true, null));
+        tableDetails.addColumn(new TableDetails.ColumnDetails("rank", Item.class.getField("mRank"), new LongType(),
+                false, false, false, PrimaryKey.KeyStrategy.ASSIGNED, true, null));
+        return tableDetails;
+    }
+
+    private static Collection<String> keys(long... ids) {
+        List<String> keys = new ArrayList<>();
+        for (long id : ids) {
+            keys.add(String.valueOf(id));
+        }
+        return keys;
+    }
+
+    private static Map<String, Item> rows(Item... items) {
+        Map<String, Item> rows = new LinkedHashMap<>();
+        for (Item item : items) {
+            rows.put(String.valueOf(item.mId), item);
+        }
+        return rows;
+    }
+
+    private static void assertItems(LiveSelect<Item> liveSelect, long... ids) {
+        List<Long> itemIds = new ArrayList<>();
+        for (Item item : liveSelect.getItems()) {
+            itemIds.add(item.mId);
+        }
+
+        List<Long> expectedIds = new ArrayList<>();
+        for (long id : ids) {
+            expectedIds.add(id);
+        }
+        assertEquals(expectedIds, itemIds);
+    }
+
+    /**
+     * Replays the reported changes on a copy of the results, the way an adapter would
+     */
+    private static class RecordingListener implements LiveSelect.Listener<Item> {
+        private final List<LiveSelect.Change<Item>> mChanges = new ArrayList<>();
+        private final List<Item> mReplayedItems = new ArrayList<>();
+        private int mCallCount;
+
+        @Override
+        public void onChanged(LiveSelect<Item> liveSelect, List<LiveSelect.Change<Item>> changes) {
+            mCallCount++;
+            mChanges.addAll(changes);
+
+            for (LiveSelect.Change<Item> change : changes) {
+                switch (change.getType()) {
+                    case INSERT:
+                        mReplayedItems.add(change.getPosition(), change.getItem());
+                        break;
+                    case REMOVE:
+                        assertSame(change.getItem(), mReplayedItems.remove(change.getPosition()));
+                        break;
+                    case MOVE:
+                        mReplayedItems.remove(change.getFromPosition());
+                        mReplayedItems.add(change.getPosition(), change.getItem());
+                        break;
+                    case CHANGE:
+                        mReplayedItems.set(change.getPosition(), change.getItem());
+                        break;
+                }
+            }
+        }
+
+        void reset(LiveSelect<Item> liveSelect) {
+            mChanges.clear();
+            mCallCount = 0;
+            mReplayedItems.clear();
+            mReplayedItems.addAll(liveSelect.getItems());
+        }
+
+        void assertReplays(LiveSelect<Item> liveSelect) {
+            assertEquals(Arrays.asList(liveSelect.getItems().toArray()), mReplayedItems);
+        }
+    }
+
+    public static class Item {
+        public Long mId;
+        public String mName;
+        public Long mRank;
+
+        public Item() {
+        }
+
+        Item(long id, String name, long rank) {
+            this.mId = id;
+            this.mName = name;
+            this.mRank = rank;
+        }
+    }
+}
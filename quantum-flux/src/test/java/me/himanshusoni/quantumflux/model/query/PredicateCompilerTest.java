@@ -0,0 +1,502 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import me.himanshusoni.quantumflux.QuantumFlux;
+import me.himanshusoni.quantumflux.model.annotation.Column.Column;
+import me.himanshusoni.quantumflux.model.annotation.Column.PrimaryKey;
+import me.himanshusoni.quantumflux.model.annotation.Table;
+import me.himanshusoni.quantumflux.model.map.SqlColumnMappingFactory;
+import me.himanshusoni.quantumflux.model.util.ManifestHelper;
+
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.BEGINS_WITH;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.ENDS_WITH;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.EQUAL;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.GREATER_OR_EQUAL;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.GREATER_THAN;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.IN;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.IS_NOT_NULL;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.IS_NULL;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.LIKE;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.NOT_EQUAL;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.NOT_IN;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.NOT_LIKE;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.SMALLER_OR_EQUAL;
+import static me.himanshusoni.quantumflux.model.query.DataFilterCriterion.DataFilterOperator.SMALLER_THAN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the in memory LIKE and affinity conversions and the compiled filters of the {@link PredicateCompiler} against
+ * the results of sqlite.  The expected values were taken from sqlite 3.40, for instance SELECT 'ABC' LIKE 'abc' and
+ * SELECT typeof(i), i after inserting the value into a column of each affinity.
+ * <br>
+ * The compiled filters are checked on the rows in {@link #ROWS}, inserted into
+ * CREATE TABLE predicate_row (_id INTEGER PRIMARY KEY, count INTEGER, amount REAL, name TEXT).  The result of every leaf
+ * in {@link #LEAVES} was taken from SELECT (filter) FROM predicate_row ORDER BY _id with the filter values bound in their
+ * sql type, T for true, F for false and N for null.  Random combinations of the leaves are checked against the three
+ * valued AND and OR of those results.
+ */
+public class PredicateCompilerTest {
+
+    private static final long SEED = 20161017L;
+    private static final int RUNS = 2000;
+    private static final String ALPHABET = "aAbBzZ09 é😀";
+
+    /**
+     * Pattern, text and the result of sqlite
+     */
+    private static final Object[][] LIKE_CASES = {
+            {"abc", "abc", true},
+            {"abc", "ABC", true},
+            {"a%", "abc", true},
+            {"%c", "abc", true},
+            {"%b%", "abc", true},
+            {"a_c", "abc", true},
+            {"a_c", "ac", false},
+            {"_", "é", true},
+            {"é", "É", false},
+            {"é", "é", true},
+            {"%", "", true},
+            {"_%", "", false},
+            {"a%%b", "ab", true},
+            {"a%b", "aXbXb", true},
+            {"a%b", "aXbX", false},
+            {"%a%a%", "banana", true},
+            {"b%n_", "banana", true},
+            {"", "", true},
+            {"", "a", false},
+            {"A_%", "a", false},
+            {"100%", "100", true},
+            {"x", "xy", false},
+            {"xy", "x", false},
+            {"%ß%", "STRASSE", false},
+            {"😀_", "😀x", true},
+            {"_x", "😀x", true},
+            {"%%%", "abc", true},
+            {"[a]", "a", false},
+            {"a*", "abc", false},
+            {"a.c", "abc", false},
+    };
+
+    /**
+     * Value, followed by the value sqlite stores in an INTEGER, REAL, NUMERIC, TEXT and BLOB column
+     */
+    private static final Object[][] AFFINITY_CASES = {
+            {"42", 42L, 42.0, 42L, "42", "42"},
+            {" 42 ", 42L, 42.0, 42L, " 42 ", " 42 "},
+            {"4.0", 4L, 4.0, 4L, "4.0", "4.0"},
+            {"4.5", 4.5, 4.5, 4.5, "4.5", "4.5"},
+            {"1e3", 1000L, 1000.0, 1000L, "1e3", "1e3"},
+            {"abc", "abc", "abc", "abc", "abc", "abc"},
+            {"0x10", "0x10", "0x10", "0x10", "0x10", "0x10"},
+            {"9223372036854775808", 9.223372036854776e18, 9.223372036854776e18, 9.223372036854776e18, "9223372036854775808", "9223372036854775808"},
+            {"+5", 5L, 5.0, 5L, "+5", "+5"},
+            {"-0", 0L, 0.0, 0L, "-0", "-0"},
+            {".5", 0.5, 0.5, 0.5, ".5", ".5"},
+            {"5.", 5L, 5.0, 5L, "5.", "5."},
+            {"", "", "", "", "", ""},
+            {7L, 7L, 7.0, 7L, "7", 7L},
+            {7.0, 7L, 7.0, 7L, "7.0", 7.0},
+            {7.5, 7.5, 7.5, 7.5, "7.5", 7.5},
+            {-3L, -3L, -3.0, -3L, "-3", -3L},
+            {1e20, 1e20, 1e20, 1e20, "1.0e+20", 1e20},
+            {0.1, 0.1, 0.1, 0.1, "0.1", 0.1},
+            {1.5e-7, 1.5e-7, 1.5e-7, 1.5e-7, "1.5e-07", 1.5e-7},
+            {123456789012345678L, 123456789012345678L, 1.2345678901234568e17, 123456789012345678L, "123456789012345678", 123456789012345678L},
+            {1e15, 1000000000000000L, 1e15, 1000000000000000L, "1.0e+15", 1e15},
+            {1e14, 100000000000000L, 1e14, 100000000000000L, "100000000000000.0", 1e14},
+            {100.0, 100L, 100.0, 100L, "100.0", 100.0},
+            {-2.5e-5, -2.5e-5, -2.5e-5, -2.5e-5, "-2.5e-05", -2.5e-5},
+    };
+
+    private static final String[] AFFINITY_COLUMN_TYPES = {"INTEGER", "REAL", "NUMERIC", "TEXT", "BLOB"};
+
+    /**
+     * The id, count, amount and name of the rows
+     */
+    private static final Object[][] ROWS = {
+            {1L, 1L, 1.0, "a"},
+            {2L, null, null, null},
+            {3L, 10L, 2.5, "10"},
+            {4L, 9L, 9.0, "9"},
+            {5L, 9007199254740993L, 9007199254740992.0, "a%b"},
+            {6L, -5L, -0.5, "é"},
+            {7L, 0L, 0.0, ""},
+            {8L, 100L, 1e20, "A"},
+            {9L, 9007199254740992L, 1.5, "abc"},
+            {10L, null, 10.0, "b"},
+            {11L, 2L, null, "É"},
+            {12L, 10L, 100.0, null},
+    };
+
+    /**
+     * Column, operator, filter value and the result of sqlite for each of the rows
+     */
+    private static final Object[][] LEAVES = {
+            {"count", EQUAL, 10L, "FNTFFFFFFNFT"},
+            {"count", NOT_EQUAL, 10L, "TNFTTTTTTNTF"},
+            {"count", GREATER_THAN, 9L, "FNTFTFFTTNFT"},
+            {"count", SMALLER_OR_EQUAL, 9L, "TNFTFTTFFNTF"},
+            {"count", GREATER_OR_EQUAL, "10", "FNTFTFFTTNFT"},
+            {"count", SMALLER_THAN, 9007199254740993L, "TNTTFTTTTNTT"},
+            {"count", GREATER_THAN, 9007199254740992.0, "FNFFTFFFFNFF"},
+            {"amount", EQUAL, 9L, "FNFTFFFFFFNF"},
+            {"amount", SMALLER_THAN, 9007199254740993L, "TNTTTTTFTTNT"},
+            {"amount", GREATER_OR_EQUAL, 2.5, "FNTTTFFTFTNT"},
+            {"amount", GREATER_THAN, 1e19, "FNFFFFFTFFNF"},
+            {"amount", NOT_EQUAL, 0L, "TNTTTTFTTTNT"},
+            {"amount", EQUAL, 1e20, "FNFFFFFTFFNF"},
+            {"amount", EQUAL, "2.5", "FNTFFFFFFFNF"},
+            {"amount", GREATER_THAN, 9007199254740992L, "FNFFFFFTFFNF"},
+            {"name", EQUAL, "10", "FNTFFFFFFFFN"},
+            {"name", NOT_EQUAL, "a", "FNTTTTTTTTTN"},
+            {"name", GREATER_THAN, "9", "TNFFTTFTTTTN"},
+            {"name", SMALLER_THAN, 10L, "FNFFFFTFFFFN"},
+            {"name", GREATER_OR_EQUAL, "a", "TNFFTTFFTTTN"},
+            {"count", IN, Arrays.asList(1L, 10L, null), "TNTNNNNNNNNT"},
+            {"count", NOT_IN, Arrays.asList(1L, 10L, null), "FNFNNNNNNNNF"},
+            {"count", IN, Arrays.asList(2L, 9L), "FNFTFFFFFNTF"},
+            {"count", NOT_IN, Arrays.asList(2L, 9L), "TNTFTTTTTNFT"},
+            {"count", IN, Collections.emptyList(), "FFFFFFFFFFFF"},
+            {"count", NOT_IN, Collections.emptyList(), "TTTTTTTTTTTT"},
+            {"name", IN, Arrays.asList("a", null), "TNNNNNNNNNNN"},
+            {"name", IN, Arrays.asList(10L, 9.0), "FNTFFFFFFFFN"},
+            {"amount", IN, Arrays.asList(9007199254740993L, 1.5), "FNFFFFFFTFNF"},
+            {"name", NOT_IN, Arrays.asList("A", "b"), "TNTTTTTFTFTN"},
+            {"name", LIKE, "a", "TNFFTFFTTFFN"},
+            {"name", NOT_LIKE, "a", "FNTTFTTFFTTN"},
+            {"name", BEGINS_WITH, "a", "TNFFTFFTTFFN"},
+            {"name", ENDS_WITH, "b", "FNFFTFFFFTFN"},
+            {"name", LIKE, "é", "FNFFFTFFFFFN"},
+            {"amount", LIKE, "5", "FNTFTTFFTFNF"},
+            {"amount", LIKE, "e+", "FNFFTFFTFFNF"},
+            {"count", LIKE, "99", "FNFFTFFFTNFF"},
+            {"name", IS_NULL, null, "FTFFFFFFFFFT"},
+            {"amount", IS_NOT_NULL, null, "TFTTTTTTTTFT"},
+    };
+
+    /**
+     * The table details are read from the annotations, without an application context the authority and the column
+     * mappings have to be set up front
+     */
+    @BeforeClass
+    public static void setUpTableDetails() throws ReflectiveOperationException {
+        Field authority = ManifestHelper.class.getDeclaredField("authority");
+        authority.setAccessible(true);
+        authority.set(null, "test");
+
+        Field mappingFactory = QuantumFlux.class.getDeclaredField("mMappingFactory");
+        mappingFactory.setAccessible(true);
+        if (mappingFactory.get(null) == null) mappingFactory.set(null, new SqlColumnMappingFactory());
+    }
+
+    @Test
+    public void likeMatchesSqlite() {
+        for (Object[] likeCase : LIKE_CASES) {
+            String pattern = (String) likeCase[0];
+            String text = (String) likeCase[1];
+            assertEquals("'" + text + "' LIKE '" + pattern + "'", likeCase[2], PredicateCompiler.like(pattern, text));
+        }
+    }
+
+    @Test
+    public void likeWithoutWildcardsIgnoresAsciiCase() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RUNS; i++) {
+            String text = randomText(random);
+
+            assertTrue(text, PredicateCompiler.like(text, text));
+            assertTrue(text, PredicateCompiler.like(toAsciiUpperCase(text), text));
+            assertTrue(text, PredicateCompiler.like(text, toAsciiUpperCase(text)));
+        }
+    }
+
+    @Test
+    public void likeWildcardsMatchAnySequence() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RUNS; i++) {
+            String prefix = randomText(random);
+            String middle = randomText(random);
+            String suffix = randomText(random);
+            String text = prefix + middle + suffix;
+
+            assertTrue(text, PredicateCompiler.like("%", text));
+            assertTrue(text, PredicateCompiler.like(prefix + "%", text));
+            assertTrue(text, PredicateCompiler.like("%" + suffix, text));
+            assertTrue(text, PredicateCompiler.like(prefix + "%" + suffix, text));
+            assertTrue(text, PredicateCompiler.like("%" + middle + "%", text));
+            assertTrue(text, PredicateCompiler.like(underscores(text), text));
+            assertFalse(text, PredicateCompiler.like(underscores(text) + "_", text));
+        }
+    }
+
+    @Test
+    public void applyAffinityMatchesSqlite() {
+        for (Object[] affinityCase : AFFINITY_CASES) {
+            for (int i = 0; i < AFFINITY_COLUMN_TYPES.length; i++) {
+                int affinity = PredicateCompiler.findAffinity(AFFINITY_COLUMN_TYPES[i]);
+                Object expected = affinityCase[i + 1];
+                Object actual = PredicateCompiler.applyAffinity(affinity, affinityCase[0]);
+
+                assertEquals(AFFINITY_COLUMN_TYPES[i] + " " + affinityCase[0], expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void applyAffinityIsIdempotent() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RUNS; i++) {
+            Object value = randomValue(random);
+
+            for (String columnType : AFFINITY_COLUMN_TYPES) {
+                int affinity = PredicateCompiler.findAffinity(columnType);
+                Object converted = PredicateCompiler.applyAffinity(affinity, value);
+                assertEquals(columnType + " " + value, converted, PredicateCompiler.applyAffinity(affinity, converted));
+            }
+        }
+    }
+
+    @Test
+    public void findAffinityMatchesSqliteRules() {
+        assertEquals(PredicateCompiler.findAffinity("INTEGER"), PredicateCompiler.findAffinity("BIGINT"));
+        assertEquals(PredicateCompiler.findAffinity("INTEGER"), PredicateCompiler.findAffinity("POINT"));
+        assertEquals(PredicateCompiler.findAffinity("TEXT"), PredicateCompiler.findAffinity("VARCHAR(20)"));
+        assertEquals(PredicateCompiler.findAffinity("TEXT"), PredicateCompiler.findAffinity("CLOB"));
+        assertEquals(PredicateCompiler.findAffinity("BLOB"), PredicateCompiler.findAffinity(""));
+        assertEquals(PredicateCompiler.findAffinity("REAL"), PredicateCompiler.findAffinity("DOUBLE PRECISION"));
+        assertEquals(PredicateCompiler.findAffinity("REAL"), PredicateCompiler.findAffinity("FLOAT"));
+        assertEquals(PredicateCompiler.findAffinity("NUMERIC"), PredicateCompiler.findAffinity("DECIMAL(10,5)"));
+        assertEquals(PredicateCompiler.findAffinity("NUMERIC"), PredicateCompiler.findAffinity("BOOLEAN"));
+    }
+
+    @Test
+    public void compiledLeavesMatchSqlite() {
+        List<PredicateRow> rows = createRows();
+
+        for (int i = 0; i < LEAVES.length; i++) {
+            Predicate<PredicateRow> predicate = PredicateCompiler.compile(PredicateRow.class, createLeaf(i));
+            String truth = (String) LEAVES[i][3];
+
+            for (int row = 0; row < rows.size(); row++) {
+                assertEquals(describeLeaf(i) + " row " + (row + 1), truth.charAt(row) == 'T', predicate.apply(rows.get(row)));
+            }
+        }
+    }
+
+    @Test
+    public void compiledSelectsMatchSqlite() {
+        assertMatches("count = 10 OR name IS NULL AND amount > 5.0",
+                Select.from(PredicateRow.class).whereEquals("count", 10L).or().isNull("name").and().greaterThan("amount", 5.0), 3, 12);
+        assertMatches("count = 10 AND (name IS NULL OR amount > 5.0)",
+                Select.from(PredicateRow.class).whereEquals("count", 10L).openBracketAnd().and().isNull("name").or().greaterThan("amount", 5.0).closeBracket(), 12);
+        assertMatches("name LIKE '%a%' AND count NOT IN (1, NULL) OR amount < 0",
+                Select.from(PredicateRow.class).whereLike("name", "a").and().notIn("count", Arrays.asList(1L, null)).or().smallerThan("amount", 0L), 6);
+        assertMatches("(count IS NULL OR name NOT LIKE '%a%') AND amount <= 10",
+                Select.from(PredicateRow.class).openBracketAnd().and().isNull("count").or().notLike("name", "a").closeBracket().and().smallerOrEqual("amount", 10L),
+                3, 4, 6, 7, 10);
+        assertMatches("name = 'a' OR count > 9007199254740992.0 OR count IN ()",
+                Select.from(PredicateRow.class).whereEquals("name", "a").or().greaterThan("count", 9007199254740992.0).or().in("count", Collections.emptyList()), 1, 5);
+        assertMatches("", Select.from(PredicateRow.class), 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+    }
+
+    @Test
+    public void compiledTreesMatchTheThreeValuedEvaluation() {
+        Random random = new Random(SEED);
+        List<PredicateRow> rows = createRows();
+
+        for (int i = 0; i < RUNS; i++) {
+            Node tree = randomTree(random, 0);
+            DataFilterCriteria criteria = tree.createCriteria();
+            Predicate<PredicateRow> predicate = PredicateCompiler.compile(PredicateRow.class, criteria);
+            Predicate<PredicateRow> selectPredicate = PredicateCompiler.compile(Select.from(PredicateRow.class).where(tree.createCriteria()));
+
+            for (int row = 0; row < rows.size(); row++) {
+                boolean isMatch = tree.evaluate(row) == 'T';
+                assertEquals(tree + " row " + (row + 1), isMatch, predicate.apply(rows.get(row)));
+                assertEquals(tree + " row " + (row + 1), isMatch, selectPredicate.apply(rows.get(row)));
+            }
+        }
+    }
+
+    /**
+     * @param where The where clause the expected ids were taken from
+     */
+    private static void assertMatches(String where, Select<PredicateRow> select, long... ids) {
+        Predicate<PredicateRow> predicate = PredicateCompiler.compile(select);
+
+        List<Long> matchedIds = new ArrayList<>();
+        for (PredicateRow row : createRows()) {
+            if (predicate.apply(row)) matchedIds.add(row.mId);
+        }
+
+        List<Long> expectedIds = new ArrayList<>();
+        for (long id : ids) {
+            expectedIds.add(id);
+        }
+        assertEquals(where, expectedIds, matchedIds);
+    }
+
+    private static List<PredicateRow> createRows() {
+        List<PredicateRow> rows = new ArrayList<>(ROWS.length);
+        for (Object[] row : ROWS) {
+            rows.add(new PredicateRow((Long) row[0], (Long) row[1], (Double) row[2], (String) row[3]));
+        }
+        return rows;
+    }
+
+    /**
+     * @return A new criterion for the leaf, a clause can only be added to a single criteria once
+     */
+    private static DataFilterCriterion createLeaf(int leaf) {
+        return new DataFilterCriterion((String) LEAVES[leaf][0], (DataFilterCriterion.DataFilterOperator) LEAVES[leaf][1], LEAVES[leaf][2]);
+    }
+
+    private static String describeLeaf(int leaf) {
+        return LEAVES[leaf][0] + " " + LEAVES[leaf][1] + " " + LEAVES[leaf][2];
+    }
+
+    private static Node randomTree(Random random, int depth) {
+        Node node = new Node();
+        int childCount = 1 + random.nextInt(4);
+
+        for (int i = 0; i < childCount; i++) {
+            node.mConjunctions.add(random.nextBoolean() ? DataFilterClause.DataFilterConjunction.AND : DataFilterClause.DataFilterConjunction.OR);
+            if (depth < 2 && random.nextInt(3) == 0) node.mChildren.add(randomTree(random, depth + 1));
+            else node.mChildren.add(random.nextInt(LEAVES.length));
+        }
+        return node;
+    }
+
+    /**
+     * A criteria of leaves and nested criteria, evaluated with AND binding stronger than OR and null meaning unknown
+     */
+    private static class Node {
+        private final List<Object> mChildren = new ArrayList<>();
+        private final List<DataFilterClause.DataFilterConjunction> mConjunctions = new ArrayList<>();
+
+        DataFilterCriteria createCriteria() {
+            DataFilterCriteria criteria = new DataFilterCriteria();
+            for (int i = 0; i < mChildren.size(); i++) {
+                Object child = mChildren.get(i);
+                DataFilterClause clause = child instanceof Node ? ((Node) child).createCriteria() : createLeaf((Integer) child);
+                criteria.addClause(clause, mConjunctions.get(i));
+            }
+            return criteria;
+        }
+
+        char evaluate(int row) {
+            char result = 'F';
+            char andResult = 'T';
+
+            for (int i = 0; i < mChildren.size(); i++) {
+                Object child = mChildren.get(i);
+                char childResult = child instanceof Node ? ((Node) child).evaluate(row) : ((String) LEAVES[(Integer) child][3]).charAt(row);
+
+                if (i > 0 && mConjunctions.get(i) == DataFilterClause.DataFilterConjunction.OR) {
+                    result = or(result, andResult);
+                    andResult = 'T';
+                }
+                andResult = and(andResult, childResult);
+            }
+            return or(result, andResult);
+        }
+
+        private static char and(char lhs, char rhs) {
+            if (lhs == 'F' || rhs == 'F') return 'F';
+            return lhs == 'N' || rhs == 'N' ? 'N' : 'T';
+        }
+
+        private static char or(char lhs, char rhs) {
+            if (lhs == 'T' || rhs == 'T') return 'T';
+            return lhs == 'N' || rhs == 'N' ? 'N' : 'F';
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder("(");
+            for (int i = 0; i < mChildren.size(); i++) {
+                Object child = mChildren.get(i);
+                if (i > 0) text.append(" ").append(mConjunctions.get(i)).append(" ");
+                text.append(child instanceof Node ? child.toString() : describeLeaf((Integer) child));
+            }
+            return text.append(")").toString();
+        }
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(6);
+
+        for (int i = 0; i < length; i++) {
+            int offset = ALPHABET.offsetByCodePoints(0, random.nextInt(ALPHABET.codePointCount(0, ALPHABET.length())));
+            text.appendCodePoint(ALPHABET.codePointAt(offset));
+        }
+        return text.toString();
+    }
+
+    private static Object randomValue(Random random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return random.nextLong() >> random.nextInt(64);
+            case 1:
+                return (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(40) - 20);
+            case 2:
+                return (double) (random.nextInt(2000) - 1000);
+            case 3:
+                return String.valueOf(random.nextInt(2000) - 1000) + (random.nextBoolean() ? ".0" : "");
+            default:
+                return randomText(random);
+        }
+    }
+
+    private static String toAsciiUpperCase(String text) {
+        StringBuilder upperCase = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            upperCase.append(c >= 'a' && c <= 'z' ? (char) (c - 'a' + 'A') : c);
+        }
+        return upperCase.toString();
+    }
+
+    private static String underscores(String text) {
+        StringBuilder pattern = new StringBuilder();
+        for (int i = 0; i < text.codePointCount(0, text.length()); i++) {
+            pattern.append('_');
+        }
+        return pattern.toString();
+    }
+
+    @Table(tableName = "predicate_row")
+    public static class PredicateRow {
+        @PrimaryKey
+        @Column(columnName = "_id")
+        public Long mId;
+        @Column(columnName = "count")
+        public Long mCount;
+        @Column(columnName = "amount")
+        public Double mAmount;
+        @Column(columnName = "name")
+        public String mName;
+
+        public PredicateRow() {
+        }
+
+        PredicateRow(Long id, Long count, Double amount, String name) {
+            this.mId = id;
+            this.mCount = count;
+            this.mAmount = amount;
+            this.mName = name;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Checks that the arguments are bound in their sql type in-process, while the content resolver still gets the plain string
+ * values of the supplied arguments.
+ */
+public class QueryBuilderTest {
+
+    @Test
+    public void typedArgumentsUseTheSqlType() {
+        QueryBuilder builder = new QueryBuilder("a = ? AND b = ?", true, 3);
+        builder.append(" AND c = ? AND d = ? AND e = ?", 1.5f, (short) 2, "x");
+        builder.appendArgument(" AND f IS ?", null, DataFilterCriterion.DataFilterOperator.EQUAL);
+
+        assertArrayEquals(new Object[]{1L, 3L, 1.5, 2L, "x", null}, builder.getTypedQueryArgs());
+    }
+
+    @Test
+    public void resolverArgumentsAreTheStringValuesOfTheSuppliedArguments() {
+        QueryBuilder builder = new QueryBuilder("a = ? AND b = ?", true, 3);
+        builder.append(" AND c = ? AND d = ? AND e = ?", 1.1f, (short) 2, "x");
+
+        assertArrayEquals(new Object[]{"true", "3", "1.1", "2", "x"}, builder.getQueryArgsAsArray());
+    }
+
+    @Test
+    public void appendedBuildersKeepTheirArguments() {
+        QueryBuilder builder = new QueryBuilder("a = ?", false);
+        builder.append(" AND ");
+        builder.append(new QueryBuilder("b = ?", 2.5f));
+
+        assertArrayEquals(new Object[]{0L, 2.5}, builder.getTypedQueryArgs());
+        assertArrayEquals(new Object[]{"false", "2.5"}, builder.getQueryArgsAsArray());
+    }
+}
@@ -0,0 +1,110 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import me.himanshusoni.quantumflux.model.map.SqlColumnMappingFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks the shape keys of the {@link CompiledSelect} cache, selects that compile to the same sql must share a key, and
+ * selects that compile differently must not.
+ */
+public class SelectTest {
+
+    @Test
+    public void filterValuesDoNotChangeTheShape() {
+        Select<Item> select = Select.from(Item.class).whereEquals("name", "a").and().greaterThan("count", 1).sortAsc("name");
+        Select<Item> other = Select.from(Item.class).whereEquals("name", "b").and().greaterThan("count", 2.5).sortAsc("name");
+
+        assertEquals(select.getShapeKey(), other.getShapeKey());
+    }
+
+    @Test
+    public void inListSizesAreTheOnlyValuesThatChangeTheShape() {
+        String shapeKey = Select.from(Item.class).and().in("count", Arrays.asList(1, 2, 3)).getShapeKey();
+
+        assertEquals(shapeKey, Select.from(Item.class).and().in("count", Arrays.asList(4, 5, 6)).getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).and().in("count", Arrays.asList(1, 2)).getShapeKey());
+    }
+
+    @Test
+    public void structureChangesTheShape() {
+        String shapeKey = Select.from(Item.class).whereEquals("name", "a").or().equal("count", 1).getShapeKey();
+
+        assertDifferent(shapeKey, Select.from(Item.class).whereEquals("name", "a").and().equal("count", 1).getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).whereEquals("name", "a").or().notEqual("count", 1).getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).whereEquals("name", "a").or().equal("amount", 1).getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).whereEquals("name", "a").openBracketOr().and().equal("count", 1).closeBracket().getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).whereEquals("name", "a").or().equal("count", 1).sortDesc("name").getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).whereEquals("name", "a").or().equal("count", 1).include("name").getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).whereEquals("name", "a").or().equal("count", 1).exclude("name").getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).whereEquals("name", "a").or().isNull("count").getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).where(new SQLSegment("name = ? OR count = ?", "a", 1)).getShapeKey());
+    }
+
+    @Test
+    public void offsetAndLimitChangeTheShape() {
+        String shapeKey = Select.from(Item.class).limit(10).getShapeKey();
+
+        assertEquals(shapeKey, Select.from(Item.class).limit(10).getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).limit(20).getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).limit(10).offset(10).getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).getShapeKey());
+    }
+
+    @Test
+    public void innerSelectsArePartOfTheShape() {
+        String shapeKey = Select.from(Item.class).and().in("count", Select.from(Item.class).include("count").whereEquals("name", "a")).getShapeKey();
+
+        assertEquals(shapeKey, Select.from(Item.class).and().in("count", Select.from(Item.class).include("count").whereEquals("name", "b")).getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).and().in("count", Select.from(Item.class).include("count").whereLike("name", "a")).getShapeKey());
+        assertDifferent(shapeKey, Select.from(Item.class).and().in("count", Select.from(Item.class).include("amount").whereEquals("name", "a")).getShapeKey());
+    }
+
+    @Test
+    public void columnsContainingSeparatorsDoNotCollide() {
+        assertDifferent(Select.from(Item.class).sortAsc("a", "b").getShapeKey(), Select.from(Item.class).sortAsc("a ASC1:b").getShapeKey());
+    }
+
+    @Test
+    public void unknownClausesAreNotCached() {
+        DataFilterClause clause = new DataFilterClause() {
+            @Override
+            public QueryBuilder buildWhereClause(SqlColumnMappingFactory columnMappingFactory) {
+                return new QueryBuilder("name = 'a'");
+            }
+
+            @Override
+            public String getWhereClause() {
+                return "name = 'a'";
+            }
+
+            @Override
+            public DataFilterClause addClause(DataFilterClause clause, DataFilterConjunction conjunction) {
+                return this;
+            }
+
+            @Override
+            public boolean hasFilterValue() {
+                return true;
+            }
+        };
+
+        assertNull(Select.from(Item.class).where(clause).getShapeKey());
+    }
+
+    private static void assertDifferent(String shapeKey, String otherShapeKey) {
+        assertFalse(shapeKey + " " + otherShapeKey, shapeKey.equals(otherShapeKey));
+    }
+
+    public static class Item {
+        public String name;
+        public Integer count;
+        public Double amount;
+    }
+}
@@ -0,0 +1,125 @@
+package me.himanshusoni.quantumflux.model.query;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link SqlValueComparator#compareValues(Object, Object)} against the order of sqlite.  The expected order was
+ * taken from sqlite 3.40, by inserting the values into a column without a type and selecting them ORDER BY the column.
+ */
+public class SqlValueComparatorTest {
+
+    private static final long SEED = 20161017L;
+    private static final int RUNS = 2000;
+
+    private static final Object[] SQLITE_ORDER = {
+            null, -1.5, -1L, 0L, 1L, 2.5, 3L, "", "10", "9", "B", "a", "b", "é", "😀",
+            new byte[0], new byte[]{0x00, (byte) 0xff}, new byte[]{0x01}, new byte[]{(byte) 0x80}
+    };
+
+    @Test
+    public void compareValuesMatchesSqliteOrder() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RUNS / 100; i++) {
+            List<Object> values = new ArrayList<>(Arrays.asList(SQLITE_ORDER));
+            Collections.shuffle(values, random);
+            Collections.sort(values, SqlValueComparator.INSTANCE);
+
+            assertArrayEquals(SQLITE_ORDER, values.toArray());
+        }
+    }
+
+    @Test
+    public void integersAndRealsCompareByValue() {
+        assertEquals(0, SqlValueComparator.compareValues(1L, 1.0));
+        assertEquals(0, SqlValueComparator.compareValues(1, 1L));
+        assertTrue(SqlValueComparator.compareValues(Long.MAX_VALUE - 1, Long.MAX_VALUE) < 0);
+        assertTrue(SqlValueComparator.compareValues(-0.5, 0L) < 0);
+        assertTrue(SqlValueComparator.compareValues(2L, 1.5f) > 0);
+        assertTrue(SqlValueComparator.compareValues(9007199254740993L, 9007199254740992.0) > 0);
+        assertTrue(SqlValueComparator.compareValues(9007199254740992.0, 9007199254740993L) < 0);
+        assertEquals(0, SqlValueComparator.compareValues(9007199254740992L, 9007199254740992.0));
+        assertTrue(SqlValueComparator.compareValues(Long.MAX_VALUE, 9.223372036854775807E18) < 0);
+        assertEquals(0, SqlValueComparator.compareValues(Long.MIN_VALUE, -9.223372036854775808E18));
+        assertTrue(SqlValueComparator.compareValues(-3L, -2.5) < 0);
+        assertTrue(SqlValueComparator.compareValues(-2L, -2.5) > 0);
+        assertTrue(SqlValueComparator.compareValues(Long.MAX_VALUE, Double.POSITIVE_INFINITY) < 0);
+        assertTrue(SqlValueComparator.compareValues(Long.MIN_VALUE, Double.NEGATIVE_INFINITY) > 0);
+    }
+
+    @Test
+    public void compareValuesIsAntisymmetric() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RUNS; i++) {
+            Object lhs = randomValue(random);
+            Object rhs = randomValue(random);
+
+            assertEquals(describe(lhs) + " " + describe(rhs),
+                    Integer.signum(SqlValueComparator.compareValues(lhs, rhs)), -Integer.signum(SqlValueComparator.compareValues(rhs, lhs)));
+        }
+    }
+
+    @Test
+    public void compareValuesIsTransitive() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RUNS; i++) {
+            Object[] values = {randomValue(random), randomValue(random), randomValue(random)};
+            Arrays.sort(values, SqlValueComparator.INSTANCE);
+
+            assertTrue(describe(values[0]) + " " + describe(values[2]), SqlValueComparator.compareValues(values[0], values[2]) <= 0);
+        }
+    }
+
+    @Test
+    public void storageClassesAreOrderedLikeSqlite() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RUNS; i++) {
+            Object lhs = randomValue(random);
+            Object rhs = randomValue(random);
+            int lhsClass = SqlValueComparator.getStorageClass(lhs);
+            int rhsClass = SqlValueComparator.getStorageClass(rhs);
+
+            if (lhsClass != rhsClass) {
+                assertEquals(describe(lhs) + " " + describe(rhs),
+                        Integer.signum(lhsClass - rhsClass), Integer.signum(SqlValueComparator.compareValues(lhs, rhs)));
+            }
+        }
+    }
+
+    private static Object randomValue(Random random) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return null;
+            case 1:
+                return (long) (random.nextInt(20) - 10);
+            case 2:
+                return (random.nextInt(40) - 20) / 2.0;
+            case 3:
+                return random.nextLong();
+            case 4:
+                byte[] blob = new byte[random.nextInt(3)];
+                random.nextBytes(blob);
+                return blob;
+            default:
+                String characters = "aAbB09é😀";
+                StringBuilder text = new StringBuilder();
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    text.appendCodePoint(characters.codePointAt(characters.offsetByCodePoints(0, random.nextInt(characters.codePointCount(0, characters.length())))));
+                }
+                return text.toString();
+        }
+    }
+
+    private static String describe(Object value) {
+        return value instanceof byte[] ? Arrays.toString((byte[]) value) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,58 @@
+package me.himanshusoni.quantumflux.model.util;
+
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the client side keys of the time ordered key strategies are strictly increasing, also when more keys are
+ * generated within a millisecond than the sequence can hold.
+ */
+public class KeyGeneratorTest {
+
+    private static final int RUNS = 20000;
+
+    @Test
+    public void timeOrderedIdsAreIncreasing() {
+        long previousId = KeyGenerator.nextTimeOrderedId();
+        assertTrue(previousId > 0);
+
+        for (int i = 0; i < RUNS; i++) {
+            long id = KeyGenerator.nextTimeOrderedId();
+            assertTrue(previousId + " " + id, id > previousId);
+            previousId = id;
+        }
+    }
+
+    @Test
+    public void timeOrderedIdsStartWithTheTime() {
+        long before = System.currentTimeMillis();
+        long id = KeyGenerator.nextTimeOrderedId();
+
+        assertTrue((id >>> 22) + 1420070400000L >= before);
+    }
+
+    @Test
+    public void timeOrderedUuidsAreIncreasing() {
+        String previousUuid = KeyGenerator.nextTimeOrderedUuid();
+
+        for (int i = 0; i < RUNS; i++) {
+            String uuid = KeyGenerator.nextTimeOrderedUuid();
+            assertTrue(previousUuid + " " + uuid, uuid.compareTo(previousUuid) > 0);
+            previousUuid = uuid;
+        }
+    }
+
+    @Test
+    public void timeOrderedUuidsAreVersion7() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UUID.fromString(KeyGenerator.nextTimeOrderedUuid());
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue((uuid.getMostSignificantBits() >>> 16) >= before);
+    }
+}
@@ -0,0 +1,202 @@
+package me.himanshusoni.quantumflux.model.util;
+
+import android.database.Cursor;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import me.himanshusoni.quantumflux.model.annotation.Column.PrimaryKey;
+import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.model.map.types.DoubleType;
+import me.himanshusoni.quantumflux.model.map.types.IntegerType;
+import me.himanshusoni.quantumflux.model.map.types.LongType;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that {@link ModelInflater} populates primitive fields through the primitive reads of the column mappings, so the
+ * values are not boxed for every row.  The mappings count how the values were read, and the cursor is a stub holding the
+ * rows in memory.
+ */
+public class ModelInflaterTest {
+
+    private static final int ROWS = 1000;
+
+    @Test
+    public void primitiveFieldsAreReadWithoutBoxing() throws Exception {
+        CountingLongType longType = new CountingLongType();
+        CountingIntegerType integerType = new CountingIntegerType();
+        CountingDoubleType doubleType = new CountingDoubleType();
+
+        TableDetails tableDetails = new TableDetails("measurement", "test", Measurement.class);
+        TableDetails.ColumnDetails[] columns = {
+                createColumn(tableDetails, "_id", "mId", longType, true),
+                createColumn(tableDetails, "count", "mCount", integerType, true),
+                createColumn(tableDetails, "value", "mValue", doubleType, false)
+        };
+
+        Cursor cursor = createCursor(columns.length);
+        for (int i = 0; i < ROWS; i++) {
+            cursor.moveToPosition(i);
+            Measurement measurement = ModelInflater.inflate(cursor, tableDetails, columns);
+
+            assertEquals(Integer.MAX_VALUE + 1L + i, measurement.mId);
+            assertEquals(i, measurement.mCount);
+            assertEquals(i / 4.0, measurement.mValue, 0);
+        }
+
+        assertEquals(0, longType.mBoxedReads);
+        assertEquals(0, integerType.mBoxedReads);
+        assertEquals(0, doubleType.mBoxedReads);
+        assertEquals(ROWS, longType.mPrimitiveReads);
+        assertEquals(ROWS, integerType.mPrimitiveReads);
+        assertEquals(ROWS, doubleType.mPrimitiveReads);
+    }
+
+    @Test
+    public void boxedFieldsAreReadThroughTheMapping() throws Exception {
+        CountingLongType longType = new CountingLongType();
+
+        TableDetails tableDetails = new TableDetails("measurement", "test", Measurement.class);
+        TableDetails.ColumnDetails[] columns = {createColumn(tableDetails, "reference", "mReference", longType, false)};
+
+        Cursor cursor = createCursor(columns.length);
+        for (int i = 0; i < ROWS; i++) {
+            cursor.moveToPosition(i);
+            Measurement measurement = ModelInflater.inflate(cursor, tableDetails, columns);
+
+            assertEquals(Long.valueOf(Integer.MAX_VALUE + 1L + i), measurement.mReference);
+        }
+
+        assertEquals(ROWS, longType.mBoxedReads);
+        assertEquals(0, longType.mPrimitiveReads);
+    }
+
+    @Test
+    public void nullValuesLeavePrimitiveFieldsUnset() throws Exception {
+        CountingDoubleType doubleType = new CountingDoubleType();
+
+        TableDetails tableDetails = new TableDetails("measurement", "test", Measurement.class);
+        TableDetails.ColumnDetails[] columns = {createColumn(tableDetails, "value", "mValue", doubleType, false)};
+
+        Cursor cursor = createCursor(columns.length);
+        cursor.moveToPosition(ROWS);
+        Measurement measurement = ModelInflater.inflate(cursor, tableDetails, columns);
+
+        assertEquals(0, measurement.mValue, 0);
+        assertEquals(0, doubleType.mBoxedReads);
+        assertEquals(0, doubleType.mPrimitiveReads);
+    }
+
+    private static TableDetails.ColumnDetails createColumn(TableDetails tableDetails, String columnName, String fieldName,
+                                                           LongType columnMapping, boolean primaryKey) throws NoSuchFieldException {
+        return addColumn(tableDetails, new TableDetails.ColumnDetails(columnName, Measurement.class.getField(fieldName), columnMapping,
+                primaryKey, false, primaryKey, primaryKey ? PrimaryKey.KeyStrategy.AUTO_INCREMENT : PrimaryKey.KeyStrategy.ASSIGNED, false, null));
+    }
+
+    private static TableDetails.ColumnDetails createColumn(TableDetails tableDetails, String columnName, String fieldName,
+                                                           IntegerType columnMapping, boolean required) throws NoSuchFieldException {
+        return addColumn(tableDetails, new TableDetails.ColumnDetails(columnName, Measurement.class.getField(fieldName), columnMapping,
+                false, false, required, PrimaryKey.KeyStrategy.ASSIGNED, false, null));
+    }
+
+    private static TableDetails.ColumnDetails createColumn(TableDetails tableDetails, String columnName, String fieldName,
+                                                           DoubleType columnMapping, boolean required) throws NoSuchFieldException {
+        return addColumn(tableDetails, new TableDetails.ColumnDetails(columnName, Measurement.class.getField(fieldName), columnMapping,
+                false, false, required, PrimaryKey.KeyStrategy.ASSIGNED, false, null));
+    }
+
+    private static TableDetails.ColumnDetails addColumn(TableDetails tableDetails, TableDetails.ColumnDetails column) {
+        tableDetails.addColumn(column);
+        return column;
+    }
+
+    /**
+     * Creates a cursor of {@link #ROWS} rows, in which every column of row i holds Integer.MAX_VALUE + 1 + i for long
+     * reads, i for int reads and i / 4 for double reads.  The row after the last one holds null values.
+     */
+    private static Cursor createCursor(final int columnCount) {
+        InvocationHandler handler = new InvocationHandler() {
+            private int mPosition = -1;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if ("getCount".equals(name)) return ROWS;
+                if ("getColumnCount".equals(name)) return columnCount;
+                if ("getPosition".equals(name)) return mPosition;
+                if ("moveToPosition".equals(name)) {
+                    mPosition = (Integer) args[0];
+                    return true;
+                }
+                if ("isNull".equals(name)) return mPosition >= ROWS;
+                if ("getLong".equals(name)) return Integer.MAX_VALUE + 1L + mPosition;
+                if ("getInt".equals(name)) return mPosition;
+                if ("getDouble".equals(name)) return mPosition / 4.0;
+                throw new UnsupportedOperationException(name);
+            }
+        };
+        return (Cursor) Proxy.newProxyInstance(Cursor.class.getClassLoader(), new Class<?>[]{Cursor.class}, handler);
+    }
+
+    public static class Measurement {
+        public long mId;
+        public int mCount;
+        public double mValue;
+        public Long mReference;
+    }
+
+    private static class CountingLongType extends LongType {
+        private int mBoxedReads;
+        private int mPrimitiveReads;
+
+        @Override
+        public Object getColumnValue(Cursor cursor, int columnIndex) {
+            mBoxedReads++;
+            return super.getColumnValue(cursor, columnIndex);
+        }
+
+        @Override
+        public long readLong(Cursor cursor, int columnIndex) {
+            mPrimitiveReads++;
+            return super.readLong(cursor, columnIndex);
+        }
+    }
+
+    private static class CountingIntegerType extends IntegerType {
+        private int mBoxedReads;
+        private int mPrimitiveReads;
+
+        @Override
+        public Object getColumnValue(Cursor cursor, int columnIndex) {
+            mBoxedReads++;
+            return super.getColumnValue(cursor, columnIndex);
+        }
+
+        @Override
+        public int readInt(Cursor cursor, int columnIndex) {
+            mPrimitiveReads++;
+            return super.readInt(cursor, columnIndex);
+        }
+    }
+
+    private static class CountingDoubleType extends DoubleType {
+        private int mBoxedReads;
+        private int mPrimitiveReads;
+
+        @Override
+        public Object getColumnValue(Cursor cursor, int columnIndex) {
+            mBoxedReads++;
+            return super.getColumnValue(cursor, columnIndex);
+        }
+
+        @Override
+        public double readDouble(Cursor cursor, int columnIndex) {
+            mPrimitiveReads++;
+            return super.readDouble(cursor, columnIndex);
+        }
+    }
+}
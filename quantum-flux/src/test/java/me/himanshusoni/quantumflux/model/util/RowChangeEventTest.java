@@ -0,0 +1,117 @@
+package me.himanshusoni.quantumflux.model.util;
+
+import android.database.Cursor;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+
+import me.himanshusoni.quantumflux.model.map.SqlColumnMapping;
+import me.himanshusoni.quantumflux.model.map.types.DoubleType;
+import me.himanshusoni.quantumflux.model.map.types.LongType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks how the changed rows are collected into a {@link RowChangeEvent}, and that the keys read back from the database
+ * through the column mapping are formatted the same as the keys of the written values.
+ */
+public class RowChangeEventTest {
+
+    @Test
+    public void keysAreFormattedAsStrings() {
+        RowChangeEvent event = new RowChangeEvent(String.class, RowChangeEvent.Type.UPDATE);
+        assertTrue(event.isEmpty());
+
+        event.addPrimaryKeys(Arrays.<Object>asList(1L, "a", 1L, 2.5));
+
+        assertFalse(event.isEmpty());
+        assertFalse(event.isTableChanged());
+        assertEquals(Arrays.asList("1", "a", "2.5"), Arrays.asList(event.getPrimaryKeys().toArray()));
+    }
+
+    @Test
+    public void unknownKeysMarkTheTableAsChanged() {
+        RowChangeEvent event = new RowChangeEvent(String.class, RowChangeEvent.Type.UPSERT);
+        event.addPrimaryKeys(Collections.singletonList(null));
+
+        assertTrue(event.isTableChanged());
+        assertFalse(event.isEmpty());
+        assertTrue(event.getPrimaryKeys().isEmpty());
+
+        RowChangeEvent tableEvent = new RowChangeEvent(String.class, RowChangeEvent.Type.DELETE);
+        tableEvent.setTableChanged();
+        assertTrue(tableEvent.isTableChanged());
+    }
+
+    @Test
+    public void mergeCombinesTheKeysAndTheTableChange() {
+        RowChangeEvent event = new RowChangeEvent(String.class, RowChangeEvent.Type.INSERT);
+        event.addPrimaryKey(1L);
+        RowChangeEvent other = new RowChangeEvent(String.class, RowChangeEvent.Type.INSERT);
+        other.addPrimaryKey(2L);
+        other.addPrimaryKey(null);
+
+        event.merge(other);
+
+        assertEquals(Arrays.asList("1", "2"), Arrays.asList(event.getPrimaryKeys().toArray()));
+        assertTrue(event.isTableChanged());
+    }
+
+    @Test
+    public void onlyEventsOfTheSameTableAndTypeMerge() {
+        RowChangeEvent event = new RowChangeEvent(String.class, RowChangeEvent.Type.INSERT);
+
+        assertMergeFails(event, new RowChangeEvent(Integer.class, RowChangeEvent.Type.INSERT));
+        assertMergeFails(event, new RowChangeEvent(String.class, RowChangeEvent.Type.UPDATE));
+    }
+
+    @Test
+    public void keysReadThroughTheMappingMatchTheWrittenKeys() {
+        //sqlite formats 1e20 as 1.0e+20 when it is read as a string
+        assertEquals(String.valueOf(1.0E20), readKey(new DoubleType(), 1.0E20, "1.0e+20"));
+        assertEquals(String.valueOf(9007199254740993L), readKey(new LongType(), 9007199254740993L, "9007199254740993"));
+    }
+
+    private static String readKey(SqlColumnMapping columnMapping, Object value, String sqliteString) {
+        RowChangeEvent event = new RowChangeEvent(String.class, RowChangeEvent.Type.DELETE);
+        Cursor cursor = createCursor(value, sqliteString);
+        event.addPrimaryKey(columnMapping.toSqlType(columnMapping.getColumnValue(cursor, 0)));
+
+        return event.getPrimaryKeys().iterator().next();
+    }
+
+    private static void assertMergeFails(RowChangeEvent event, RowChangeEvent other) {
+        try {
+            event.merge(other);
+            fail(event + " merged " + other);
+        } catch (QuantumFluxException expected) {
+        }
+    }
+
+    /**
+     * A cursor holding a single value, returning the string sqlite would return from getString
+     */
+    private static Cursor createCursor(final Object value, final String sqliteString) {
+        InvocationHandler handler = new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if ("isNull".equals(name)) return false;
+                if ("getString".equals(name)) return sqliteString;
+                if ("getLong".equals(name)) return ((Number) value).longValue();
+                if ("getInt".equals(name)) return ((Number) value).intValue();
+                if ("getDouble".equals(name)) return ((Number) value).doubleValue();
+                throw new UnsupportedOperationException(name);
+            }
+        };
+        return (Cursor) Proxy.newProxyInstance(Cursor.class.getClassLoader(), new Class<?>[]{Cursor.class}, handler);
+    }
+}
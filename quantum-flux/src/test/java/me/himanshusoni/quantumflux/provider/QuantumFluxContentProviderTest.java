@@ -0,0 +1,148 @@
+package me.himanshusoni.quantumflux.provider;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Bundle;
+
+import org.junit.Test;
+
+import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
+import me.himanshusoni.quantumflux.model.util.RowChangeEvent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the argument and permission checks of the bulk methods reached through
+ * {@link QuantumFluxContentProvider#call(String, String, Bundle)}, and how a batch yields and collects its changes until
+ * they are delivered.  The writes themselves need a database and are not covered here.
+ */
+public class QuantumFluxContentProviderTest {
+
+    private static final int APP_UID = 10001;
+    private static final int OTHER_UID = 10002;
+
+    @Test
+    public void callWithoutWritePermissionAllowsTheApplicationItself() {
+        QuantumFluxContentProvider.enforceCallWritePermission(null, null, APP_UID, APP_UID, QuantumFluxContentProvider.METHOD_UPDATE_ALL);
+    }
+
+    @Test
+    public void callWithoutWritePermissionRejectsOtherApplications() {
+        for (String method : new String[]{QuantumFluxContentProvider.METHOD_UPDATE_ALL, QuantumFluxContentProvider.METHOD_DELETE_ALL}) {
+            try {
+                QuantumFluxContentProvider.enforceCallWritePermission(null, null, OTHER_UID, APP_UID, method);
+                fail(method + " was allowed from another application");
+            } catch (SecurityException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void callWithWritePermissionEnforcesIt() {
+        PermissionContext context = new PermissionContext();
+
+        QuantumFluxContentProvider.enforceCallWritePermission(context, "test.permission.WRITE", OTHER_UID, APP_UID, QuantumFluxContentProvider.METHOD_DELETE_ALL);
+        assertEquals("test.permission.WRITE", context.mEnforcedPermission);
+
+        context.isGranted = false;
+        try {
+            QuantumFluxContentProvider.enforceCallWritePermission(context, "test.permission.WRITE", APP_UID, APP_UID, QuantumFluxContentProvider.METHOD_DELETE_ALL);
+            fail("The write permission was not enforced");
+        } catch (SecurityException expected) {
+        }
+    }
+
+    @Test
+    public void callRejectsMissingArguments() {
+        QuantumFluxContentProvider provider = new QuantumFluxContentProvider();
+
+        assertCallFails(provider, QuantumFluxContentProvider.METHOD_UPDATE_ALL, null, new Bundle());
+        assertCallFails(provider, QuantumFluxContentProvider.METHOD_UPDATE_ALL, "content://test/item", null);
+        assertCallFails(provider, QuantumFluxContentProvider.METHOD_UPDATE_ALL, "content://test/item", new Bundle());
+        assertCallFails(provider, QuantumFluxContentProvider.METHOD_DELETE_ALL, null, new Bundle());
+        assertCallFails(provider, QuantumFluxContentProvider.METHOD_DELETE_ALL, "content://test/item", new Bundle());
+    }
+
+    @Test
+    public void callPassesOtherMethodsToTheFramework() {
+        assertNull(new QuantumFluxContentProvider().call("OTHER", null, null));
+    }
+
+    @Test
+    public void batchesYieldAtTheIntervalAndWhereOperationsAllowIt() {
+        assertFalse(QuantumFluxContentProvider.isYieldPoint(0, 1, true));
+        assertFalse(QuantumFluxContentProvider.isYieldPoint(5, 0, false));
+        assertTrue(QuantumFluxContentProvider.isYieldPoint(5, 0, true));
+
+        for (int i = 1; i < 100; i++) {
+            assertEquals(String.valueOf(i), i % 25 == 0, QuantumFluxContentProvider.isYieldPoint(i, 25, false));
+            assertTrue(String.valueOf(i), QuantumFluxContentProvider.isYieldPoint(i, 25, true));
+        }
+    }
+
+    @Test
+    public void batchesCombineChangesOfTheSameUri() {
+        QuantumFluxContentProvider.PendingBatch pendingBatch = new QuantumFluxContentProvider.PendingBatch();
+
+        assertFalse(pendingBatch.addChange("content://test/item/1", null, null, false, false));
+        assertFalse(pendingBatch.addChange("content://test/item/1", null, null, true, false));
+        assertTrue(pendingBatch.addChange("content://test/item/1", null, null, true, true));
+        assertFalse(pendingBatch.addChange("content://test/item/2", null, null, true, false));
+
+        assertEquals(2, pendingBatch.mChanges.size());
+        QuantumFluxContentProvider.PendingChange change = pendingBatch.mChanges.get("content://test/item/1");
+        assertTrue(change.isNotified);
+        assertTrue(change.isSynced);
+        assertFalse(pendingBatch.mChanges.get("content://test/item/2").isSynced);
+    }
+
+    @Test
+    public void batchesMergeConsecutiveRowChangesOfTheSameTableAndType() {
+        QuantumFluxContentProvider.PendingBatch pendingBatch = new QuantumFluxContentProvider.PendingBatch();
+
+        pendingBatch.addRowChanges(createRowChanges(String.class, RowChangeEvent.Type.INSERT, 1L));
+        pendingBatch.addRowChanges(createRowChanges(String.class, RowChangeEvent.Type.INSERT, 2L));
+        pendingBatch.addRowChanges(createRowChanges(String.class, RowChangeEvent.Type.UPDATE, 1L));
+        pendingBatch.addRowChanges(createRowChanges(Integer.class, RowChangeEvent.Type.UPDATE, 3L));
+        pendingBatch.addRowChanges(createRowChanges(String.class, RowChangeEvent.Type.INSERT, 3L));
+
+        assertEquals(4, pendingBatch.mRowChanges.size());
+        assertEquals("RowChangeEvent[String INSERT [1, 2]]", pendingBatch.mRowChanges.get(0).toString());
+        assertEquals("RowChangeEvent[String UPDATE [1]]", pendingBatch.mRowChanges.get(1).toString());
+        assertEquals("RowChangeEvent[Integer UPDATE [3]]", pendingBatch.mRowChanges.get(2).toString());
+        assertEquals("RowChangeEvent[String INSERT [3]]", pendingBatch.mRowChanges.get(3).toString());
+    }
+
+    private static void assertCallFails(QuantumFluxContentProvider provider, String method, String arg, Bundle extras) {
+        try {
+            provider.call(method, arg, extras);
+            fail(method + " accepted " + arg + " " + extras);
+        } catch (QuantumFluxException expected) {
+        }
+    }
+
+    private static RowChangeEvent createRowChanges(Class<?> tableClass, RowChangeEvent.Type type, Object primaryKey) {
+        RowChangeEvent event = new RowChangeEvent(tableClass, type);
+        event.addPrimaryKey(primaryKey);
+        return event;
+    }
+
+    private static class PermissionContext extends ContextWrapper {
+        private String mEnforcedPermission;
+        private boolean isGranted = true;
+
+        PermissionContext() {
+            super(null);
+        }
+
+        @Override
+        public void enforceCallingOrSelfPermission(String permission, String message) {
+            mEnforcedPermission = permission;
+            if (!isGranted) throw new SecurityException(message);
+        }
+    }
+}
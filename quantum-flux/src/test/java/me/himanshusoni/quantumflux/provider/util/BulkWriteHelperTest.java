@@ -0,0 +1,85 @@
+package me.himanshusoni.quantumflux.provider.util;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import me.himanshusoni.quantumflux.model.annotation.Column.PrimaryKey;
+import me.himanshusoni.quantumflux.model.generate.TableDetails;
+import me.himanshusoni.quantumflux.model.map.types.LongType;
+import me.himanshusoni.quantumflux.model.map.types.StringType;
+import me.himanshusoni.quantumflux.model.util.QuantumFluxException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the column selection and statements of the bulk writes, the writes themselves need a database and are not covered
+ */
+public class BulkWriteHelperTest {
+
+    @Test
+    public void updateColumnsDefaultToAllColumnsExceptThePrimaryKey() throws Exception {
+        TableDetails tableDetails = createTableDetails();
+
+        assertColumns(BulkWriteHelper.findUpdateColumns(tableDetails, null), "name", "count");
+        assertColumns(BulkWriteHelper.findUpdateColumns(tableDetails, new String[0]), "name", "count");
+    }
+
+    @Test
+    public void updateColumnsKeepTheRequestedOrder() throws Exception {
+        assertColumns(BulkWriteHelper.findUpdateColumns(createTableDetails(), new String[]{"count", "NAME"}), "count", "name");
+    }
+
+    @Test
+    public void updateColumnsRejectThePrimaryKeyAndUnknownColumns() throws Exception {
+        TableDetails tableDetails = createTableDetails();
+
+        for (String column : new String[]{"_id", "missing"}) {
+            try {
+                BulkWriteHelper.findUpdateColumns(tableDetails, new String[]{"name", column});
+                fail(column + " was accepted as update column");
+            } catch (QuantumFluxException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void updateStatementMatchesTheWhereColumns() {
+        assertEquals("UPDATE item SET name = ?, count = ? WHERE _id = ?",
+                BulkWriteHelper.createUpdateStatement("item", new String[]{"name", "count"}, new String[]{"_id"}));
+        assertEquals("UPDATE item SET name = ? WHERE _id = ? AND count = ?",
+                BulkWriteHelper.createUpdateStatement("item", new String[]{"name"}, new String[]{"_id", "count"}));
+    }
+
+    @Test
+    public void insertStatementHasAnArgumentForEveryColumn() {
+        assertEquals("INSERT INTO item (name, count) VALUES (?, ?)", BulkWriteHelper.createInsertStatement("item", new String[]{"name", "count"}));
+        assertEquals("INSERT OR REPLACE INTO item (name) VALUES (?)", BulkWriteHelper.createInsertStatement("item", new String[]{"name"}, "OR REPLACE"));
+        assertEquals("INSERT INTO item DEFAULT VALUES", BulkWriteHelper.createInsertStatement("item", new String[0]));
+    }
+
+    private static void assertColumns(List<TableDetails.ColumnDetails> columns, String... columnNames) {
+        assertEquals(columnNames.length, columns.size());
+        for (int i = 0; i < columnNames.length; i++) {
+            assertEquals(columnNames[i], columns.get(i).getColumnName());
+        }
+    }
+
+    private static TableDetails createTableDetails() throws NoSuchFieldException {
+        TableDetails tableDetails = new TableDetails("item", "test", Item.class);
+        tableDetails.addColumn(new TableDetails.ColumnDetails("_id", Item.class.getField("id"), new LongType(),
+                true, false, true, PrimaryKey.KeyStrategy.AUTO_INCREMENT, true, null));
+        tableDetails.addColumn(new TableDetails.ColumnDetails("name", Item.class.getField("name"), new StringType(),
+                false, false, false, PrimaryKey.KeyStrategy.ASSIGNED, true, null));
+        tableDetails.addColumn(new TableDetails.ColumnDetails("count", Item.class.getField("count"), new LongType(),
+                false, false, false, PrimaryKey.KeyStrategy.ASSIGNED, true, null));
+        return tableDetails;
+    }
+
+    public static class Item {
+        public long id;
+        public String name;
+        public Long count;
+    }
+}
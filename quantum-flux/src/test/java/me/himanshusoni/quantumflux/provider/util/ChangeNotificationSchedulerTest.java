@@ -0,0 +1,217 @@
+package me.himanshusoni.quantumflux.provider.util;
+
+import android.net.Uri;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks which notifications the scheduler delivers, and when, for the hold, the window and the collapse threshold.
+ * The notifications are raised by their keys, since the uri's can not be parsed on the JVM.
+ */
+public class ChangeNotificationSchedulerTest {
+
+    private static final String TABLE = "content://test/item";
+
+    @Test
+    public void notificationsAreDeliveredRightAwayByDefault() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+
+        scheduler.notifyRow(1, false);
+        assertEquals(Arrays.asList(TABLE + "/1"), scheduler.mDelivered);
+
+        scheduler.notifyRow(1, false);
+        assertEquals(Arrays.asList(TABLE + "/1", TABLE + "/1"), scheduler.mDelivered);
+        assertEquals(2, scheduler.getRaisedCount());
+        assertEquals(2, scheduler.getDeliveredCount());
+        assertNull(scheduler.mScheduledFlush);
+    }
+
+    @Test
+    public void heldNotificationsAreDeduplicated() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+
+        scheduler.hold();
+        scheduler.notifyRow(1, false);
+        scheduler.notifyRow(2, false);
+        scheduler.notifyRow(1, false);
+        scheduler.countCoalesced();
+        assertTrue(scheduler.mDelivered.isEmpty());
+
+        scheduler.release();
+        assertEquals(Arrays.asList(TABLE + "/1", TABLE + "/2"), scheduler.mDelivered);
+        assertEquals(4, scheduler.getRaisedCount());
+        assertEquals(2, scheduler.getDeliveredCount());
+        assertEquals(0, scheduler.getCollapsedCount());
+    }
+
+    @Test
+    public void nestedHoldsDeliverOnTheLastRelease() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+
+        scheduler.hold();
+        scheduler.hold();
+        scheduler.notifyRow(1, false);
+
+        scheduler.release();
+        assertTrue(scheduler.mDelivered.isEmpty());
+
+        scheduler.release();
+        assertEquals(Arrays.asList(TABLE + "/1"), scheduler.mDelivered);
+
+        //Releasing without a hold does nothing and does not leave the scheduler holding
+        scheduler.release();
+        scheduler.notifyRow(2, false);
+        assertEquals(Arrays.asList(TABLE + "/1", TABLE + "/2"), scheduler.mDelivered);
+    }
+
+    @Test
+    public void rowsAboveTheThresholdCollapseIntoTheTable() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+        scheduler.setCollapseThreshold(3);
+
+        scheduler.hold();
+        for (int i = 1; i <= 3; i++) {
+            scheduler.notifyRow(i, false);
+        }
+        scheduler.notifyChange("content://test/other/1", null, "content://test/other", null, false);
+        scheduler.release();
+
+        assertEquals(Arrays.asList(TABLE + "/1", TABLE + "/2", TABLE + "/3", "content://test/other/1"), scheduler.mDelivered);
+        assertEquals(0, scheduler.getCollapsedCount());
+
+        scheduler.hold();
+        for (int i = 1; i <= 4; i++) {
+            scheduler.notifyRow(i, false);
+        }
+        scheduler.release();
+
+        assertEquals(Arrays.asList(TABLE), scheduler.mDelivered.subList(4, scheduler.mDelivered.size()));
+        assertEquals(1, scheduler.getCollapsedCount());
+        assertEquals(8, scheduler.getRaisedCount());
+        assertEquals(5, scheduler.getDeliveredCount());
+    }
+
+    @Test
+    public void tableNotificationReplacesTheRows() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+
+        scheduler.hold();
+        scheduler.notifyRow(1, false);
+        scheduler.notifyChange(TABLE, null, TABLE, null, false);
+        scheduler.notifyRow(2, false);
+        scheduler.release();
+
+        assertEquals(Arrays.asList(TABLE), scheduler.mDelivered);
+        assertEquals(0, scheduler.getCollapsedCount());
+    }
+
+    @Test
+    public void syncIsDeliveredWhenAnyChangeOfTheTableSyncs() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+
+        scheduler.hold();
+        scheduler.notifyRow(1, false);
+        scheduler.notifyRow(2, true);
+        scheduler.notifyChange("content://test/other/1", null, "content://test/other", null, false);
+        scheduler.release();
+
+        assertEquals(Arrays.asList(true, true, false), scheduler.mDeliveredSync);
+    }
+
+    @Test
+    public void windowDelaysTheDeliveryUntilTheScheduledFlush() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+        scheduler.setWindow(50);
+
+        scheduler.notifyRow(1, false);
+        scheduler.notifyRow(2, false);
+        assertTrue(scheduler.mDelivered.isEmpty());
+        assertEquals(50, scheduler.mScheduledDelay);
+        assertEquals(1, scheduler.mScheduleCount);
+
+        scheduler.runScheduledFlush();
+        assertEquals(Arrays.asList(TABLE + "/1", TABLE + "/2"), scheduler.mDelivered);
+
+        //A new notification schedules a new flush once the previous one ran
+        scheduler.notifyRow(3, false);
+        assertEquals(2, scheduler.mScheduleCount);
+    }
+
+    @Test
+    public void scheduledFlushWaitsForTheHold() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+        scheduler.setWindow(50);
+
+        scheduler.notifyRow(1, false);
+        scheduler.hold();
+        scheduler.runScheduledFlush();
+        assertTrue(scheduler.mDelivered.isEmpty());
+
+        scheduler.release();
+        assertTrue(scheduler.mDelivered.isEmpty());
+        assertEquals(2, scheduler.mScheduleCount);
+
+        scheduler.runScheduledFlush();
+        assertEquals(Arrays.asList(TABLE + "/1"), scheduler.mDelivered);
+    }
+
+    @Test
+    public void releaseWithoutPendingChangesSchedulesNothing() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+        scheduler.setWindow(50);
+
+        scheduler.hold();
+        scheduler.release();
+
+        assertNull(scheduler.mScheduledFlush);
+        assertFalse(scheduler.toString().isEmpty());
+    }
+
+    /**
+     * Records the delivered notifications and the scheduled flush instead of handing them to android
+     */
+    private static class RecordingScheduler extends ChangeNotificationScheduler {
+
+        private final List<String> mDelivered = new ArrayList<>();
+        private final List<Boolean> mDeliveredSync = new ArrayList<>();
+        private Runnable mScheduledFlush;
+        private long mScheduledDelay;
+        private int mScheduleCount;
+
+        RecordingScheduler() {
+            super(null);
+        }
+
+        void notifyRow(int id, boolean sync) {
+            notifyChange(TABLE + "/" + id, (Uri) null, TABLE, null, sync);
+        }
+
+        void runScheduledFlush() {
+            Runnable flushRunnable = mScheduledFlush;
+            mScheduledFlush = null;
+            flushRunnable.run();
+        }
+
+        @Override
+        void deliver(String uriKey, Uri uri, boolean sync) {
+            mDelivered.add(uriKey);
+            mDeliveredSync.add(sync);
+        }
+
+        @Override
+        void postFlush(Runnable flushRunnable, long delayMillis) {
+            mScheduledFlush = flushRunnable;
+            mScheduledDelay = delayMillis;
+            mScheduleCount++;
+        }
+    }
+}